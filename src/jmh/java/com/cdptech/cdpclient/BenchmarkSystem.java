@@ -0,0 +1,105 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+
+import java.net.URI;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * An offline client stack (IOHandler, RequestDispatch and Client) fed with synthetic StudioAPI messages.
+ * Node IDs are assigned depth first: 0 is the system, 1 the application, then components each followed by
+ * their signals.
+ */
+class BenchmarkSystem {
+
+  final Client client = new Client();
+  final IOHandler handler;
+  final RequestDispatch dispatch;
+  final int firstSignalID;
+  final int lastSignalID;
+
+  BenchmarkSystem(int components, int signalsPerComponent) {
+    handler = createHandler();
+    dispatch = new RequestDispatch(client, handler);
+    handler.setDispatch(dispatch);
+    client.setNotificationListener(new NotificationListener() {
+      public void clientReady(Client client) {}
+      public void clientClosed(Client client) {}
+    });
+    handler.parse(structureResponse(systemNode()));
+    handler.parse(structureResponse(applicationNode(components, signalsPerComponent)));
+    firstSignalID = 3;
+    lastSignalID = 1 + components * (signalsPerComponent + 1);
+  }
+
+  /** Create an IOHandler which never connects and discards all requests. Time sync is disabled. */
+  static IOHandler createHandler() {
+    Transport transport = new Transport(URI.create("ws://127.0.0.1:7689"), new LinkedBlockingQueue<>(), e -> {}) {
+      @Override
+      public void send(byte[] data) {
+      }
+    };
+    IOHandler handler = new IOHandler(transport);
+    handler.setTimeSyncEnabled(false);
+    return handler;
+  }
+
+  static StudioAPI.Node systemNode() {
+    return StudioAPI.Node.newBuilder()
+        .setInfo(info(0, "BenchmarkSystem", StudioAPI.CDPNodeType.CDP_SYSTEM, StudioAPI.CDPValueType.eUNDEFINED))
+        .addNode(StudioAPI.Node.newBuilder()
+            .setInfo(info(1, "App", StudioAPI.CDPNodeType.CDP_APPLICATION, StudioAPI.CDPValueType.eUNDEFINED)
+                .setIsLocal(true)))
+        .build();
+  }
+
+  static StudioAPI.Node applicationNode(int components, int signalsPerComponent) {
+    StudioAPI.Node.Builder app = StudioAPI.Node.newBuilder()
+        .setInfo(info(1, "App", StudioAPI.CDPNodeType.CDP_APPLICATION, StudioAPI.CDPValueType.eUNDEFINED)
+            .setIsLocal(true));
+    int id = 2;
+    for (int c = 0; c < components; c++) {
+      StudioAPI.Node.Builder component = StudioAPI.Node.newBuilder()
+          .setInfo(info(id++, "Component" + c, StudioAPI.CDPNodeType.CDP_COMPONENT, StudioAPI.CDPValueType.eUNDEFINED)
+              .setTypeName("CDPComponent"));
+      for (int s = 0; s < signalsPerComponent; s++) {
+        component.addNode(StudioAPI.Node.newBuilder()
+            .setInfo(info(id++, "Signal" + s, StudioAPI.CDPNodeType.CDP_BASE_OBJECT, StudioAPI.CDPValueType.eDOUBLE)
+                .setTypeName("CDPSignal<double>")
+                .setFlags(StudioAPI.Info.Flags.eNodeIsLeaf_VALUE)));
+      }
+      app.addNode(component);
+    }
+    return app.build();
+  }
+
+  static StudioAPI.Info.Builder info(int id, String name, StudioAPI.CDPNodeType nodeType,
+                                     StudioAPI.CDPValueType valueType) {
+    return StudioAPI.Info.newBuilder().setNodeId(id).setName(name).setNodeType(nodeType).setValueType(valueType);
+  }
+
+  static byte[] structureResponse(StudioAPI.Node node) {
+    return StudioAPI.Container.newBuilder()
+        .setMessageType(StudioAPI.Container.Type.eStructureResponse)
+        .addStructureResponse(node)
+        .build()
+        .toByteArray();
+  }
+
+  /** Create a getter response with @a count double values, cycling through node IDs @a firstID to @a lastID. */
+  static byte[] getterResponse(int firstID, int lastID, int count) {
+    StudioAPI.Container.Builder container = StudioAPI.Container.newBuilder()
+        .setMessageType(StudioAPI.Container.Type.eGetterResponse);
+    for (int i = 0; i < count; i++) {
+      container.addGetterResponse(StudioAPI.VariantValue.newBuilder()
+          .setNodeId(firstID + i % (lastID - firstID + 1))
+          .setDValue(i * 0.5)
+          .setTimestamp(1_700_000_000_000_000_000L + i * 1_000_000L));
+    }
+    return container.build().toByteArray();
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Decoding of incoming containers by IOHandler. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IOHandlerBenchmark {
+
+  /** Number of values in a getter response and signals in a structure response. */
+  @Param({"1", "100"})
+  int size;
+
+  private BenchmarkSystem system;
+  private IOHandler structureHandler;
+  private byte[] getterResponse;
+  private byte[] structureResponse;
+  private StudioAPI.VariantValue variantValue;
+
+  @Setup
+  public void setUp() {
+    system = new BenchmarkSystem(1, size);
+    getterResponse = BenchmarkSystem.getterResponse(system.firstSignalID, system.firstSignalID + size - 1, size);
+    structureHandler = BenchmarkSystem.createHandler();
+    structureHandler.setDispatch(new NullListener());
+    structureResponse = BenchmarkSystem.structureResponse(BenchmarkSystem.applicationNode(1, size));
+    variantValue = StudioAPI.VariantValue.newBuilder().setNodeId(3).setDValue(1.5).setTimestamp(1L << 60).build();
+  }
+
+  @Benchmark
+  public void parseGetterResponse() {
+    system.handler.parse(getterResponse);
+  }
+
+  @Benchmark
+  public void parseStructureResponse() {
+    structureHandler.parse(structureResponse);
+  }
+
+  @Benchmark
+  public Variant createVariant() {
+    return IOHandler.createVariant(variantValue, 0);
+  }
+
+  /** Discards parsed results so only the decoding is measured. */
+  private static class NullListener implements IOListener {
+    public void initReady(boolean success) {}
+    public void nodeReceived(Node node) {}
+    public void valueReceived(int nodeID, Variant value, int encodedSize) {}
+    public void valueReceived(int nodeID, StudioAPI.CDPValueType type, long bits, long timestampNs, int encodedSize) {}
+  }
+}
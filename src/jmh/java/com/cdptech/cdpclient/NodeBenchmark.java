@@ -0,0 +1,42 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/** Value listener dispatch in Node.setValue. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NodeBenchmark {
+
+  @Param({"0", "1", "10"})
+  int listeners;
+
+  private Node node;
+  private Variant value;
+
+  @Setup
+  public void setUp(Blackhole blackhole) {
+    BenchmarkSystem system = new BenchmarkSystem(1, 1);
+    node = system.dispatch.findNodeByID(system.firstSignalID);
+    node.setDispatch(system.dispatch);
+    for (int i = 0; i < listeners; i++)
+      node.subscribeToValueChanges(blackhole::consume);
+    value = new Variant(StudioAPI.CDPValueType.eDOUBLE, 1.5, 0);
+  }
+
+  @Benchmark
+  public void setValue() {
+    node.setValue(value);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retained heap per cached node after receiving the structure of an application with leaf signals, reported as
+ * the bytesPerNode counter. Run with -Djmh.args="NodeFootprintBenchmark".
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class NodeFootprintBenchmark {
+
+  private static final int SIGNALS_PER_COMPONENT = 100;
+
+  @Param({"100000"})
+  int nodes;
+
+  /** Keep the signals encoded until accessed, see {@link Client#setLazyStructure(boolean)}. */
+  @Param({"false", "true"})
+  boolean lazy;
+
+  /** Retained bytes of the last cached structure divided by its node count. */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Footprint {
+    public long bytesPerNode;
+  }
+
+  private byte[] systemResponse;
+  private byte[] applicationResponse;
+  private Client client;
+  private RequestDispatch dispatch;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    systemResponse = BenchmarkSystem.structureResponse(BenchmarkSystem.systemNode());
+    applicationResponse = BenchmarkSystem.structureResponse(
+        BenchmarkSystem.applicationNode(nodes / (SIGNALS_PER_COMPONENT + 1), SIGNALS_PER_COMPONENT));
+  }
+
+  @Setup(Level.Iteration)
+  public void release() {
+    client = null;
+    dispatch = null;
+  }
+
+  @Benchmark
+  public void cacheStructure(Footprint footprint) {
+    long before = usedHeap();
+    client = new Client();
+    client.setNotificationListener(new NotificationListener() {
+      public void clientReady(Client client) {}
+      public void clientClosed(Client client) {}
+    });
+    IOHandler handler = BenchmarkSystem.createHandler();
+    handler.setLazyStructure(lazy);
+    dispatch = new RequestDispatch(client, handler);
+    handler.setDispatch(dispatch);
+    handler.parse(systemResponse);
+    handler.parse(applicationResponse);
+    footprint.bytesPerNode = (usedHeap() - before) / nodes;
+  }
+
+  private static long usedHeap() {
+    for (int i = 0; i < 3; i++)
+      System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Node lookup and value dispatch in RequestDispatch for different node cache sizes. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestDispatchBenchmark {
+
+  /** Number of signals in the cached tree, spread over 100 components. */
+  @Param({"100", "10000", "100000"})
+  int signals;
+
+  private BenchmarkSystem system;
+  private Variant value;
+
+  @Setup
+  public void setUp() {
+    system = new BenchmarkSystem(100, Math.max(1, signals / 100));
+    value = new Variant(StudioAPI.CDPValueType.eDOUBLE, 1.5, 0);
+  }
+
+  /** Walk of the cached tree, with the lookup memo cleared as after a structure change. */
+  @Benchmark
+  public Node findFirstNodeByID() {
+    system.dispatch.clearNodeLookups();
+    return system.dispatch.findNodeByID(system.firstSignalID);
+  }
+
+  /** Walk of the cached tree, with the lookup memo cleared as after a structure change. */
+  @Benchmark
+  public Node findLastNodeByID() {
+    system.dispatch.clearNodeLookups();
+    return system.dispatch.findNodeByID(system.lastSignalID);
+  }
+
+  /** Repeated lookup of a node, answered by the memo. */
+  @Benchmark
+  public Node findLastNodeByIDRemembered() {
+    return system.dispatch.findNodeByID(system.lastSignalID);
+  }
+
+  @Benchmark
+  public void valueReceivedForLastNode() {
+    system.dispatch.valueReceived(system.lastSignalID, value, 20);
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Creation of Variants from text with Variant.Builder. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VariantBenchmark {
+
+  @Benchmark
+  public Variant parseDouble() {
+    return new Variant.Builder(StudioAPI.CDPValueType.eDOUBLE).parse("1234.5678").build();
+  }
+
+  @Benchmark
+  public Variant parseInt() {
+    return new Variant.Builder(StudioAPI.CDPValueType.eINT).parse("-123456").build();
+  }
+
+  @Benchmark
+  public Variant parseBool() {
+    return new Variant.Builder(StudioAPI.CDPValueType.eBOOL).parse("true").build();
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compares the cached children of a node with the children received in a structure response by sort-merging
+ * them by node ID, see {@link #compare}. The result is a list of removed and added IDs. Lists in the same
+ * order, as in most updates, are compared in one pass without sorting. The arrays are reused for every update
+ * of a connection, which must only be done by the event loop.
+ */
+final class ChildListDiff {
+
+  private static final Comparator<Node> BY_ID = Comparator.comparingInt(Node::getNodeID);
+  private static final Comparator<Node> BY_NAME = Comparator.comparing(Node::getName);
+
+  private Node[] cached = new Node[16];
+  private Node[] received = new Node[16];
+  private int[] removedIDs = new int[16];
+  private int[] addedIDs = new int[16];
+  private int removedCount;
+  private int addedCount;
+
+  /** Compare the children of @a cachedNode with those of @a receivedNode by ID. */
+  void compare(Node cachedNode, Node receivedNode) {
+    removedCount = 0;
+    addedCount = 0;
+    List<Node> cachedList = cachedNode.getChildList();
+    List<Node> receivedList = receivedNode.getChildList();
+    if (haveSameIDs(cachedList, receivedList))
+      return;
+    int cachedCount = sortedCopy(cachedList, true, BY_ID);
+    int receivedCount = sortedCopy(receivedList, false, BY_ID);
+    int i = 0;
+    int j = 0;
+    while (i < cachedCount || j < receivedCount) {
+      int cachedID = i < cachedCount ? cached[i].getNodeID() : Integer.MAX_VALUE;
+      int receivedID = j < receivedCount ? received[j].getNodeID() : Integer.MAX_VALUE;
+      if (i < cachedCount && (j == receivedCount || cachedID < receivedID)) {
+        removedIDs = append(removedIDs, removedCount++, cachedID);
+        i++;
+      } else if (j < receivedCount && (i == cachedCount || receivedID < cachedID)) {
+        addedIDs = append(addedIDs, addedCount++, receivedID);
+        j++;
+      } else {
+        i++;
+        j++;
+      }
+    }
+    release(cachedCount, receivedCount);
+  }
+
+  /**
+   * Give the cached children of @a cachedNode the IDs of the received children with the same name, as the
+   * applications under the system node get new IDs when they restart.
+   */
+  void remapIDsByName(Node cachedNode, Node receivedNode) {
+    int cachedCount = sortedCopy(cachedNode.getChildList(), true, BY_NAME);
+    int receivedCount = sortedCopy(receivedNode.getChildList(), false, BY_NAME);
+    for (int i = 0, j = 0; i < cachedCount && j < receivedCount; ) {
+      int order = cached[i].getName().compareTo(received[j].getName());
+      if (order == 0)
+        cached[i++].setNodeID(received[j++].getNodeID());
+      else if (order < 0)
+        i++;
+      else
+        j++;
+    }
+    release(cachedCount, receivedCount);
+  }
+
+  /** Get the removed IDs in ascending order, valid up to {@link #getRemovedCount()}. */
+  int[] getRemovedIDs() {
+    return removedIDs;
+  }
+
+  int getRemovedCount() {
+    return removedCount;
+  }
+
+  /** Check if the received child with @a nodeID was not in the cache. */
+  boolean isAdded(int nodeID) {
+    return Arrays.binarySearch(addedIDs, 0, addedCount, nodeID) >= 0;
+  }
+
+  int getAddedCount() {
+    return addedCount;
+  }
+
+  private static boolean haveSameIDs(List<Node> a, List<Node> b) {
+    if (a.size() != b.size())
+      return false;
+    for (int i = 0; i < a.size(); i++)
+      if (a.get(i).getNodeID() != b.get(i).getNodeID())
+        return false;
+    return true;
+  }
+
+  /** Copy @a nodes to the cached or received array sorted by @a order, sorting only if needed. */
+  private int sortedCopy(List<Node> nodes, boolean toCached, Comparator<Node> order) {
+    int count = nodes.size();
+    Node[] array = toCached ? cached : received;
+    if (array.length < count)
+      array = new Node[Math.max(count, array.length * 2)];
+    boolean sorted = true;
+    for (int i = 0; i < count; i++) {
+      array[i] = nodes.get(i);
+      if (i > 0 && order.compare(array[i - 1], array[i]) > 0)
+        sorted = false;
+    }
+    if (!sorted)
+      Arrays.sort(array, 0, count, order);
+    if (toCached)
+      cached = array;
+    else
+      received = array;
+    return count;
+  }
+
+  private static int[] append(int[] array, int index, int value) {
+    if (index == array.length)
+      array = Arrays.copyOf(array, array.length * 2);
+    array[index] = value;
+    return array;
+  }
+
+  /** Drop the references to the compared nodes. */
+  private void release(int cachedCount, int receivedCount) {
+    Arrays.fill(cached, 0, cachedCount, null);
+    Arrays.fill(received, 0, receivedCount, null);
+  }
+}
@@ -4,6 +4,7 @@
 
 package com.cdptech.cdpclient;
 
+import com.cdptech.cdpclient.proto.StudioAPI;
 import lombok.SneakyThrows;
 
 import javax.net.SocketFactory;
@@ -12,13 +13,20 @@ import javax.net.ssl.SSLParameters;
 import javax.net.ssl.TrustManagerFactory;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.KeyStore;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateFactory;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiConsumer;
 
 /**
@@ -110,24 +118,42 @@ import java.util.function.BiConsumer;
 public class Client implements Runnable {
 
   private static final int REAUTH_CACHE_LENGTH_SECONDS = 5;
+  private static final long EVENT_LOOP_PERIOD_NS = TimeUnit.MILLISECONDS.toNanos(10);
 
   private Map<URI, Connection> connections = new HashMap<>();
+  private Map<URI, ConnectionCounters> connectionCounters = new ConcurrentHashMap<>();
   private Set<URI> lostConnections = new HashSet<>();
   private Node rootNode;
   private Set<Node> lostApps = new HashSet<>();
+  private NameTable nameTable = new NameTable(NameTable.DEFAULT_CAPACITY);
+  private StructureCache structureCache = new StructureCache();
 
   private SocketFactory socketFactory;
   private BiConsumer<URI, SSLParameters> socketParameterHandler;
   private NotificationListener listener;
   private CompositeAuthRequest compositeReauthRequest;
   private long lastReconnectTimeMs = 0;
+  private long writeCoalescingIntervalMs = 0;
+  private long retiredSupersededWriteCount = 0;
   private boolean cleanupConnections = false;
   private boolean timeSyncEnabled = true;
   private boolean autoReconnect = true;
-  private boolean clientClosed = false;
+  private boolean jmxEnabled = false;
+  private boolean valueLatencyTracking = false;
+  private boolean valueRateTracking = false;
+  private boolean reusableValues = false;
+  private boolean lazyStructure = false;
+  private ClientManagement management;
+  private TrafficCapture capture;
+  private Transport.Factory transportFactory = Transport::new;
+  private volatile boolean clientClosed = false;
+  private volatile Thread eventLoopThread;
+  private Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+  private ThreadSafeClient threadSafeClient;
 
   /** Create a new StudioAPI Client instance. */
   public Client() {
+    WallClock.epochNanos();  // aligns the clock anchor here rather than on the event loop
   }
 
   /**
@@ -136,11 +162,16 @@ public class Client implements Runnable {
   public void init(String address, int port, NotificationListener listener) {
     this.listener = listener;
     clientClosed = false;
+    if (jmxEnabled && management == null)
+      registerManagement();
     try {
       URI wsURI = new URI(getDefaultScheme(), null, address, port, null, null, null);
       if (connections.containsKey(wsURI))
         return;
-      Connection c = new Connection(this, wsURI, socketFactory, socketParameterHandler);
+      if (lostConnections.contains(wsURI))
+        getCounters(wsURI).reconnectAttemptCount.increment();
+      Connection c = new Connection(this, wsURI, socketFactory, socketParameterHandler, getCounters(wsURI));
+      configureConnection(c);
       c.init();
       connections.put(wsURI, c);
     } catch (URISyntaxException e) {
@@ -278,6 +309,76 @@ public class Client implements Runnable {
     return getRootNode().find(nodePath);
   }
 
+  /**
+   * Request node with the provided path and wait until it is found. Meant for straight-line code in worker
+   * threads, including virtual threads: the calling thread parks without holding any monitors while the event
+   * loop ({@link #run()} or {@link #process()} in another thread) completes the request. Must not be called
+   * from the event loop thread.
+   *
+   * @param nodePath Should contain dot separated path to target node (e.g. "MyApp.MyComponent.MySignal").
+   * @param timeout Maximum time to wait.
+   * @throws NoSuchElementException if the node does not exist.
+   * @throws TimeoutException if the node was not found within @a timeout.
+   * @throws IllegalStateException if called from the event loop thread.
+   */
+  public Node findNodeBlocking(String nodePath, Duration timeout) throws InterruptedException, TimeoutException {
+    ThreadSafeClient facade = threadSafe();
+    facade.checkNotEventLoopThread();
+    return facade.await(facade.findNode(nodePath), timeout);
+  }
+
+  /**
+   * (asynchronous) Set the remote values of several nodes at once, for example when loading a recipe.
+   * All values are type-checked before anything is sent, and the values of nodes belonging to the same
+   * CDP application connection are sent together in a single request.
+   *
+   * @param values Values to post, with each Variant matching the value type of its node.
+   * @throws UnsupportedOperationException if a node has no value or a Variant value type does not match.
+   * @throws IllegalStateException if a node is not connected.
+   */
+  public void postValues(Map<Node, Variant> values) {
+    Map<RequestDispatch, List<StudioAPI.VariantValue>> batches = new LinkedHashMap<>();
+    for (Map.Entry<Node, Variant> entry : values.entrySet()) {
+      Node node = entry.getKey();
+      RequestDispatch.checkValueType(node, entry.getValue().getValueType());
+      batchFor(batches, node).add(IOHandler.encodeValue(node, entry.getValue()));
+    }
+    sendBatches(batches);
+  }
+
+  /**
+   * (asynchronous) Set the remote values of several numeric nodes at once. Works like {@link #postValues(Map)}
+   * but takes primitive values, which are converted to the value type of each node.
+   *
+   * @param nodes Nodes to post values to.
+   * @param values Values to post, where values[i] is posted to nodes[i].
+   * @throws IllegalArgumentException if the array lengths differ, or a value for an integer node
+   *                                  is not a whole number.
+   * @throws UnsupportedOperationException if a node does not have a numeric or boolean value.
+   * @throws IllegalStateException if a node is not connected.
+   */
+  public void postValues(Node[] nodes, double[] values) {
+    if (nodes.length != values.length)
+      throw new IllegalArgumentException("Node and value counts differ");
+    Map<RequestDispatch, List<StudioAPI.VariantValue>> batches = new LinkedHashMap<>();
+    for (int i = 0; i < nodes.length; i++)
+      batchFor(batches, nodes[i]).add(IOHandler.encodeValue(nodes[i], values[i]));
+    sendBatches(batches);
+  }
+
+  List<StudioAPI.VariantValue> batchFor(Map<RequestDispatch, List<StudioAPI.VariantValue>> batches,
+                                        Node node) {
+    RequestDispatch dispatch = node.getDispatch();
+    if (dispatch == null)
+      throw new IllegalStateException("Node " + node.getLongName() + " is not connected");
+    return batches.computeIfAbsent(dispatch, d -> new ArrayList<>());
+  }
+
+  void sendBatches(Map<RequestDispatch, List<StudioAPI.VariantValue>> batches) {
+    for (Map.Entry<RequestDispatch, List<StudioAPI.VariantValue>> batch : batches.entrySet())
+      batch.getKey().postEncodedValues(batch.getValue());
+  }
+
   /**
     * Sets whether to enable automatic and periodic time sync. When enabled, the timestamps
     * received from remote machines (e.g. values received after calling subscribeToValueChanges())
@@ -289,6 +390,206 @@ public class Client implements Runnable {
       c.setTimeSync(enabled);
   }
 
+  /**
+   * Enables last-writer-wins coalescing of {@link Node#postValue} calls. Values posted within the flush interval
+   * are held back and only the most recent value of each node is sent, with all nodes of a connection grouped into
+   * a single request. Useful when values are posted faster than the remote application can apply them.
+   * By default coalescing is disabled and every posted value is sent immediately.
+   *
+   * @param flushIntervalMs Maximum time a posted value is held back. 0 disables coalescing.
+   * @see #getSupersededWriteCount()
+   */
+  public void setWriteCoalescingInterval(long flushIntervalMs) {
+    if (flushIntervalMs < 0)
+      throw new IllegalArgumentException("Flush interval must not be negative");
+    writeCoalescingIntervalMs = flushIntervalMs;
+    for (Connection c : connections.values())
+      c.setWriteCoalescingInterval(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+  }
+
+  /**
+   * Get the number of posted values that were never sent because a newer value for the same node
+   * replaced them during write coalescing.
+   *
+   * @see #setWriteCoalescingInterval(long)
+   */
+  public long getSupersededWriteCount() {
+    long count = retiredSupersededWriteCount;
+    for (Connection c : connections.values())
+      count += c.getSupersededWriteCount();
+    return count;
+  }
+
+  /**
+   * Get a snapshot of the client's internal load: frames, bytes and values transferred, inbound queue depth,
+   * decode and listener time and reconnects, per server connection. Can be called from any thread.
+   */
+  public ClientMetrics getMetrics() {
+    Map<URI, ClientMetrics.ConnectionMetrics> metrics = new LinkedHashMap<>();
+    for (Map.Entry<URI, ConnectionCounters> entry : connectionCounters.entrySet())
+      metrics.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+    return new ClientMetrics(metrics);
+  }
+
+  private ConnectionCounters getCounters(URI uri) {
+    ConnectionCounters counters = connectionCounters.get(uri);
+    if (counters == null) {
+      counters = new ConnectionCounters();
+      connectionCounters.put(uri, counters);
+      if (management != null)
+        management.registerConnection(uri, counters);
+    }
+    return counters;
+  }
+
+  /**
+   * Registers JMX MBeans (see {@link ClientMXBean} and {@link ConnectionMXBean}) for this client and each of its
+   * connections in the platform MBean server. Attributes are only computed when read. By default JMX is disabled.
+   * The beans are unregistered when the client is closed or JMX is disabled.
+   */
+  public void setJmxEnabled(boolean enabled) {
+    jmxEnabled = enabled;
+    if (enabled && management == null && !connections.isEmpty())
+      registerManagement();
+    else if (!enabled)
+      unregisterManagement();
+  }
+
+  private void registerManagement() {
+    management = new ClientManagement(this);
+    management.register();
+    for (Map.Entry<URI, ConnectionCounters> entry : connectionCounters.entrySet())
+      management.registerConnection(entry.getKey(), entry.getValue());
+  }
+
+  private void unregisterManagement() {
+    if (management != null)
+      management.unregister();
+    management = null;
+  }
+
+  /**
+   * Enables recording a latency histogram per node, see {@link Node#getValueLatency()}. The per-connection
+   * value latency in {@link #getMetrics()} is always recorded. Recording allocates nothing per value, each
+   * node receiving values keeps a histogram of about 2 KB. By default it is disabled.
+   */
+  public void setValueLatencyTracking(boolean enabled) {
+    valueLatencyTracking = enabled;
+    for (Connection c : connections.values())
+      c.setValueLatencyTracking(enabled);
+  }
+
+  /**
+   * Enables counting the values and bytes received per node, with decaying rate estimates, to find the nodes
+   * dominating bandwidth and CPU with {@link #getHottestNodes}. By default it is disabled.
+   */
+  public void setValueRateTracking(boolean enabled) {
+    valueRateTracking = enabled;
+    for (Connection c : connections.values())
+      c.setValueRateTracking(enabled);
+  }
+
+  /**
+   * Enables passing one reused Variant to all ValueListeners of the event loop instead of creating a Variant per
+   * received value. The Variant is only valid during the listener callback, use {@link Variant#copy()} to retain
+   * it. {@link Node#getCachedValue()} creates a copy when called. String values are never reused. By default
+   * it is disabled.
+   */
+  public void setReusableValues(boolean enabled) {
+    reusableValues = enabled;
+    for (Connection c : connections.values())
+      c.setReusableValues(enabled);
+  }
+
+  /**
+   * Enables keeping the nested nodes of structure responses in their received encoding until the children of
+   * their parent are first accessed, e.g. with {@link Node#getChildCount()}, {@link Node#getCachedChild(int)} or
+   * {@link Node#find(String)}. Clients that only visit a few branches of deep structures then create fewer nodes,
+   * while the received frames are retained until their subtrees are visited or dropped. By default it is disabled.
+   */
+  public void setLazyStructure(boolean enabled) {
+    lazyStructure = enabled;
+    for (Connection c : connections.values())
+      c.setLazyStructure(enabled);
+  }
+
+  /**
+   * Limits the structure cache to about @a maxNodes child nodes. When more children are received, the least
+   * recently used subtrees without value or structure subscriptions are evicted: their nodes no longer have
+   * polled children and {@link Node#find(String)} or {@link Node#requestChildNodes()} fetch them again.
+   * Finding, requesting or receiving the children of a node counts as a use. Must be called from the event
+   * loop once it runs. By default it is 0, which means no limit.
+   *
+   * @throws IllegalArgumentException if @a maxNodes is negative.
+   */
+  public void setStructureCacheBudget(int maxNodes) {
+    structureCache.setBudget(maxNodes);
+  }
+
+  /**
+   * Get the @a count nodes with the highest received byte rate. Requires {@link #setValueRateTracking}.
+   * @see #getHottestNodes(int, Comparator)
+   */
+  public List<NodeTraffic> getHottestNodes(int count) {
+    return getHottestNodes(count, NodeTraffic.BY_BYTE_RATE);
+  }
+
+  /**
+   * Get the first @a count nodes that received values, in @a order, e.g. {@link NodeTraffic#BY_SAMPLE_RATE}.
+   * Requires {@link #setValueRateTracking}. Walks the whole node cache, so it is meant for occasional reports.
+   */
+  public List<NodeTraffic> getHottestNodes(int count, Comparator<NodeTraffic> order) {
+    if (count <= 0)
+      return Collections.emptyList();
+    long now = WallClock.epochNanos();
+    PriorityQueue<NodeTraffic> top = new PriorityQueue<>(count + 1, order.reversed());
+    for (Connection c : connections.values()) {
+      c.getDispatch().forEachCachedNode(node -> {
+        NodeStatistics statistics = node.peekStatistics();
+        if (statistics == null || statistics.getSampleCount() == 0)
+          return;
+        top.add(new NodeTraffic(node, node.getLongName(), statistics.getSampleCount(), statistics.getByteCount(),
+            statistics.getSampleRate(now), statistics.getByteRate(now)));
+        if (top.size() > count)
+          top.poll();
+      });
+    }
+    List<NodeTraffic> result = new ArrayList<>(top);
+    result.sort(order);
+    return result;
+  }
+
+  /**
+   * Start writing every frame sent and received by all connections to @a file, with timestamps, for
+   * replaying it later with {@link TrafficReplay}. A capture in progress is stopped first. Note that the
+   * capture contains everything sent, including the password hashes of authentication.
+   *
+   * @throws IOException if the file can not be created.
+   */
+  public void startCapture(File file) throws IOException {
+    stopCapture();
+    setCapture(new TrafficCapture(file));
+  }
+
+  /** Stop the capture started with {@link #startCapture(File)}, if any, and close its file. */
+  public void stopCapture() {
+    TrafficCapture previous = capture;
+    setCapture(null);
+    if (previous != null)
+      previous.close();
+  }
+
+  private void setCapture(TrafficCapture capture) {
+    this.capture = capture;
+    for (Connection c : connections.values())
+      c.setCapture(capture);
+  }
+
+  /** Replace how connection transports are created, must be called before init(). */
+  void setTransportFactory(Transport.Factory transportFactory) {
+    this.transportFactory = transportFactory;
+  }
+
   /**
    * When enabled, the client keeps trying to reconnect after losing a connection instead of
    * notifying listener of clientClosed() event. By default it is enabled.
@@ -297,8 +598,20 @@ public class Client implements Runnable {
     this.autoReconnect = enabled;
   }
 
+  /**
+   * Get a thread-safe facade of this client. Its methods can be called from any thread and are
+   * executed by the thread running {@link #process()} (or {@link #run()}).
+   */
+  public synchronized ThreadSafeClient threadSafe() {
+    if (threadSafeClient == null)
+      threadSafeClient = new ThreadSafeClient(this);
+    return threadSafeClient;
+  }
+
   /** Event-loop method for use in single-threaded applications. */
   public void process() {
+    eventLoopThread = Thread.currentThread();
+    runCommands();
     for (Connection c : connections.values()) {
       try {
         c.service();
@@ -335,20 +648,59 @@ public class Client implements Runnable {
     process();
     if (clientClosed)
       break;
-    try {
-      Thread.sleep(10);
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
+    LockSupport.parkNanos(this, EVENT_LOOP_PERIOD_NS); // woken up early by invokeLater()
+    if (Thread.currentThread().isInterrupted())
       close();
-    }
   }
   }
 
-  /** Closes all connections. */
+  /**
+   * Queue @a command to be run by the event loop thread. Can be called from any thread.
+   * Commands are run in the order they were queued.
+   */
+  void invokeLater(Runnable command) {
+    commands.add(command);
+    Thread loop = eventLoopThread;
+    if (loop != null && loop != Thread.currentThread())
+      LockSupport.unpark(loop);
+  }
+
+  /** Check if the calling thread is the one running the event loop. */
+  boolean isEventLoopThread() {
+    return eventLoopThread == Thread.currentThread();
+  }
+
+  boolean isClosed() {
+    return clientClosed;
+  }
+
+  private void runCommands() {
+    Runnable command;
+    while ((command = commands.poll()) != null)
+      command.run();
+  }
+
+  /** Closes all connections. Calls queued by {@link #threadSafe()} that have not run yet fail. */
   public void close() {
     clientClosed = true;
     for (Connection c : connections.values())
       c.close();
+    stopCapture();
+    unregisterManagement();
+    rejectQueuedCommands();
+  }
+
+  /** Remove the queued commands, failing the futures of those queued by {@link ThreadSafeClient}. */
+  void rejectQueuedCommands() {
+    Runnable command;
+    while ((command = commands.poll()) != null)
+      if (command instanceof ThreadSafeClient.Command)
+        ((ThreadSafeClient.Command) command).reject();
+  }
+
+  /** Set the notification listener without connecting, for connections that are set up by other means. */
+  void setNotificationListener(NotificationListener listener) {
+    this.listener = listener;
   }
 
   /** Called internally to set the root node of the system. */
@@ -390,8 +742,8 @@ public class Client implements Runnable {
                 null, null, null);
         if (connections.containsKey(wsURI))
           return;
-        Connection c = new Connection(this, wsURI, socketFactory, socketParameterHandler);
-        c.setTimeSync(timeSyncEnabled);
+        Connection c = new Connection(this, wsURI, socketFactory, socketParameterHandler, getCounters(wsURI));
+        configureConnection(c);
         c.init();
         connections.put(wsURI, c);
       } catch (URISyntaxException e) {
@@ -400,6 +752,18 @@ public class Client implements Runnable {
     }
   }
 
+  /** Apply the client settings to a new connection before it is initialized. */
+  private void configureConnection(Connection c) {
+    c.setTimeSync(timeSyncEnabled);
+    c.setWriteCoalescingInterval(TimeUnit.MILLISECONDS.toNanos(writeCoalescingIntervalMs));
+    c.setValueLatencyTracking(valueLatencyTracking);
+    c.setValueRateTracking(valueRateTracking);
+    c.setReusableValues(reusableValues);
+    c.setLazyStructure(lazyStructure);
+    c.setTransportFactory(transportFactory);
+    c.setCapture(capture);
+  }
+
   /** Post-process cleanup method. */
   private void removeDroppedConnections() {
     // remove dispatches
@@ -407,12 +771,15 @@ public class Client implements Runnable {
     while (it.hasNext()) {
       Map.Entry<URI, Connection> entry = it.next();
       if (entry.getValue().getDispatch().getState() != RequestDispatch.State.ESTABLISHED) {
+        retiredSupersededWriteCount += entry.getValue().getSupersededWriteCount();
+        getCounters(entry.getKey()).dropCount.increment();
         lostConnections.add(entry.getKey());
         it.remove();
       }
     }
 
     // remove nodes left without dispatches
+    boolean appsRemoved = false;
     if (rootNode != null) {
       ListIterator<Node> iter = rootNode.getChildList().listIterator();
       while (iter.hasNext()) {
@@ -421,9 +788,13 @@ public class Client implements Runnable {
           lostApps.add(n);
           n.setParent(null);
           iter.remove();
+          appsRemoved = true;
         }
       }
     }
+    if (appsRemoved)  // lookups are not per connection, any dispatch may remember a removed app
+      for (Connection c : connections.values())
+        c.getDispatch().clearNodeLookups();
     cleanupConnections = false;
     if (connections.isEmpty()) {
       if (!autoReconnect) {
@@ -480,10 +851,26 @@ public class Client implements Runnable {
     }
   }
 
+  Collection<Connection> getConnections() {
+    return connections.values();
+  }
+
+  Connection getConnection(URI uri) {
+    return connections.get(uri);
+  }
+
   Set<Node> getLostApps() {
     return lostApps;
   }
 
+  NameTable getNameTable() {
+    return nameTable;
+  }
+
+  StructureCache getStructureCache() {
+    return structureCache;
+  }
+
   void requestApplicationAcceptance(AuthRequest request) {
     listener.applicationAcceptanceRequested(request);
   }
@@ -0,0 +1,38 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+/**
+ * JMX management interface of a {@link Client}, registered as
+ * {@code com.cdptech.cdpclient:type=Client,name=<name>} when enabled with {@link Client#setJmxEnabled}.
+ * Attributes reading the node cache are evaluated on the client's event loop thread.
+ */
+public interface ClientMXBean {
+
+  /** Server URIs the client has connected to, including currently lost ones. */
+  String[] getConnectionURIs();
+
+  int getConnectionCount();
+
+  int getCachedNodeCount();
+
+  int getSubscriptionCount();
+
+  long getFramesReceived();
+
+  long getValuesDispatched();
+
+  /** Values received per second since the previous read of this attribute. */
+  double getValuesPerSecond();
+
+  /** Get a line per value or structure subscription of every connection. */
+  String[] dumpSubscriptions();
+
+  /** Get the @a count nodes with the highest received byte rate, if value rate tracking is enabled. */
+  String[] hottestNodes(int count);
+
+  /** Measure the time delta again and resend all subscriptions on every connection. */
+  void forceResync();
+}
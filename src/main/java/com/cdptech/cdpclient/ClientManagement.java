@@ -0,0 +1,187 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Registers the JMX beans of a Client and its connections. Nothing is computed until a bean is read:
+ * counters are read from the ConnectionCounters and node cache queries run as commands on the event loop.
+ */
+class ClientManagement implements ClientMXBean {
+
+  static final String DOMAIN = "com.cdptech.cdpclient";
+  private static final long EVENT_LOOP_TIMEOUT_MS = 1000;
+  private static final AtomicInteger clientCount = new AtomicInteger();
+
+  private final Client client;
+  private final String name = "client-" + clientCount.incrementAndGet();
+  private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+  private final Map<URI, ObjectName> connectionNames = new ConcurrentHashMap<>();
+  private final Rate valueRate = new Rate();
+  private ObjectName objectName;
+
+  ClientManagement(Client client) {
+    this.client = client;
+  }
+
+  void register() {
+    objectName = register(this, DOMAIN + ":type=Client,name=" + name);
+  }
+
+  void registerConnection(URI uri, ConnectionCounters counters) {
+    connectionNames.put(uri, register(new ConnectionManagement(this, uri, counters),
+        DOMAIN + ":type=Connection,client=" + name + ",uri=" + ObjectName.quote(uri.toString())));
+  }
+
+  /** Unregister the client bean and all connection beans. */
+  void unregister() {
+    for (ObjectName connectionName : connectionNames.values())
+      unregister(connectionName);
+    connectionNames.clear();
+    if (objectName != null)
+      unregister(objectName);
+    objectName = null;
+  }
+
+  Client getClient() {
+    return client;
+  }
+
+  /**
+   * Run @a task on the event loop and return its result, or @a fallback if the event loop does not
+   * run it in time (e.g. the client is closed or {@link Client#process()} is not called).
+   */
+  <T> T onEventLoop(Function<Client, T> task, T fallback) {
+    if (client.isEventLoopThread())
+      return task.apply(client);
+    if (client.isClosed())
+      return fallback;
+    try {
+      return client.threadSafe().submit(task).get(EVENT_LOOP_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return fallback;
+    } catch (ExecutionException | TimeoutException e) {
+      return fallback;
+    }
+  }
+
+  @Override
+  public String[] getConnectionURIs() {
+    return connectionNames.keySet().stream().map(URI::toString).sorted().toArray(String[]::new);
+  }
+
+  @Override
+  public int getConnectionCount() {
+    return onEventLoop(c -> c.getConnections().size(), 0);
+  }
+
+  @Override
+  public int getCachedNodeCount() {
+    return onEventLoop(c -> {
+      int count = c.getRootNode() == null ? 0 : 1;
+      for (Connection connection : c.getConnections())
+        count += connection.getDispatch().getCachedNodeCount();
+      return count;
+    }, 0);
+  }
+
+  @Override
+  public int getSubscriptionCount() {
+    return onEventLoop(c -> {
+      int count = 0;
+      for (Connection connection : c.getConnections())
+        count += connection.getDispatch().getSubscriptionCount();
+      return count;
+    }, 0);
+  }
+
+  @Override
+  public long getFramesReceived() {
+    return client.getMetrics().getFramesReceived();
+  }
+
+  @Override
+  public long getValuesDispatched() {
+    return client.getMetrics().getValuesDispatched();
+  }
+
+  @Override
+  public double getValuesPerSecond() {
+    return valueRate.update(getValuesDispatched());
+  }
+
+  @Override
+  public String[] dumpSubscriptions() {
+    return onEventLoop(c -> {
+      List<String> table = new ArrayList<>();
+      for (Connection connection : c.getConnections())
+        table.addAll(connection.getDispatch().getSubscriptionTable());
+      return table.toArray(new String[0]);
+    }, new String[0]);
+  }
+
+  @Override
+  public String[] hottestNodes(int count) {
+    return onEventLoop(c -> c.getHottestNodes(count).stream().map(NodeTraffic::toString).toArray(String[]::new),
+        new String[0]);
+  }
+
+  @Override
+  public void forceResync() {
+    client.threadSafe().execute(c -> {
+      for (Connection connection : c.getConnections())
+        connection.forceResync();
+    });
+  }
+
+  private ObjectName register(Object bean, String name) {
+    try {
+      ObjectName objectName = new ObjectName(name);
+      server.registerMBean(bean, objectName);
+      return objectName;
+    } catch (JMException e) {
+      throw new IllegalStateException("Unable to register MBean " + name, e);
+    }
+  }
+
+  private void unregister(ObjectName objectName) {
+    try {
+      server.unregisterMBean(objectName);
+    } catch (InstanceNotFoundException ignored) {
+    } catch (JMException e) {
+      throw new IllegalStateException("Unable to unregister MBean " + objectName, e);
+    }
+  }
+
+  /** Computes a per second rate of a counter between consecutive reads. */
+  static class Rate {
+    private long lastCount;
+    private long lastTimeNs = System.nanoTime();
+
+    synchronized double update(long count) {
+      long now = System.nanoTime();
+      double rate = (count - lastCount) / ((now - lastTimeNs) / 1e9);
+      lastCount = count;
+      lastTimeNs = now;
+      return rate;
+    }
+  }
+}
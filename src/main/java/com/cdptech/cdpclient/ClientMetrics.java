@@ -0,0 +1,89 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import lombok.Data;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * A snapshot of the client's internal load, per server connection.
+ *
+ * @see Client#getMetrics()
+ */
+public final class ClientMetrics {
+
+  private final Map<URI, ConnectionMetrics> connections;
+
+  ClientMetrics(Map<URI, ConnectionMetrics> connections) {
+    this.connections = Collections.unmodifiableMap(connections);
+  }
+
+  /** Get the metrics of every server URI the client has connected to, including currently lost ones. */
+  public Map<URI, ConnectionMetrics> getConnections() {
+    return connections;
+  }
+
+  public long getFramesReceived() {
+    return sum(ConnectionMetrics::getFramesReceived);
+  }
+
+  public long getBytesReceived() {
+    return sum(ConnectionMetrics::getBytesReceived);
+  }
+
+  public long getFramesSent() {
+    return sum(ConnectionMetrics::getFramesSent);
+  }
+
+  public long getBytesSent() {
+    return sum(ConnectionMetrics::getBytesSent);
+  }
+
+  public long getValuesDispatched() {
+    return sum(ConnectionMetrics::getValuesDispatched);
+  }
+
+  private long sum(ToLongFunction<ConnectionMetrics> counter) {
+    return connections.values().stream().mapToLong(counter).sum();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (ConnectionMetrics c : connections.values())
+      sb.append(c).append('\n');
+    return sb.toString();
+  }
+
+  /** Counters of a connection to one server URI, accumulated over reconnects. */
+  @Data
+  public static class ConnectionMetrics {
+    private final URI uri;
+    private final long framesReceived;
+    private final long bytesReceived;
+    private final long framesSent;
+    private final long bytesSent;
+    /** Number of values received and applied to nodes */
+    private final long valuesDispatched;
+    /** Frames received but not yet processed by the event loop */
+    private final long queueDepth;
+    private final long queueHighWaterMark;
+    /** Time to parse a frame */
+    private final LatencyHistogram decodeTime;
+    /** Time to apply a parsed frame to the node tree, including calling value and subtree listeners */
+    private final LatencyHistogram listenerTime;
+    /** Receive time minus the time sync adjusted source timestamp of received values */
+    private final LatencyHistogram valueLatency;
+    /** Node lookups waiting for a structure response */
+    private final int pendingRequests;
+    /** Number of times the connection was lost */
+    private final long dropCount;
+    private final long reconnectAttemptCount;
+  }
+}
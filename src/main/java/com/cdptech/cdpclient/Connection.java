@@ -30,6 +30,10 @@ class Connection {
   private BiConsumer<URI, SSLParameters> socketParameterHandler;
   private BlockingQueue<byte[]> queue;
   private Transport transport;
+  private Transport.Factory transportFactory = Transport::new;
+  private TrafficCapture capture;
+  private String uriName;
+  private long dequeuedFrameSequence;
 
   private Protocol activeProtocol;
   private HelloProtocol helloHandler;
@@ -37,14 +41,22 @@ class Connection {
   private IOHandler ioHandler;
 
   private RequestDispatch dispatch;
+  private final ConnectionCounters counters;
   private Instant lastActivityNotificationTimestamp = Instant.now();
   private long idleLockoutPeriod;
+  private long writeCoalescingIntervalNs;
+  private boolean timeSyncEnabled = true;
+  private boolean valueLatencyTracking;
+  private boolean valueRateTracking;
+  private boolean reusableValues;
+  private boolean lazyStructure;
   private boolean initInProgress;
 
   /** Initialize an IOHandler with the given server URI. */
   Connection(Client client, URI serverUri, SocketFactory socketFactory,
-             BiConsumer<URI, SSLParameters> socketParameterHandler) {
+             BiConsumer<URI, SSLParameters> socketParameterHandler, ConnectionCounters counters) {
     this.client = client;
+    this.counters = counters;
     this.serverUri = serverUri;
     this.socketFactory = socketFactory;
     this.socketParameterHandler = socketParameterHandler;
@@ -63,17 +75,24 @@ class Connection {
   }
 
   void close() {
+    if (activeProtocol == ioHandler)
+      ioHandler.flushAllPendingWrites();
     dispatch.close();
     transport.close();
   }
 
   private void setUpTransport() {
     queue = new LinkedBlockingQueue<>();
-    transport = new Transport(serverUri, queue, (e -> client.connectionError(serverUri, e)));
+    uriName = serverUri.toString();
+    dequeuedFrameSequence = 0;
+    transport = transportFactory.create(serverUri, queue, (e -> client.connectionError(serverUri, e)));
     if (socketFactory != null) {
       transport.setSocketFactory(socketFactory);
     }
     transport.setSocketParameterHandler(socketParameterHandler);
+    transport.setCounters(counters);
+    transport.setCapture(capture);
+    counters.setQueue(queue);
   }
 
   private void setUpHelloHandler() {
@@ -124,8 +143,19 @@ class Connection {
   }
 
   private void setUpIOHandler() {
+    IOHandler previous = ioHandler;
     ioHandler = new IOHandler(transport);
+    ioHandler.setWriteCoalescingInterval(writeCoalescingIntervalNs);
+    if (previous != null)
+      ioHandler.takePendingWritesFrom(previous);
+    ioHandler.setTimeSyncEnabled(timeSyncEnabled);
+    ioHandler.setCounters(counters);
+    ioHandler.setNameTable(client.getNameTable());
+    ioHandler.setLazyStructure(lazyStructure);
     dispatch = new RequestDispatch(client, ioHandler);
+    dispatch.setValueLatencyTracking(valueLatencyTracking);
+    dispatch.setValueRateTracking(valueRateTracking);
+    dispatch.setReusableValues(reusableValues);
     ioHandler.setDispatch(dispatch);
   }
 
@@ -136,10 +166,80 @@ class Connection {
   }
 
   void setTimeSync(boolean enabled) {
+    timeSyncEnabled = enabled;
     if (ioHandler != null)
       ioHandler.setTimeSyncEnabled(enabled);
   }
 
+  /** Must be called before init(). */
+  void setTransportFactory(Transport.Factory transportFactory) {
+    this.transportFactory = transportFactory;
+  }
+
+  void setCapture(TrafficCapture capture) {
+    this.capture = capture;
+    if (transport != null)
+      transport.setCapture(capture);
+  }
+
+  void setWriteCoalescingInterval(long flushIntervalNs) {
+    writeCoalescingIntervalNs = flushIntervalNs;
+    if (ioHandler != null)
+      ioHandler.setWriteCoalescingInterval(flushIntervalNs);
+  }
+
+  void setValueLatencyTracking(boolean enabled) {
+    valueLatencyTracking = enabled;
+    if (dispatch != null)
+      dispatch.setValueLatencyTracking(enabled);
+  }
+
+  void setValueRateTracking(boolean enabled) {
+    valueRateTracking = enabled;
+    if (dispatch != null)
+      dispatch.setValueRateTracking(enabled);
+  }
+
+  void setReusableValues(boolean enabled) {
+    reusableValues = enabled;
+    if (dispatch != null)
+      dispatch.setReusableValues(enabled);
+  }
+
+  void setLazyStructure(boolean enabled) {
+    lazyStructure = enabled;
+    if (ioHandler != null)
+      ioHandler.setLazyStructure(enabled);
+  }
+
+  long getSupersededWriteCount() {
+    return ioHandler != null ? ioHandler.getSupersededWriteCount() : 0;
+  }
+
+  long getIdleLockoutPeriod() {
+    return idleLockoutPeriod;
+  }
+
+  long getTimeSyncDeltaNs() {
+    return ioHandler.getTimeSyncDeltaNs();
+  }
+
+  long getTimeSyncErrorBoundNs() {
+    return ioHandler.getTimeSyncErrorBoundNs();
+  }
+
+  double getTimeSyncDriftPpm() {
+    return ioHandler.getTimeSyncDriftPpm();
+  }
+
+  /** Measure the time delta again and resend all value and structure subscriptions. */
+  void forceResync() {
+    if (activeProtocol != ioHandler)
+      return;
+    ioHandler.forceTimeSync();
+    dispatch.resubscribe();
+  }
+
   RequestDispatch.State getState() {
     return dispatch.getState();
   }
@@ -153,8 +253,12 @@ class Connection {
     updateState();
     while (!queue.isEmpty()) {  // TODO do we want to service the whole queue?
       byte[] buffer = queue.poll();
+      FlightRecorderEvents.frameDequeued(uriName, ++dequeuedFrameSequence, buffer.length, queue);
       activeProtocol.parse(buffer);
     }
+    if (activeProtocol == ioHandler)
+      ioHandler.flushPendingWrites();
+    counters.pendingRequestCount = dispatch.getPendingRequestCount();
   }
 
   /** Call back state updates if monitored transport state has changed. */
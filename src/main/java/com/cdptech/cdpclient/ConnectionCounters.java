@@ -0,0 +1,61 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load counters of a connection to one server URI. Kept by the Client across reconnects. Counters written from
+ * both the WebSocket and the event loop thread are striped (LongAdder), so updating them costs about as much as
+ * a plain increment.
+ */
+class ConnectionCounters {
+
+  final LongAdder framesReceived = new LongAdder();
+  final LongAdder bytesReceived = new LongAdder();
+  final LongAdder framesSent = new LongAdder();
+  final LongAdder bytesSent = new LongAdder();
+  final LongAdder valuesDispatched = new LongAdder();
+  final LongAccumulator queueHighWaterMark = new LongAccumulator(Math::max, 0);
+  final LatencyRecorder decodeTime = new LatencyRecorder();
+  final LatencyRecorder listenerTime = new LatencyRecorder();
+  final LatencyRecorder valueLatency = new LatencyRecorder();
+  final LongAdder dropCount = new LongAdder();
+  final LongAdder reconnectAttemptCount = new LongAdder();
+  volatile int pendingRequestCount;
+  private volatile Collection<?> queue = Collections.emptyList();
+
+  /** Set the inbound queue whose size is reported as queue depth. */
+  void setQueue(Collection<?> queue) {
+    this.queue = queue;
+  }
+
+  /** Called by the WebSocket thread after a frame of @a size bytes was queued. */
+  void frameReceived(int size) {
+    framesReceived.increment();
+    bytesReceived.add(size);
+    queueHighWaterMark.accumulate(queue.size());
+  }
+
+  int getQueueDepth() {
+    return queue.size();
+  }
+
+  void frameSent(int size) {
+    framesSent.increment();
+    bytesSent.add(size);
+  }
+
+  ClientMetrics.ConnectionMetrics snapshot(URI uri) {
+    return new ClientMetrics.ConnectionMetrics(uri,
+        framesReceived.sum(), bytesReceived.sum(), framesSent.sum(), bytesSent.sum(), valuesDispatched.sum(),
+        getQueueDepth(), queueHighWaterMark.get(), decodeTime.snapshot(), listenerTime.snapshot(), valueLatency.snapshot(),
+        pendingRequestCount, dropCount.sum(), reconnectAttemptCount.sum());
+  }
+}
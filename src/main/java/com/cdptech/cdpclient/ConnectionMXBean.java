@@ -0,0 +1,79 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+/**
+ * JMX management interface of a server connection of a {@link Client}, registered as
+ * {@code com.cdptech.cdpclient:type=Connection,client=<name>,uri="<uri>"} when enabled with
+ * {@link Client#setJmxEnabled}. The bean stays registered while the client is reconnecting.
+ */
+public interface ConnectionMXBean {
+
+  String getURI();
+
+  /** Connection state: PENDING, ESTABLISHED or DROPPED, or DISCONNECTED while reconnecting. */
+  String getState();
+
+  /** Difference between the local and remote clock applied to received timestamps. */
+  long getTimeSyncDeltaNs();
+
+  /** Estimated error of the time sync delta, -1 if it has not been measured. */
+  long getTimeSyncErrorBoundNs();
+
+  /** Rate at which the server clock runs ahead of the local clock in parts per million. */
+  double getTimeSyncDriftPpm();
+
+  /** Idle lockout period in seconds, 0 if authentications never expire. */
+  long getIdleLockoutPeriod();
+
+  int getSubscriptionCount();
+
+  int getCachedNodeCount();
+
+  int getPendingRequestCount();
+
+  long getFramesReceived();
+
+  long getBytesReceived();
+
+  long getFramesSent();
+
+  long getBytesSent();
+
+  long getValuesDispatched();
+
+  long getQueueDepth();
+
+  long getQueueHighWaterMark();
+
+  long getDropCount();
+
+  long getReconnectAttemptCount();
+
+  /** Frames received per second since the previous read of this attribute. */
+  double getFramesPerSecond();
+
+  /** Values received per second since the previous read of this attribute. */
+  double getValuesPerSecond();
+
+  double getDecodeTimeMeanNs();
+
+  long getDecodeTimeP99Ns();
+
+  double getListenerTimeMeanNs();
+
+  long getListenerTimeP99Ns();
+
+  /** Mean receive time minus time sync adjusted source timestamp of received values. */
+  double getValueLatencyMeanNs();
+
+  long getValueLatencyP99Ns();
+
+  /** Get a line per value or structure subscription. */
+  String[] dumpSubscriptions();
+
+  /** Measure the time delta again and resend all subscriptions. */
+  void forceResync();
+}
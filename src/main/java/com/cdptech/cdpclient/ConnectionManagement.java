@@ -0,0 +1,178 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import java.net.URI;
+import java.util.function.Function;
+
+/** JMX bean of the connection to one server URI. */
+class ConnectionManagement implements ConnectionMXBean {
+
+  private static final String DISCONNECTED = "DISCONNECTED";
+
+  private final ClientManagement clientManagement;
+  private final URI uri;
+  private final ConnectionCounters counters;
+  private final ClientManagement.Rate frameRate = new ClientManagement.Rate();
+  private final ClientManagement.Rate valueRate = new ClientManagement.Rate();
+
+  ConnectionManagement(ClientManagement clientManagement, URI uri, ConnectionCounters counters) {
+    this.clientManagement = clientManagement;
+    this.uri = uri;
+    this.counters = counters;
+  }
+
+  /** Run @a task with the current connection to the URI on the event loop, @a fallback if there is none. */
+  private <T> T onConnection(Function<Connection, T> task, T fallback) {
+    return clientManagement.onEventLoop(c -> {
+      Connection connection = c.getConnection(uri);
+      return connection == null ? fallback : task.apply(connection);
+    }, fallback);
+  }
+
+  @Override
+  public String getURI() {
+    return uri.toString();
+  }
+
+  @Override
+  public String getState() {
+    return onConnection(c -> c.getState().toString(), DISCONNECTED);
+  }
+
+  @Override
+  public long getTimeSyncDeltaNs() {
+    return onConnection(Connection::getTimeSyncDeltaNs, 0L);
+  }
+
+  @Override
+  public long getTimeSyncErrorBoundNs() {
+    return onConnection(Connection::getTimeSyncErrorBoundNs, -1L);
+  }
+
+  @Override
+  public double getTimeSyncDriftPpm() {
+    return onConnection(Connection::getTimeSyncDriftPpm, 0.0);
+  }
+
+  @Override
+  public long getIdleLockoutPeriod() {
+    return onConnection(Connection::getIdleLockoutPeriod, 0L);
+  }
+
+  @Override
+  public int getSubscriptionCount() {
+    return onConnection(c -> c.getDispatch().getSubscriptionCount(), 0);
+  }
+
+  @Override
+  public int getCachedNodeCount() {
+    return onConnection(c -> c.getDispatch().getCachedNodeCount(), 0);
+  }
+
+  @Override
+  public int getPendingRequestCount() {
+    return counters.pendingRequestCount;
+  }
+
+  @Override
+  public long getFramesReceived() {
+    return counters.framesReceived.sum();
+  }
+
+  @Override
+  public long getBytesReceived() {
+    return counters.bytesReceived.sum();
+  }
+
+  @Override
+  public long getFramesSent() {
+    return counters.framesSent.sum();
+  }
+
+  @Override
+  public long getBytesSent() {
+    return counters.bytesSent.sum();
+  }
+
+  @Override
+  public long getValuesDispatched() {
+    return counters.valuesDispatched.sum();
+  }
+
+  @Override
+  public long getQueueDepth() {
+    return counters.getQueueDepth();
+  }
+
+  @Override
+  public long getQueueHighWaterMark() {
+    return counters.queueHighWaterMark.get();
+  }
+
+  @Override
+  public long getDropCount() {
+    return counters.dropCount.sum();
+  }
+
+  @Override
+  public long getReconnectAttemptCount() {
+    return counters.reconnectAttemptCount.sum();
+  }
+
+  @Override
+  public double getFramesPerSecond() {
+    return frameRate.update(getFramesReceived());
+  }
+
+  @Override
+  public double getValuesPerSecond() {
+    return valueRate.update(getValuesDispatched());
+  }
+
+  @Override
+  public double getDecodeTimeMeanNs() {
+    return counters.decodeTime.snapshot().getMeanNs();
+  }
+
+  @Override
+  public long getDecodeTimeP99Ns() {
+    return counters.decodeTime.snapshot().getPercentileNs(99);
+  }
+
+  @Override
+  public double getListenerTimeMeanNs() {
+    return counters.listenerTime.snapshot().getMeanNs();
+  }
+
+  @Override
+  public long getListenerTimeP99Ns() {
+    return counters.listenerTime.snapshot().getPercentileNs(99);
+  }
+
+  @Override
+  public double getValueLatencyMeanNs() {
+    return counters.valueLatency.snapshot().getMeanNs();
+  }
+
+  @Override
+  public long getValueLatencyP99Ns() {
+    return counters.valueLatency.snapshot().getPercentileNs(99);
+  }
+
+  @Override
+  public String[] dumpSubscriptions() {
+    return onConnection(c -> c.getDispatch().getSubscriptionTable().toArray(new String[0]), new String[0]);
+  }
+
+  @Override
+  public void forceResync() {
+    clientManagement.getClient().threadSafe().execute(c -> {
+      Connection connection = c.getConnection(uri);
+      if (connection != null)
+        connection.forceResync();
+    });
+  }
+}
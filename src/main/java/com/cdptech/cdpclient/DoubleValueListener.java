@@ -0,0 +1,22 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+/**
+ * Callback interface for receiving numeric Node values without creating a Variant per value.
+ * Numeric values of any type are converted to double (eUINT64 values above 2^53 lose precision)
+ * and eBOOL values are 0 or 1.
+ *
+ * @see Node#subscribeToDoubleValues(DoubleValueListener, double)
+ */
+public interface DoubleValueListener {
+
+  /**
+   * Called when the remote value of the node has changed.
+   * @param timestampNs Time sync adjusted source time of the value in epoch nanoseconds, 0 if it has none.
+   */
+  void valueChanged(double value, long timestampNs);
+
+}
@@ -0,0 +1,66 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import java.util.Collection;
+
+/**
+ * Emits Java Flight Recorder events at the points a received frame passes through: arrival on the WebSocket
+ * thread, dequeue by the event loop, parsing and value listener dispatch. The events are disabled by default,
+ * enable them in a recording settings file or with e.g.
+ * {@code jcmd <pid> JFR.start +com.cdptech.cdpclient.ValueDispatch#enabled=true}.
+ *
+ * The client still runs on JVMs without JFR: the event classes in {@link JfrEvents} are only loaded when
+ * jdk.jfr is present. Duration events are passed back to callers as opaque tokens, null while the event
+ * type is disabled, so a disabled event costs an enabled check and no allocation.
+ */
+final class FlightRecorderEvents {
+
+  static final boolean AVAILABLE = isJfrAvailable();
+
+  private FlightRecorderEvents() {
+  }
+
+  private static boolean isJfrAvailable() {
+    try {
+      Class.forName("jdk.jfr.Event", false, FlightRecorderEvents.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  /** Called on the WebSocket thread when frame number @a sequence of @a size bytes was queued. */
+  static void frameReceived(String uri, long sequence, int size, Collection<?> queue) {
+    if (AVAILABLE)
+      JfrEvents.frameReceived(uri, sequence, size, queue);
+  }
+
+  /** Called on the event loop when frame number @a sequence is taken from the queue. */
+  static void frameDequeued(String uri, long sequence, int size, Collection<?> queue) {
+    if (AVAILABLE)
+      JfrEvents.frameDequeued(uri, sequence, size, queue);
+  }
+
+  /** Begin timing the parse of a frame. Returns a token for {@link #endParse}, null if not recording. */
+  static Object beginParse() {
+    return AVAILABLE ? JfrEvents.beginParse() : null;
+  }
+
+  static void endParse(Object token, String messageType, int size, int itemCount) {
+    if (token != null)
+      JfrEvents.endParse(token, messageType, size, itemCount);
+  }
+
+  /** Begin timing the value listener calls of a node. Returns a token for {@link #endValueDispatch}. */
+  static Object beginValueDispatch() {
+    return AVAILABLE ? JfrEvents.beginValueDispatch() : null;
+  }
+
+  static void endValueDispatch(Object token, int nodeId, int listenerCount) {
+    if (token != null)
+      JfrEvents.endValueDispatch(token, nodeId, listenerCount);
+  }
+}
@@ -11,6 +11,8 @@ import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
 
 import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -28,9 +30,17 @@ class IOHandler implements Protocol {
   private Transport transport;
   private IOListener listener;
   private TimeSync timeSync;
+  private WriteCoalescer writeCoalescer = new WriteCoalescer();
+  private StudioAPI.VariantValue.Builder setterValue = StudioAPI.VariantValue.newBuilder();
   private Consumer<Long> idleLockoutPeriodChangeCallback;
   private BiConsumer<AuthRequest.UserAuthResult, String> credentialsRequester;
   private Instant lastRequestTimestamp;
+  private ConnectionCounters counters = new ConnectionCounters();
+  private NameTable names = new NameTable(NameTable.DEFAULT_CAPACITY);
+  private boolean lazyStructure;
+  private long frameReceivedNs;
+  private final ValueDecoder valueDecoder = new ValueDecoder();
+  private final ValueDecoder.Sink valueSink = this::primitiveValueReceived;
 
   /** Initialize an IOHandler with the given server URI. */
   IOHandler(Transport transport) {
@@ -46,10 +56,74 @@ class IOHandler implements Protocol {
     this.listener = listener;
   }
 
+  void setCounters(ConnectionCounters counters) {
+    this.counters = counters;
+  }
+
+  /** Share the node name table of the client, see {@link NameTable}. */
+  void setNameTable(NameTable names) {
+    this.names = names;
+  }
+
+  /** Keep the nested nodes of structure responses encoded until accessed, see {@link LazyChildren}. */
+  void setLazyStructure(boolean enabled) {
+    lazyStructure = enabled;
+  }
+
   void setTimeSyncEnabled(boolean enabled) {
     timeSync.setEnabled(enabled);
   }
 
+  /** Get the wall clock time in epoch nanoseconds at which the frame being parsed was taken from the queue. */
+  long getFrameReceivedNs() {
+    return frameReceivedNs;
+  }
+
+  long getTimeSyncDeltaNs() {
+    return timeSync.getDeltaNs();
+  }
+
+  long getTimeSyncErrorBoundNs() {
+    return timeSync.getErrorBoundNs();
+  }
+
+  double getTimeSyncDriftPpm() {
+    return timeSync.getDriftPpm();
+  }
+
+  void forceTimeSync() {
+    timeSync.forceRefresh();
+  }
+
+  /** Coalesce setter requests over @a flushIntervalNs. Zero sends every setter request immediately. */
+  void setWriteCoalescingInterval(long flushIntervalNs) {
+    writeCoalescer.setFlushInterval(flushIntervalNs);
+    if (!writeCoalescer.isEnabled())
+      flushPendingWrites();
+  }
+
+  long getSupersededWriteCount() {
+    return writeCoalescer.getSupersededWriteCount();
+  }
+
+  /** Take over the pending writes and the superseded count of @a previous, which replaced this handler. */
+  void takePendingWritesFrom(IOHandler previous) {
+    writeCoalescer = previous.writeCoalescer;
+    previous.writeCoalescer = new WriteCoalescer();
+  }
+
+  /** Send all coalesced setter requests now, without waiting for the flush interval. */
+  void flushAllPendingWrites() {
+    if (writeCoalescer.hasPendingWrites())
+      sendSetterRequests(writeCoalescer.drain());
+  }
+
+  /** Send the coalesced setter requests in a single container if the flush interval has passed. */
+  void flushPendingWrites() {
+    if (writeCoalescer.isFlushDue())
+      sendSetterRequests(writeCoalescer.drain());
+  }
+
   /** Create and send a time request. */
   private void timeRequest() {
     Container.Builder pb = Container.newBuilder()
@@ -129,54 +203,82 @@ class IOHandler implements Protocol {
   
   /** Create a value change request for @a node, setting it to @a value. */
   void setRemoteValue(Node node, Variant value) {
-    
+    if (node.getValueType() == CDPValueType.eUNDEFINED)
+      return;
+
+    StudioAPI.VariantValue pbv = encodeValue(node, value);
+    if (writeCoalescer.isEnabled())
+      writeCoalescer.add(pbv);
+    else
+      sendSetterRequests(Collections.singletonList(pbv));
+  }
+
+  /**
+   * Send value change requests for several nodes in a single container. Any coalesced writes are sent
+   * along with them, so the batch is never reordered with earlier writes to the same nodes.
+   */
+  void setRemoteValues(List<StudioAPI.VariantValue> values) {
+    if (writeCoalescer.hasPendingWrites()) {
+      for (StudioAPI.VariantValue value : values)
+        writeCoalescer.add(value);
+      sendSetterRequests(writeCoalescer.drain());
+    } else {
+      sendSetterRequests(values);
+    }
+  }
+
+  /**
+   * Encode @a value as a setter request for @a node. The value type must already be checked to match the node,
+   * see {@link RequestDispatch#checkValueType}, as the value is encoded as is.
+   */
+  static StudioAPI.VariantValue encodeValue(Node node, Variant value) {
     StudioAPI.VariantValue.Builder pbv = StudioAPI.VariantValue.newBuilder();
     pbv.setNodeId(node.getNodeID());
     
-    switch (node.getValueType()) {
-    case eUNDEFINED:
-      return;
-    case eDOUBLE:
-      pbv.setDValue((Double) value.getValue());
-      break;
-    case eUINT64:
-      pbv.setUi64Value((Long) value.getValue());
-      break;
-    case eINT64:
-      pbv.setI64Value((Long) value.getValue());
-      break;
-    case eFLOAT:
-      pbv.setFValue((Float) value.getValue());
-      break;
-    case eUINT:
-      pbv.setUiValue((Integer) value.getValue());
-      break;
-    case eINT:
-      pbv.setIValue((Integer) value.getValue());
-      break;
-    case eUSHORT:
-      pbv.setUsValue((Short) value.getValue());
-      break;
-    case eSHORT:
-      pbv.setSValue((Short) value.getValue());
-      break;
-    case eUCHAR:
-      pbv.setUcValue((Short) value.getValue());
-      break;
-    case eCHAR:
-      pbv.setCValue((Byte) value.getValue());
-      break;
-    case eBOOL:
-      pbv.setBValue((Boolean) value.getValue());
-      break;
-    case eSTRING:
+    CDPValueType type = node.getValueType();
+    if (type == CDPValueType.eSTRING)
       pbv.setStrValue((String) value.getValue());
-      break;
+    else if (type != CDPValueType.eUNDEFINED)
+      ValueEncoder.setValue(pbv, type, value.getRawBits());
+    return pbv.build();
+  }
+
+  /**
+   * Encode a numeric @a value as a setter request for @a node, converting it to the node's value type.
+   * @see ValueEncoder#fromDouble
+   */
+  static StudioAPI.VariantValue encodeValue(Node node, double value) {
+    return encodeRawValue(node, ValueEncoder.fromDouble(node, value));
+  }
+
+  /** Encode a raw value bit pattern already converted to the value type of @a node with ValueEncoder. */
+  static StudioAPI.VariantValue encodeRawValue(Node node, long bits) {
+    StudioAPI.VariantValue.Builder pbv = StudioAPI.VariantValue.newBuilder();
+    pbv.setNodeId(node.getNodeID());
+    ValueEncoder.setValue(pbv, node.getValueType(), bits);
+    return pbv.build();
+  }
+
+  /**
+   * Create a value change request for @a node from a raw value bit pattern already converted to the node's
+   * value type with ValueEncoder. Unless writes are coalesced, the request is serialized directly without
+   * building any intermediate messages.
+   */
+  void setRemoteRawValue(Node node, long bits) {
+    if (writeCoalescer.isEnabled()) {
+      setterValue.clear().setNodeId(node.getNodeID());
+      ValueEncoder.setValue(setterValue, node.getValueType(), bits);
+      writeCoalescer.add(setterValue.build());
+    } else {
+      transport.send(ValueEncoder.encodeSetterRequest(node.getNodeID(), node.getValueType(), bits));
+      updateLastRequestTimestamp();
     }
-    
+  }
+
+  private void sendSetterRequests(List<StudioAPI.VariantValue> values) {
     transport.send(Container.newBuilder()
         .setMessageType(Container.Type.eSetterRequest)
-        .addSetterRequest(pbv)
+        .addAllSetterRequest(values)
         .build()
         .toByteArray());
     updateLastRequestTimestamp();
@@ -200,7 +302,24 @@ class IOHandler implements Protocol {
   /** Parse a message from a buffer read from the RX queue and call events. */
   public void parse(byte[] buf) {
     try {
+      Object parseEvent = FlightRecorderEvents.beginParse();
+      frameReceivedNs = WallClock.epochNanos();
+      long startNs = System.nanoTime();
+      int primitiveValueCount = valueDecoder.countPrimitiveValues(buf);
+      if (primitiveValueCount >= 0) {
+        parsePrimitiveValues(buf, primitiveValueCount, startNs, parseEvent);
+        return;
+      }
+      if (lazyStructure) {
+        List<Node> nodes = LazyChildren.decodeStructureResponse(buf, names);
+        if (nodes != null) {
+          parseLazyStructure(buf, nodes, startNs, parseEvent);
+          return;
+        }
+      }
       Container pb = Container.parseFrom(buf);
+      long decodedNs = System.nanoTime();
+      counters.decodeTime.record(decodedNs - startNs);
 
       switch (pb.getMessageType()) {
         case eStructureResponse:
@@ -209,13 +328,18 @@ class IOHandler implements Protocol {
           Node node = parseNodeData(pbNode);
           listener.nodeReceived(node);
         }
+        counters.listenerTime.record(System.nanoTime() - decodedNs);
         break;
 
         case eGetterResponse:
+        counters.valuesDispatched.add(pb.getGetterResponseCount());
         for (StudioAPI.VariantValue pbv : pb.getGetterResponseList()) {
           Variant value = createVariant(pbv, timeSync.getDeltaNs());
-          listener.valueReceived(pbv.getNodeId(), value);
+          if (pbv.hasTimestamp())
+            counters.valueLatency.record(frameReceivedNs - (pbv.getTimestamp() + timeSync.getDeltaNs()));
+          listener.valueReceived(pbv.getNodeId(), value, pbv.getSerializedSize());
         }
+        counters.listenerTime.record(System.nanoTime() - decodedNs);
         break;
 
         case eStructureChangeResponse:
@@ -256,6 +380,8 @@ class IOHandler implements Protocol {
         System.err.println("CDP Client received unparseable data from server: " + pb.getMessageType().toString());
         break;
       }
+      if (parseEvent != null)
+        FlightRecorderEvents.endParse(parseEvent, pb.getMessageType().name(), buf.length, getItemCount(pb));
 
     } catch (InvalidProtocolBufferException e) {
       System.err.println("Failed to parse server data!");
@@ -263,69 +389,107 @@ class IOHandler implements Protocol {
     timeSync.refreshDeltaIfNeeded();
   }
 
+  /** Dispatch an eGetterResponse of primitive values without creating protobuf messages or Variants. */
+  private void parsePrimitiveValues(byte[] buf, int valueCount, long startNs, Object parseEvent) {
+    long decodedNs = System.nanoTime();
+    counters.decodeTime.record(decodedNs - startNs);
+    counters.valuesDispatched.add(valueCount);
+    valueDecoder.decode(buf, valueSink);
+    counters.listenerTime.record(System.nanoTime() - decodedNs);
+    if (parseEvent != null)
+      FlightRecorderEvents.endParse(parseEvent, Container.Type.eGetterResponse.name(), buf.length, valueCount);
+    timeSync.refreshDeltaIfNeeded();
+  }
+
+  /** Dispatch the top-level nodes of an eStructureResponse decoded by {@link LazyChildren}. */
+  private void parseLazyStructure(byte[] buf, List<Node> nodes, long startNs, Object parseEvent) {
+    long decodedNs = System.nanoTime();
+    counters.decodeTime.record(decodedNs - startNs);
+    for (Node node : nodes)
+      listener.nodeReceived(node);
+    counters.listenerTime.record(System.nanoTime() - decodedNs);
+    if (parseEvent != null)
+      FlightRecorderEvents.endParse(parseEvent, Container.Type.eStructureResponse.name(), buf.length, nodes.size());
+    timeSync.refreshDeltaIfNeeded();
+  }
+
+  private void primitiveValueReceived(int nodeId, CDPValueType type, long bits, long timestamp, int encodedSize) {
+    long timestampNs = 0;  // as createVariant() for values without a timestamp
+    if (timestamp != Variant.NO_TIMESTAMP) {
+      timestampNs = timestamp + timeSync.getDeltaNs();
+      counters.valueLatency.record(frameReceivedNs - timestampNs);
+    }
+    listener.valueReceived(nodeId, type, bits, timestampNs, encodedSize);
+  }
+
+  private static int getItemCount(Container pb) {
+    return pb.getStructureResponseCount() + pb.getGetterResponseCount() + pb.getStructureChangeResponseCount()
+        + pb.getChildAddRequestCount() + pb.getChildRemoveRequestCount();
+  }
+
   /** Recursively parse a StudioAPI.Node into a StudioAPI Node. */
-  private Node parseNodeData(StudioAPI.Node pb) {
-    
-    StudioAPI.Info info = pb.getInfo();
+  Node parseNodeData(StudioAPI.Node pb) {
+    Node node = createNode(pb.getInfo(), names);
+    for (StudioAPI.Node child : pb.getNodeList()) {
+      node.addChild(parseNodeData(child));
+    }
+    return node;
+  }
+
+  /** Create a Node without children from @a info, with names interned in @a names. */
+  static Node createNode(StudioAPI.Info info, NameTable names) {
     Node node = new Node(
         info.getNodeId(),
         info.getNodeType(),
         info.getValueType(),
-        info.getName(),
+        names.intern(info.getNameBytes()),
         info.getFlags());
     if (info.hasTypeName())
-      node.setTypeName(info.getTypeName());
+      node.setTypeName(names.intern(info.getTypeNameBytes()));
 
     if (info.hasIsLocal()) {
       if (info.getIsLocal()) {
-        node.setConnectionData(new Node.ConnectionData());
+        node.setConnectionData(Node.ConnectionData.LOCAL);
       } else {
         node.setConnectionData(new Node.ConnectionData(
             info.getServerAddr(),
             info.getServerPort()));
       }
     } else {
-      node.setConnectionData(new Node.ConnectionData());
+      node.setConnectionData(Node.ConnectionData.LOCAL);
     }
-
-    for (StudioAPI.Node child : pb.getNodeList()) {
-      node.addChild(parseNodeData(child));
-    }
-    
     return node;
   }
 
-  /** Create a StudioAPI Variant from a StudioAPI.VariantValue. */
+  /** Create a StudioAPI Variant from a StudioAPI.VariantValue. Only string values are boxed. */
   static Variant createVariant(StudioAPI.VariantValue pbv, long timeDiff) {
     long ts = pbv.hasTimestamp() ? pbv.getTimestamp() + timeDiff : 0;
-    Variant value;
     if (pbv.hasDValue())
-      value = new Variant(CDPValueType.eDOUBLE, pbv.getDValue(), ts);
+      return Variant.ofBits(CDPValueType.eDOUBLE, Double.doubleToRawLongBits(pbv.getDValue()), ts);
     else if (pbv.hasUi64Value())
-      value = new Variant(CDPValueType.eUINT64, pbv.getUi64Value(), ts);
+      return Variant.ofBits(CDPValueType.eUINT64, pbv.getUi64Value(), ts);
     else if (pbv.hasI64Value())
-      value = new Variant(CDPValueType.eINT64, pbv.getI64Value(), ts);
+      return Variant.ofBits(CDPValueType.eINT64, pbv.getI64Value(), ts);
     else if (pbv.hasFValue())
-      value = new Variant(CDPValueType.eFLOAT, pbv.getFValue(), ts);
+      return Variant.ofBits(CDPValueType.eFLOAT, Float.floatToRawIntBits(pbv.getFValue()), ts);
     else if (pbv.hasUiValue())
-      value = new Variant(CDPValueType.eUINT, pbv.getUiValue(), ts);
+      return Variant.ofBits(CDPValueType.eUINT, pbv.getUiValue(), ts);
     else if (pbv.hasIValue())
-      value = new Variant(CDPValueType.eINT, pbv.getIValue(), ts);
+      return Variant.ofBits(CDPValueType.eINT, pbv.getIValue(), ts);
     else if (pbv.hasUsValue())
-      value = new Variant(CDPValueType.eUSHORT, pbv.getUsValue(), ts);
+      return Variant.ofBits(CDPValueType.eUSHORT, pbv.getUsValue(), ts);
     else if (pbv.hasSValue())
-      value = new Variant(CDPValueType.eSHORT, pbv.getSValue(), ts);
+      return Variant.ofBits(CDPValueType.eSHORT, pbv.getSValue(), ts);
     else if (pbv.hasUcValue())
-      value = new Variant(CDPValueType.eUCHAR, pbv.getUcValue(), ts);
+      return Variant.ofBits(CDPValueType.eUCHAR, pbv.getUcValue(), ts);
     else if (pbv.hasCValue())
-      value = new Variant(CDPValueType.eCHAR, pbv.getCValue(), ts);
+      return Variant.ofBits(CDPValueType.eCHAR, pbv.getCValue(), ts);
     else if (pbv.hasBValue())
-      value = new Variant(CDPValueType.eBOOL, pbv.getBValue(), ts);
+      return Variant.ofBits(CDPValueType.eBOOL, pbv.getBValue() ? 1 : 0, ts);
     else if (pbv.hasStrValue())
-      value = new Variant(CDPValueType.eSTRING, pbv.getStrValue(), ts);
+      return new Variant(CDPValueType.eSTRING, pbv.getStrValue(), ts);
     else
-      value = new Variant(CDPValueType.eUNDEFINED, "<no value>", 0);
-    return value;
+      return new Variant(CDPValueType.eUNDEFINED, "<no value>", 0);
   }
 
   void setIdleLockoutPeriodChangeCallback(Consumer<Long> idleLockoutPeriodChangeCallback) {
@@ -4,6 +4,8 @@
 
 package com.cdptech.cdpclient;
 
+import com.cdptech.cdpclient.proto.StudioAPI;
+
 /**
  * Callback interface used by IOHandler.
  */
@@ -25,7 +27,17 @@ interface IOListener {
    * Called when a remote node value has been received from the server.
    * @param nodeID The value owner's nodeID
    * @param value  The variant value that was received.
+   * @param encodedSize Size of the value in the received message in bytes.
+   */
+  void valueReceived(int nodeID, Variant value, int encodedSize);
+
+  /**
+   * Called when a primitive remote node value has been received from the server.
+   * @param nodeID The value owner's nodeID
+   * @param bits The value encoded as described in {@link ValueDecoder}.
+   * @param timestampNs Time sync adjusted source time in epoch nanoseconds, 0 if the value has none.
+   * @param encodedSize Size of the value in the received message in bytes.
    */
-  void valueReceived(int nodeID, Variant value);
+  void valueReceived(int nodeID, StudioAPI.CDPValueType type, long bits, long timestampNs, int encodedSize);
 
 }
@@ -0,0 +1,85 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import java.util.Arrays;
+
+/**
+ * A minimal open addressing hash map from int keys to non-null values that does not box its keys, so
+ * lookups and updates of existing keys allocate nothing. Not thread-safe.
+ */
+final class IntObjectMap<V> {
+
+  private int[] keys;
+  private Object[] values;
+  private int size;
+
+  IntObjectMap() {
+    this(16);
+  }
+
+  /** @param capacity Initial capacity, must be a power of two. */
+  IntObjectMap(int capacity) {
+    keys = new int[capacity];
+    values = new Object[capacity];
+  }
+
+  @SuppressWarnings("unchecked")
+  V get(int key) {
+    int mask = keys.length - 1;
+    for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask)
+      if (keys[i] == key)
+        return (V) values[i];
+    return null;
+  }
+
+  void put(int key, V value) {
+    if (value == null)
+      throw new IllegalArgumentException("Null values are not supported");
+    if ((size + 1) * 2 > keys.length)
+      resize(keys.length * 2);
+    int mask = keys.length - 1;
+    int i = hash(key) & mask;
+    while (values[i] != null && keys[i] != key)
+      i = (i + 1) & mask;
+    if (values[i] == null)
+      size++;
+    keys[i] = key;
+    values[i] = value;
+  }
+
+  int size() {
+    return size;
+  }
+
+  void clear() {
+    if (size == 0)
+      return;
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  private void resize(int capacity) {
+    int[] oldKeys = keys;
+    Object[] oldValues = values;
+    keys = new int[capacity];
+    values = new Object[capacity];
+    int mask = capacity - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      if (oldValues[j] == null)
+        continue;
+      int i = hash(oldKeys[j]) & mask;
+      while (values[i] != null)
+        i = (i + 1) & mask;
+      keys[i] = oldKeys[j];
+      values[i] = oldValues[j];
+    }
+  }
+
+  private static int hash(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
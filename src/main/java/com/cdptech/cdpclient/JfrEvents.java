@@ -0,0 +1,158 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Collection;
+
+/** The JFR event types. Must only be referenced through {@link FlightRecorderEvents}. */
+final class JfrEvents {
+
+  private static final String CATEGORY = "CDP Client";
+
+  private static final EventType FRAME_RECEIVED = EventType.getEventType(FrameReceived.class);
+  private static final EventType FRAME_DEQUEUED = EventType.getEventType(FrameDequeued.class);
+  private static final EventType MESSAGE_PARSE = EventType.getEventType(MessageParse.class);
+  private static final EventType VALUE_DISPATCH = EventType.getEventType(ValueDispatch.class);
+
+  private JfrEvents() {
+  }
+
+  static void frameReceived(String uri, long sequence, int size, Collection<?> queue) {
+    if (!FRAME_RECEIVED.isEnabled())
+      return;
+    FrameReceived event = new FrameReceived();
+    event.uri = uri;
+    event.sequence = sequence;
+    event.size = size;
+    event.queueDepth = queue.size();
+    event.commit();
+  }
+
+  static void frameDequeued(String uri, long sequence, int size, Collection<?> queue) {
+    if (!FRAME_DEQUEUED.isEnabled())
+      return;
+    FrameDequeued event = new FrameDequeued();
+    event.uri = uri;
+    event.sequence = sequence;
+    event.size = size;
+    event.queueDepth = queue.size();
+    event.commit();
+  }
+
+  static Object beginParse() {
+    if (!MESSAGE_PARSE.isEnabled())
+      return null;
+    MessageParse event = new MessageParse();
+    event.begin();
+    return event;
+  }
+
+  static void endParse(Object token, String messageType, int size, int itemCount) {
+    MessageParse event = (MessageParse) token;
+    event.end();
+    if (event.shouldCommit()) {
+      event.messageType = messageType;
+      event.size = size;
+      event.itemCount = itemCount;
+      event.commit();
+    }
+  }
+
+  static Object beginValueDispatch() {
+    if (!VALUE_DISPATCH.isEnabled())
+      return null;
+    ValueDispatch event = new ValueDispatch();
+    event.begin();
+    return event;
+  }
+
+  static void endValueDispatch(Object token, int nodeId, int listenerCount) {
+    ValueDispatch event = (ValueDispatch) token;
+    event.end();
+    if (event.shouldCommit()) {
+      event.nodeId = nodeId;
+      event.listenerCount = listenerCount;
+      event.commit();
+    }
+  }
+
+  @Name("com.cdptech.cdpclient.FrameReceived")
+  @Label("Frame Received")
+  @Description("A frame was received from the server and queued for the event loop")
+  @Category(CATEGORY)
+  @Enabled(false)
+  @StackTrace(false)
+  static class FrameReceived extends Event {
+    @Label("URI")
+    String uri;
+    @Label("Sequence")
+    @Description("Number of the frame on its connection, matches the dequeue event of the same frame")
+    long sequence;
+    @Label("Size")
+    @DataAmount
+    int size;
+    @Label("Queue Depth")
+    int queueDepth;
+  }
+
+  @Name("com.cdptech.cdpclient.FrameDequeued")
+  @Label("Frame Dequeued")
+  @Description("The event loop took a frame from the receive queue")
+  @Category(CATEGORY)
+  @Enabled(false)
+  @StackTrace(false)
+  static class FrameDequeued extends Event {
+    @Label("URI")
+    String uri;
+    @Label("Sequence")
+    long sequence;
+    @Label("Size")
+    @DataAmount
+    int size;
+    @Label("Queue Depth")
+    @Description("Frames left in the queue")
+    int queueDepth;
+  }
+
+  @Name("com.cdptech.cdpclient.MessageParse")
+  @Label("Message Parse")
+  @Description("Decoding a frame and applying it to the node tree, including listener calls")
+  @Category(CATEGORY)
+  @Enabled(false)
+  @StackTrace(false)
+  static class MessageParse extends Event {
+    @Label("Message Type")
+    String messageType;
+    @Label("Size")
+    @DataAmount
+    int size;
+    @Label("Item Count")
+    @Description("Number of nodes, values or notifications in the message")
+    int itemCount;
+  }
+
+  @Name("com.cdptech.cdpclient.ValueDispatch")
+  @Label("Value Dispatch")
+  @Description("Calling the value listeners of a node")
+  @Category(CATEGORY)
+  @Enabled(false)
+  @StackTrace(false)
+  static class ValueDispatch extends Event {
+    @Label("Node ID")
+    int nodeId;
+    @Label("Listener Count")
+    int listenerCount;
+  }
+}
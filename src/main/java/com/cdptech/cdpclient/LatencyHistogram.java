@@ -0,0 +1,97 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable snapshot of recorded durations. Durations are kept in log-linear buckets: exact below 16 ns and
+ * with a fixed number of buckets per power of two above, by default 8 so percentiles are accurate to 12.5%.
+ */
+public final class LatencyHistogram {
+
+  static final int DEFAULT_SUB_BUCKET_BITS = 3;
+  private static final int LINEAR_BUCKETS = 16;
+  private static final int FIRST_EXPONENT = 4;
+
+  private final int subBucketBits;
+  private final long[] counts;
+  private final long count;
+  private final long totalNs;
+  private final long maxNs;
+
+  LatencyHistogram(int subBucketBits, long[] counts, long count, long totalNs, long maxNs) {
+    this.subBucketBits = subBucketBits;
+    this.counts = counts;
+    this.count = count;
+    this.totalNs = totalNs;
+    this.maxNs = maxNs;
+  }
+
+  /** Number of recorded durations. */
+  public long getCount() {
+    return count;
+  }
+
+  public long getMaxNs() {
+    return maxNs;
+  }
+
+  public double getMeanNs() {
+    return count == 0 ? 0 : (double) totalNs / count;
+  }
+
+  /**
+   * Get the duration that @a percentile (0-100) of the recorded durations do not exceed, rounded up to the
+   * bucket bound. Returns 0 if nothing was recorded.
+   */
+  public long getPercentileNs(double percentile) {
+    long total = 0;
+    for (long c : counts)
+      total += c;
+    if (total == 0)
+      return 0;
+    long rank = Math.max(1, (long) Math.ceil(total * Math.min(percentile, 100) / 100));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank)
+        return Math.min(bucketUpperBound(subBucketBits, i), maxNs);
+    }
+    return maxNs;
+  }
+
+  static int bucketCount(int subBucketBits) {
+    return LINEAR_BUCKETS + ((63 - FIRST_EXPONENT) << subBucketBits);
+  }
+
+  static int bucketIndex(int subBucketBits, long ns) {
+    if (ns < LINEAR_BUCKETS)
+      return (int) ns;
+    int exponent = 63 - Long.numberOfLeadingZeros(ns);
+    int subBucket = (int) (ns >>> (exponent - subBucketBits)) & ((1 << subBucketBits) - 1);
+    return LINEAR_BUCKETS + ((exponent - FIRST_EXPONENT) << subBucketBits) + subBucket;
+  }
+
+  static long bucketUpperBound(int subBucketBits, int index) {
+    if (index < LINEAR_BUCKETS)
+      return index;
+    int exponent = FIRST_EXPONENT + ((index - LINEAR_BUCKETS) >> subBucketBits);
+    int subBucket = (index - LINEAR_BUCKETS) & ((1 << subBucketBits) - 1);
+    int shift = exponent - subBucketBits;
+    return ((long) ((1 << subBucketBits) + subBucket) << shift) + (1L << shift) - 1;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("count=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus", count,
+        getMeanNs() / 1000, toMicros(getPercentileNs(50)), toMicros(getPercentileNs(99)),
+        toMicros(getPercentileNs(99.9)), toMicros(maxNs));
+  }
+
+  private static double toMicros(long ns) {
+    return ns / (double) TimeUnit.MICROSECONDS.toNanos(1);
+  }
+}
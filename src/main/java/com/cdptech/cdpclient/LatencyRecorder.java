@@ -0,0 +1,51 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records durations into log-linear buckets (see {@link LatencyHistogram}). Must only be written by a single
+ * thread, usually the event loop. Writes are plain increments published with lazySet, so recording costs no
+ * locks or CAS loops while snapshots can still be taken from any thread.
+ */
+class LatencyRecorder {
+
+  private final int subBucketBits;
+  private final AtomicLongArray counts;
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong totalNs = new AtomicLong();
+  private final AtomicLong maxNs = new AtomicLong();
+
+  LatencyRecorder() {
+    this(LatencyHistogram.DEFAULT_SUB_BUCKET_BITS);
+  }
+
+  /** Create a recorder with 2^@a subBucketBits buckets per power of two. */
+  LatencyRecorder(int subBucketBits) {
+    this.subBucketBits = subBucketBits;
+    counts = new AtomicLongArray(LatencyHistogram.bucketCount(subBucketBits));
+  }
+
+  /** Record a duration of @a durationNs. Negative durations (clock adjustments) are recorded as zero. */
+  void record(long durationNs) {
+    long ns = Math.max(durationNs, 0);
+    int bucket = LatencyHistogram.bucketIndex(subBucketBits, ns);
+    counts.lazySet(bucket, counts.get(bucket) + 1);
+    totalNs.lazySet(totalNs.get() + ns);
+    if (ns > maxNs.get())
+      maxNs.lazySet(ns);
+    count.lazySet(count.get() + 1);
+  }
+
+  /** Take a snapshot. Concurrent writes may be partially visible. */
+  LatencyHistogram snapshot() {
+    long[] snapshot = new long[counts.length()];
+    for (int i = 0; i < snapshot.length; i++)
+      snapshot[i] = counts.get(i);
+    return new LatencyHistogram(subBucketBits, snapshot, count.get(), totalNs.get(), maxNs.get());
+  }
+}
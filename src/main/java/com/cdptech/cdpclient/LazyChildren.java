@@ -0,0 +1,216 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import com.cdptech.cdpclient.proto.StudioAPI.Container;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Children of a node received in a structure response that have not been accessed yet, kept as the offsets of
+ * their encoded StudioAPI.Node messages in the received frame. Nodes are created level by level on first access
+ * of the parent's children, see {@link Client#setLazyStructure(boolean)}. The frame is retained until every
+ * subtree referring to it has been materialised or dropped.
+ */
+final class LazyChildren {
+
+  private static final int MESSAGE_TYPE_FIELD = Container.MESSAGE_TYPE_FIELD_NUMBER;
+  private static final int STRUCTURE_RESPONSE_FIELD = Container.STRUCTURE_RESPONSE_FIELD_NUMBER;
+  private static final int INFO_FIELD = StudioAPI.Node.INFO_FIELD_NUMBER;
+  private static final int NODE_FIELD = StudioAPI.Node.NODE_FIELD_NUMBER;
+  private static final int NODE_ID_FIELD = StudioAPI.Info.NODE_ID_FIELD_NUMBER;
+
+  private final byte[] frame;
+  /** Offset and end of each child message in frame. */
+  private final int[] ranges;
+  private final NameTable names;
+
+  private LazyChildren(byte[] frame, int[] ranges, NameTable names) {
+    this.frame = frame;
+    this.ranges = ranges;
+    this.names = names;
+  }
+
+  /**
+   * Decode the top-level nodes of an eStructureResponse @a frame, leaving their children encoded. Returns null if
+   * @a frame is not a well-formed structure response, which is then left to the generated protobuf parser.
+   */
+  static List<Node> decodeStructureResponse(byte[] frame, NameTable names) {
+    Reader in = new Reader(frame, 0);
+    List<Node> nodes = new ArrayList<>();
+    boolean isStructureResponse = false;
+    try {
+      while (in.pos < frame.length) {
+        int tag = (int) in.readVarint();
+        int field = WireFormat.getTagFieldNumber(tag);
+        int wireType = WireFormat.getTagWireType(tag);
+        if (field == MESSAGE_TYPE_FIELD && wireType == WireFormat.WIRETYPE_VARINT) {
+          isStructureResponse = in.readVarint() == Container.Type.eStructureResponse_VALUE;
+        } else if (field == STRUCTURE_RESPONSE_FIELD && wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+          int end = in.readEnd(frame.length);
+          if (!isWellFormed(frame, in.pos, end))
+            return null;
+          nodes.add(decodeNode(frame, in.pos, end, names));
+          in.pos = end;
+        } else {
+          return null;
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException | InvalidProtocolBufferException e) {
+      return null;
+    }
+    return isStructureResponse ? nodes : null;
+  }
+
+  /** Create the children for @a parent, which takes over the dispatch and is the parent of the children. */
+  List<Node> materialize(Node parent) {
+    List<Node> children = new ArrayList<>(ranges.length / 2);
+    try {
+      for (int i = 0; i < ranges.length; i += 2) {
+        Node child = decodeNode(frame, ranges[i], ranges[i + 1], names);
+        child.setParent(parent);
+        child.setDispatch(parent.getDispatch());
+        children.add(child);
+      }
+    } catch (InvalidProtocolBufferException e) {
+      throw new IllegalStateException("Malformed structure response", e);
+    }
+    return children;
+  }
+
+  /** Get the number of children, without creating them. */
+  int size() {
+    return ranges.length / 2;
+  }
+
+  /** Check if the node with @a nodeID is in these subtrees, without creating any nodes. */
+  boolean contains(int nodeID) {
+    for (int i = 0; i < ranges.length; i += 2)
+      if (contains(ranges[i], ranges[i + 1], nodeID))
+        return true;
+    return false;
+  }
+
+  private boolean contains(int offset, int end, int nodeID) {
+    Reader in = new Reader(frame, offset);
+    while (in.pos < end) {
+      int field = WireFormat.getTagFieldNumber((int) in.readVarint());
+      int fieldEnd = in.readEnd(end);
+      if (field == INFO_FIELD && readNodeID(in, fieldEnd) == nodeID)
+        return true;
+      if (field == NODE_FIELD && contains(in.pos, fieldEnd, nodeID))
+        return true;
+      in.pos = fieldEnd;
+    }
+    return false;
+  }
+
+  private static int readNodeID(Reader in, int end) {
+    while (in.pos < end) {
+      int tag = (int) in.readVarint();
+      if (WireFormat.getTagFieldNumber(tag) == NODE_ID_FIELD)
+        return (int) in.readVarint();
+      in.skipField(WireFormat.getTagWireType(tag));
+    }
+    return 0;
+  }
+
+  private static Node decodeNode(byte[] frame, int offset, int end, NameTable names)
+      throws InvalidProtocolBufferException {
+    Reader in = new Reader(frame, offset);
+    StudioAPI.Info info = StudioAPI.Info.getDefaultInstance();
+    int childCount = 0;
+    while (in.pos < end) {
+      int field = WireFormat.getTagFieldNumber((int) in.readVarint());
+      int fieldEnd = in.readEnd(end);
+      if (field == INFO_FIELD)
+        info = StudioAPI.Info.parser().parseFrom(frame, in.pos, fieldEnd - in.pos);
+      else if (field == NODE_FIELD)
+        childCount++;
+      in.pos = fieldEnd;
+    }
+    Node node = IOHandler.createNode(info, names);
+    if (childCount > 0)
+      node.setLazyChildren(new LazyChildren(frame, childRanges(frame, offset, end, childCount), names));
+    return node;
+  }
+
+  private static int[] childRanges(byte[] frame, int offset, int end, int childCount) {
+    int[] ranges = new int[childCount * 2];
+    Reader in = new Reader(frame, offset);
+    int i = 0;
+    while (in.pos < end) {
+      int field = WireFormat.getTagFieldNumber((int) in.readVarint());
+      int fieldEnd = in.readEnd(end);
+      if (field == NODE_FIELD) {
+        ranges[i++] = in.pos;
+        ranges[i++] = fieldEnd;
+      }
+      in.pos = fieldEnd;
+    }
+    return ranges;
+  }
+
+  /** Check that a node message only has length-delimited info and node fields within bounds, recursively. */
+  private static boolean isWellFormed(byte[] frame, int offset, int end) {
+    Reader in = new Reader(frame, offset);
+    while (in.pos < end) {
+      int tag = (int) in.readVarint();
+      int field = WireFormat.getTagFieldNumber(tag);
+      if (WireFormat.getTagWireType(tag) != WireFormat.WIRETYPE_LENGTH_DELIMITED
+          || (field != INFO_FIELD && field != NODE_FIELD))
+        return false;
+      int fieldEnd = in.readEnd(end);
+      if (fieldEnd < 0 || (field == NODE_FIELD && !isWellFormed(frame, in.pos, fieldEnd)))
+        return false;
+      in.pos = fieldEnd;
+    }
+    return in.pos == end;
+  }
+
+  /** Position in a frame, reading protobuf wire format as in {@link ValueDecoder}. */
+  private static final class Reader {
+    final byte[] buf;
+    int pos;
+
+    Reader(byte[] buf, int pos) {
+      this.buf = buf;
+      this.pos = pos;
+    }
+
+    /** Read the length of a length-delimited field and return its end, or -1 if it exceeds @a limit. */
+    int readEnd(int limit) {
+      int length = (int) readVarint();
+      int end = pos + length;
+      return length < 0 || end > limit ? -1 : end;
+    }
+
+    void skipField(int wireType) {
+      if (wireType == WireFormat.WIRETYPE_FIXED64)
+        pos += 8;
+      else if (wireType == WireFormat.WIRETYPE_FIXED32)
+        pos += 4;
+      else if (wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED)
+        pos = readEnd(buf.length);
+      else
+        readVarint();
+    }
+
+    long readVarint() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = buf[pos++];
+        value |= (long) (b & 0x7F) << shift;
+        if (b >= 0)
+          return value;
+      }
+      throw new ArrayIndexOutOfBoundsException("Malformed varint");
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import com.google.protobuf.ByteString;
+
+/**
+ * Interns the node names and type names decoded from structure responses. Large systems repeat the same names,
+ * like "Value" or the model type names, in a great many nodes, which then share one String instead of holding a
+ * copy each. A name is looked up by its UTF-8 bytes, so a String is only created for names not in the table.
+ *
+ * The table is bounded: each name maps to one slot and replaces the name that was in it. Entries are immutable,
+ * so a table shared by several connections of the same event loop needs no locking.
+ */
+final class NameTable {
+
+  static final int DEFAULT_CAPACITY = 8192;
+
+  private static final class Entry {
+    final ByteString bytes;
+    final String name;
+
+    Entry(ByteString bytes, String name) {
+      this.bytes = bytes;
+      this.name = name;
+    }
+  }
+
+  private final Entry[] entries;
+
+  /** @param capacity Number of slots, must be a power of two. */
+  NameTable(int capacity) {
+    if (Integer.bitCount(capacity) != 1)
+      throw new IllegalArgumentException("Capacity must be a power of two");
+    entries = new Entry[capacity];
+  }
+
+  /** Get the String of the UTF-8 encoded @a bytes, the same instance for equal names still in the table. */
+  String intern(ByteString bytes) {
+    if (bytes.isEmpty())
+      return "";
+    int h = bytes.hashCode();
+    int slot = (h ^ (h >>> 16)) & (entries.length - 1);
+    Entry entry = entries[slot];
+    if (entry != null && entry.bytes.equals(bytes))
+      return entry.name;
+    String name = bytes.toStringUtf8();
+    entries[slot] = new Entry(bytes, name);
+    return name;
+  }
+}
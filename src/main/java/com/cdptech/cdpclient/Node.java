@@ -4,7 +4,9 @@
 
 package com.cdptech.cdpclient;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.TimeoutException;
 
 import com.cdptech.cdpclient.proto.StudioAPI;
 
@@ -13,15 +15,32 @@ import com.cdptech.cdpclient.proto.StudioAPI;
  */
 public class Node {
   
-  /** Connection data structure for top-level nodes. */
-  static class ConnectionData {
+  private static final ValueListener[] NO_VALUE_LISTENERS = new ValueListener[0];
+  private static final DoubleValueListener[] NO_DOUBLE_LISTENERS = new DoubleValueListener[0];
+  private static final SubtreeBatchListener[] NO_BATCH_LISTENERS = new SubtreeBatchListener[0];
+  private static final List<Node> NO_CHILDREN = Collections.emptyList();
+  private static final Variant UNDEFINED_VALUE = new Variant(StudioAPI.CDPValueType.eUNDEFINED, "", 0);
+
+  /** Bits of the flags field: the StudioAPI.Info.Flags received from the server, followed by client state. */
+  private static final int INFO_FLAGS = 0xFFFF;
+  private static final int POLLED_CHILDREN = 1 << 16;
+  private static final int VALUE_SUBSCRIPTION = 1 << 17;
+  private static final int STRUCTURE_SUBSCRIPTION = 1 << 18;
+
+  /** Connection data structure for top-level nodes. Immutable, as LOCAL is shared. */
+  static final class ConnectionData {
+
+    /** Shared by all nodes served by the connection they were received on. */
+    static final ConnectionData LOCAL = new ConnectionData();
     
-    boolean isLocal;
-    String serverAddr;
-    int serverPort;
+    final boolean isLocal;
+    final String serverAddr;
+    final int serverPort;
     
-    ConnectionData() {
+    private ConnectionData() {
       isLocal = true;
+      serverAddr = null;
+      serverPort = 0;
     }
     
     ConnectionData(String addr, int port) {
@@ -31,33 +50,102 @@ public class Node {
     }
   }
   
+  /** Listeners of a node, allocated on the first subscription as most nodes never have any. */
+  private static final class Listeners {
+    final Map<ValueListener, Double> valueFs = new HashMap<>();
+    ValueListener[] values = NO_VALUE_LISTENERS;
+    final Set<ValueListener> single = new HashSet<>();
+    final Map<DoubleValueListener, Double> doubleFs = new HashMap<>();
+    DoubleValueListener[] doubles = NO_DOUBLE_LISTENERS;
+    final Set<SubtreeListener> subtree = new HashSet<>();
+    SubtreeBatchListener[] subtreeBatches = NO_BATCH_LISTENERS;
+  }
+
   private int nodeID;
+  private int flags;
   private StudioAPI.CDPNodeType nodeType;
   private StudioAPI.CDPValueType valueType;
   private String name;
   private String typeName;
-  private boolean isReadOnly;
-  private boolean isPersistent;
-  private boolean isLeaf;
-  private boolean isImportant;
-  private boolean isInternal;
-  private List<Node> children;
+  private List<Node> children = NO_CHILDREN;
+  private LazyChildren lazyChildren;
   private Node parent;
-  private boolean polledChildren;
-  private Variant value;
+  private Variant value = UNDEFINED_VALUE;
+  private StudioAPI.CDPValueType rawValueType;
+  private long rawValue;
+  private long rawTimestampNs;
   private RequestDispatch dispatch;
   private ConnectionData connectionData = null;
-  private Map<ValueListener, Double> valueListenerFsMap;
-  private Set<ValueListener> singleListeners;
-  private Set<SubtreeListener> subtreeListeners;
-  boolean hasValueSubscription = false;
-  boolean hasStructureSubscription = false;
+  private Listeners listeners;
+  private volatile NodeStatistics statistics;
   
   /** (asynchronous) Send a request for this node's child nodes. */
   public Request requestChildNodes() {
     return dispatch.requestChildrenForNode(this);
   }
 
+  /**
+   * Send a request for this node's child nodes and wait until they are received. Waits indefinitely,
+   * see {@link #requestChildNodesBlocking(Duration)} for details.
+   */
+  public Node requestChildNodesBlocking() throws InterruptedException {
+    try {
+      return requestChildNodesBlocking(null);
+    } catch (TimeoutException e) {
+      throw new IllegalStateException(e); // no timeout was given
+    }
+  }
+
+  /**
+   * Send a request for this node's child nodes and wait until they are received. Meant for straight-line code in
+   * worker threads, including virtual threads: the calling thread parks without holding any monitors while the
+   * event loop completes the request. Must not be called from the event loop thread.
+   *
+   * @param timeout Maximum time to wait, or null to wait indefinitely.
+   * @return This node, with {@link #getChildCount()} and {@link #getCachedChild(int)} reflecting the children.
+   * @throws TimeoutException if the children were not received within @a timeout.
+   * @throws IllegalStateException if called from the event loop thread or the node is not connected.
+   */
+  public Node requestChildNodesBlocking(Duration timeout) throws InterruptedException, TimeoutException {
+    ThreadSafeClient facade = getThreadSafeClient();
+    return facade.await(facade.requestChildNodes(this), timeout);
+  }
+
+  /**
+   * Request the current value of this node and wait until it is received. Meant for straight-line code in
+   * worker threads, including virtual threads: the calling thread parks without holding any monitors while the
+   * event loop completes the request. Must not be called from the event loop thread.
+   *
+   * @param timeout Maximum time to wait.
+   * @throws TimeoutException if no value was received within @a timeout.
+   * @throws IllegalStateException if called from the event loop thread or the node is not connected.
+   * @throws UnsupportedOperationException if the node has no value.
+   */
+  public Variant awaitValue(Duration timeout) throws InterruptedException, TimeoutException {
+    ThreadSafeClient facade = getThreadSafeClient();
+    return facade.await(facade.requestValue(this), timeout);
+  }
+
+  /**
+   * Find the facade of the client of this node from a worker thread. The dispatch read here only locates the
+   * client, which every dispatch of the tree shares in a final field. The dispatch used for the request is read
+   * by the submitted command on the event loop, see {@link #checkConnected()}.
+   */
+  private ThreadSafeClient getThreadSafeClient() {
+    RequestDispatch d = dispatch;
+    if (d == null)
+      throw new IllegalStateException("Node " + getLongName() + " is not connected");
+    ThreadSafeClient facade = d.getClient().threadSafe();
+    facade.checkNotEventLoopThread();
+    return facade;
+  }
+
+  /** @throws IllegalStateException if this node has no connection. Must be called from the event loop. */
+  void checkConnected() {
+    if (dispatch == null)
+      throw new IllegalStateException("Node " + getLongName() + " is not connected");
+  }
+
   /** (asynchronous) Subscribe to this node's value changes with @a listener. */
   public void subscribeToValueChanges(ValueListener listener) {
     subscribeToValueChanges(listener, 10);
@@ -70,22 +158,62 @@ public class Node {
    *           still all value changes are received, larger packets simply improve performance.
    */
   public void subscribeToValueChanges(ValueListener listener, double fs) {
-    if (valueType != StudioAPI.CDPValueType.eUNDEFINED)
-      valueListenerFsMap.put(listener, fs);
-    if (!hasValueSubscription)
+    if (valueType != StudioAPI.CDPValueType.eUNDEFINED) {
+      Listeners l = listeners();
+      if (l.valueFs.put(listener, fs) == null)
+        l.values = l.valueFs.keySet().toArray(NO_VALUE_LISTENERS);
+    }
+    if (!hasValueSubscription())
       dispatch.subscribeToNodeValues(this, fs);
   }
   
   /** Remove a previously registered value @a listener. */
   public void removeValueListener(ValueListener listener) {
-    Double removed = valueListenerFsMap.remove(listener);
-    if (removed != null && valueListenerFsMap.size() == 0)
+    if (listeners == null || listeners.valueFs.remove(listener) == null)
+      return;
+    listeners.values = listeners.valueFs.keySet().toArray(NO_VALUE_LISTENERS);
+    if (!hasValueListeners())
       dispatch.unsubscribeFromNodeValues(this);
   }
+
+  /**
+   * (asynchronous) Subscribe to this node's numeric value changes with @a listener. Unlike
+   * {@link #subscribeToValueChanges(ValueListener, double)}, receiving a value allocates nothing as long as
+   * the node has no ValueListeners, see {@link DoubleValueListener}.
+   * @param fs Frequency, see {@link #subscribeToValueChanges(ValueListener, double)}.
+   */
+  public void subscribeToDoubleValues(DoubleValueListener listener, double fs) {
+    if (valueType != StudioAPI.CDPValueType.eUNDEFINED) {
+      Listeners l = listeners();
+      if (l.doubleFs.put(listener, fs) == null)
+        l.doubles = l.doubleFs.keySet().toArray(NO_DOUBLE_LISTENERS);
+    }
+    if (!hasValueSubscription())
+      dispatch.subscribeToNodeValues(this, fs);
+  }
+
+  /** Remove a previously registered double value @a listener. */
+  public void removeDoubleValueListener(DoubleValueListener listener) {
+    if (listeners == null || listeners.doubleFs.remove(listener) == null)
+      return;
+    listeners.doubles = listeners.doubleFs.keySet().toArray(NO_DOUBLE_LISTENERS);
+    if (!hasValueListeners())
+      dispatch.unsubscribeFromNodeValues(this);
+  }
+
+  private boolean hasValueListeners() {
+    return listeners != null && (!listeners.valueFs.isEmpty() || !listeners.doubleFs.isEmpty());
+  }
+
+  private Listeners listeners() {
+    if (listeners == null)
+      listeners = new Listeners();
+    return listeners;
+  }
   
   /** Request a single value for this node. */
   public void requestValue(ValueListener listener) {
-    singleListeners.add(listener);
+    listeners().single.add(listener);
     dispatch.requestValueForNode(this);
   }
   
@@ -97,24 +225,110 @@ public class Node {
   public void postValue(Variant value) {
     dispatch.postValueForNode(this, value);
   }
+
+  /**
+   * (asynchronous) Set the remote value of this node to @a value without creating a Variant.
+   * The value is converted to the node's value type, which can be any numeric type or eBOOL.
+   *
+   * @throws IllegalArgumentException if the node has an integer type and @a value is not a whole number in its range.
+   * @throws UnsupportedOperationException if the node does not have a numeric or boolean value.
+   */
+  public void postDouble(double value) {
+    dispatch.postRawValueForNode(this, ValueEncoder.fromDouble(this, value));
+  }
+
+  /**
+   * (asynchronous) Set the remote value of this node to @a value without creating a Variant.
+   * The value is converted to the node's value type, which can be any numeric type or eBOOL.
+   *
+   * @throws IllegalArgumentException if @a value is out of range for an integer node.
+   * @throws UnsupportedOperationException if the node does not have a numeric or boolean value.
+   */
+  public void postFloat(float value) {
+    postDouble(value);
+  }
+
+  /**
+   * (asynchronous) Set the remote value of this node to @a value without creating a Variant.
+   * The value is converted to the node's value type, which can be any numeric type or eBOOL.
+   * For eUINT64 nodes the sign bit represents the top bit.
+   *
+   * @throws IllegalArgumentException if @a value is out of range for an integer node.
+   * @throws UnsupportedOperationException if the node does not have a numeric or boolean value.
+   */
+  public void postLong(long value) {
+    dispatch.postRawValueForNode(this, ValueEncoder.fromLong(this, value));
+  }
+
+  /**
+   * (asynchronous) Set the remote value of this node to @a value without creating a Variant.
+   * The value is converted to the node's value type, which can be any numeric type or eBOOL.
+   * For eUINT nodes the sign bit represents the top bit.
+   *
+   * @throws IllegalArgumentException if @a value is out of range for an integer node.
+   * @throws UnsupportedOperationException if the node does not have a numeric or boolean value.
+   */
+  public void postInt(int value) {
+    postLong(value);
+  }
+
+  /**
+   * (asynchronous) Set the remote value of this eBOOL node to @a value without creating a Variant.
+   * @throws UnsupportedOperationException if the node does not have a boolean value.
+   */
+  public void postBoolean(boolean value) {
+    dispatch.postRawValueForNode(this, ValueEncoder.fromBoolean(this, value));
+  }
   
   /** 
    * (asynchronous) Subscribe to the remote structure changes of this node.
    * @param listener Callback listener informed of structure changes. 
    */
   public void addSubtreeListener(SubtreeListener listener) {
-    subtreeListeners.add(listener);
-    if (!hasStructureSubscription)
+    listeners().subtree.add(listener);
+    if (!hasStructureSubscription())
       dispatch.subscribeToNodeStructure(this);
   }
   
   /** (asynchronous) Remove a previously registered structure listener. */
   public void removeSubtreeListener(SubtreeListener listener) {
-    boolean success = subtreeListeners.remove(listener);
-    if (success && subtreeListeners.isEmpty())
+    boolean success = listeners != null && listeners.subtree.remove(listener);
+    if (success && !hasSubtreeListeners())
       dispatch.cancelNodeStructureSubscription(this);
   }
 
+  /**
+   * (asynchronous) Subscribe to the remote structure changes of this node, receiving the children added to and
+   * removed from this node or a descendant as one change set per structure update.
+   * Connection loss and reconnection are only reported to {@link SubtreeListener}s.
+   * @param listener Callback listener informed of structure changes.
+   */
+  public void addSubtreeBatchListener(SubtreeBatchListener listener) {
+    Listeners l = listeners();
+    if (!Arrays.asList(l.subtreeBatches).contains(listener)) {
+      l.subtreeBatches = Arrays.copyOf(l.subtreeBatches, l.subtreeBatches.length + 1);
+      l.subtreeBatches[l.subtreeBatches.length - 1] = listener;
+    }
+    if (!hasStructureSubscription())
+      dispatch.subscribeToNodeStructure(this);
+  }
+
+  /** (asynchronous) Remove a previously registered batch structure listener. */
+  public void removeSubtreeBatchListener(SubtreeBatchListener listener) {
+    if (listeners == null)
+      return;
+    List<SubtreeBatchListener> batches = new ArrayList<>(Arrays.asList(listeners.subtreeBatches));
+    if (!batches.remove(listener))
+      return;
+    listeners.subtreeBatches = batches.toArray(NO_BATCH_LISTENERS);
+    if (!hasSubtreeListeners())
+      dispatch.cancelNodeStructureSubscription(this);
+  }
+
+  boolean hasSubtreeListeners() {
+    return listeners != null && (!listeners.subtree.isEmpty() || listeners.subtreeBatches.length > 0);
+  }
+
   /**
    * (asynchronous) Request node with the provided path.
    * @param nodePath Should contain dot separated path to target node.
@@ -152,12 +366,12 @@ public class Node {
   
   /** Get the number of cached children this Node has. 0 unless {@link #requestChildNodes()} has been called. */
   public int getChildCount() {
-    return children.size();
+    return children().size();
   }
   
   /** Get a cached child at index @a n. Note that {@link #requestChildNodes()} must be called first. */
   public Node getCachedChild(int n) {
-    return children.get(n);
+    return children().get(n);
   }
   
   /**
@@ -166,8 +380,21 @@ public class Node {
    * @link {#subscribeToValueChanges(ValueListener)}, {@link #requestValue(ValueListener)}
    */
   public Variant getCachedValue() {
+    if (value == null)
+      value = Variant.ofBits(rawValueType, rawValue, rawTimestampNs);
     return value;
   }
+
+  /**
+   * Get the latency of the values received for this node: the time a value was taken from the receive queue
+   * minus its time sync adjusted source timestamp. Returns null unless latency tracking was enabled with
+   * {@link Client#setValueLatencyTracking} before values were received. Can be called from any thread.
+   */
+  public LatencyHistogram getValueLatency() {
+    NodeStatistics s = statistics;
+    LatencyRecorder latency = s == null ? null : s.getValueLatency();
+    return latency == null ? null : latency.snapshot();
+  }
   
   /** Get the node type of this Node. */
   public StudioAPI.CDPNodeType getNodeType() {
@@ -203,27 +430,27 @@ public class Node {
   
   /** Check if this node's value can be changed. */
   public boolean isValueReadOnly() {
-    return isReadOnly;
+    return (flags & StudioAPI.Info.Flags.eValueIsReadOnly_VALUE) != 0;
   }
   
   /** Check if this node's value is saved to XML when it changes. */
   public boolean isValuePersistent() {
-    return isPersistent;
+    return (flags & StudioAPI.Info.Flags.eValueIsPersistent_VALUE) != 0;
   }
 
   /** Check if the node has it's sub-structure polled. */
   public boolean hasPolledChildren() {
-    return polledChildren;
+    return (flags & POLLED_CHILDREN) != 0;
   }
 
   /** Check if this node has any children. */
   public boolean isLeaf() {
-    return isLeaf;
+    return (flags & StudioAPI.Info.Flags.eNodeIsLeaf_VALUE) != 0;
   }
 
   /** Check if this node has display hint "Important". Nodes marked important should be more prominent in the UI. */
   public boolean isImportant() {
-    return isImportant;
+    return (flags & StudioAPI.Info.Flags.eNodeIsImportant_VALUE) != 0;
   }
 
   /**
@@ -231,7 +458,7 @@ public class Node {
    * which are generally hidden from the UI.
    */
   public boolean isInternal() {
-    return isInternal;
+    return (flags & StudioAPI.Info.Flags.eNodeIsInternal_VALUE) != 0;
   }
 
   /** Nodes are constructed by StudioAPI only. */
@@ -240,17 +467,7 @@ public class Node {
     this.nodeType = ntype;
     this.valueType = vtype;
     this.name = name;
-    this.children = new ArrayList<Node>();
-    this.polledChildren = false;
-    this.value = new Variant(StudioAPI.CDPValueType.eUNDEFINED, "", 0);
-    this.valueListenerFsMap = new HashMap<>();
-    this.singleListeners = new HashSet<ValueListener>();
-    this.subtreeListeners = new HashSet<SubtreeListener>();
-    this.isReadOnly = (flags & StudioAPI.Info.Flags.eValueIsReadOnly.getNumber()) != 0;
-    this.isPersistent = (flags & StudioAPI.Info.Flags.eValueIsPersistent.getNumber()) != 0;
-    this.isLeaf = (flags & StudioAPI.Info.Flags.eNodeIsLeaf.getNumber()) != 0;
-    this.isImportant = (flags & StudioAPI.Info.Flags.eNodeIsImportant.getNumber()) != 0;
-    this.isInternal = (flags & StudioAPI.Info.Flags.eNodeIsInternal.getNumber()) != 0;
+    this.flags = flags & INFO_FLAGS;
   }
 
   Node getCachedChild(String name) {
@@ -262,21 +479,42 @@ public class Node {
   
   /** Add a child with an unique ID to this node. Returns true on success. */
   boolean addChild(Node child) {
-    for (Node existingChild : children) {
+    for (Node existingChild : children()) {
       if (existingChild.nodeID == child.nodeID) {
         return false;
       }
     }
-    children.add(child);
+    addNewChild(child);
+    return true;
+  }
+
+  /** Add a child whose ID is known not to be among the children of this node. */
+  void addNewChild(Node child) {
+    getMutableChildList().add(child);
     child.setParent(this);
     propagateSubtreeChange(child, SubtreeChangeType.eChildAdded);
-    return true;
+  }
+
+  /** Add children whose IDs are known not to be among the children of this node, notifying ancestors once. */
+  void addNewChildren(List<Node> newChildren) {
+    if (newChildren.isEmpty())
+      return;
+    List<Node> listening = nodesWithSubtreeListeners();
+    List<Node> list = getMutableChildList();
+    for (Node child : newChildren) {
+      list.add(child);
+      child.setParent(this);
+      for (Node n : listening)
+        n.notifySubtreeChanged(child, SubtreeChangeType.eChildAdded);
+    }
   }
   
   /** Steal all child nodes from the given parent. */
   void takeChildrenFrom(Node parent) {
     this.children = parent.children;
-    parent.children = null;
+    this.lazyChildren = parent.lazyChildren;
+    parent.children = NO_CHILDREN;
+    parent.lazyChildren = null;
 
     for (Node child : children) {
       child.setParent(this);
@@ -288,7 +526,9 @@ public class Node {
   Node findChildByID(int nodeID) {
     if (this.nodeID == nodeID)
       return this;
-    for (Node child : children) {
+    if (lazyChildren != null && !lazyChildren.contains(nodeID))
+      return null;
+    for (Node child : children()) {
       Node ret = child.findChildByID(nodeID);
       if (ret != null)
         return ret;
@@ -298,7 +538,9 @@ public class Node {
   
   /** Notify this node's subtree listeners of an event. */
   private void notifySubtreeChanged(Node changedNode, SubtreeChangeType changeType) {
-    for (SubtreeListener listener : subtreeListeners) {
+    if (listeners == null)
+      return;
+    for (SubtreeListener listener : listeners.subtree) {
       listener.subtreeChanged(changedNode, changeType);
     }
   }
@@ -319,26 +561,74 @@ public class Node {
   
   /** Remove all child nodes and unset the polled flag. */
   void invalidateCache() {
-    children.clear();
-    polledChildren = false;
+    children = NO_CHILDREN;
+    lazyChildren = null;
+    setPolledChildren(false);
   }
   
-  void removeChildWithID(int nodeID) {
-    ListIterator<Node> iter = children.listIterator();
-    while (iter.hasNext()) {
-      Node next = iter.next();
-      if (next.nodeID == nodeID) {
-        propagateSubtreeChange(next, SubtreeChangeType.eChildRemoved);
-        next.notifyPendingDeletion();
-        iter.remove();
-        break;
+  /**
+   * Remove the children with the first @a count IDs of @a sortedIDs, in one pass over the children. Listeners
+   * are notified once all of them are removed, so they see the final child list.
+   * @param removed Receives the removed children if not null.
+   */
+  void removeChildrenWithIDs(int[] sortedIDs, int count, List<Node> removed) {
+    if (count == 0)
+      return;
+    List<Node> gone = removed != null ? removed : new ArrayList<>();
+    int first = gone.size();
+    children().removeIf(child -> {
+      if (Arrays.binarySearch(sortedIDs, 0, count, child.nodeID) < 0)
+        return false;
+      gone.add(child);
+      return true;
+    });
+    List<Node> listening = nodesWithSubtreeListeners();
+    for (int i = first; i < gone.size(); i++) {
+      Node child = gone.get(i);
+      for (Node n : listening)
+        n.notifySubtreeChanged(child, SubtreeChangeType.eChildRemoved);
+      child.notifyPendingDeletion();
+    }
+  }
+
+  /** Get this node and the ancestors that have {@link SubtreeListener}s, nearest first. */
+  private List<Node> nodesWithSubtreeListeners() {
+    List<Node> nodes = Collections.emptyList();
+    for (Node n = this; n != null; n = n.parent) {
+      if (n.listeners != null && !n.listeners.subtree.isEmpty()) {
+        if (nodes.isEmpty())
+          nodes = new ArrayList<>();
+        nodes.add(n);
       }
     }
+    return nodes;
+  }
+
+  /** Check if this node or an ancestor has a {@link SubtreeBatchListener}. */
+  boolean hasSubtreeBatchListeners() {
+    for (Node n = this; n != null; n = n.parent)
+      if (n.listeners != null && n.listeners.subtreeBatches.length > 0)
+        return true;
+    return false;
+  }
+
+  /** Notify the batch listeners of this node and its ancestors of one structure update of this node. */
+  void notifySubtreeBatch(List<Node> added, List<Node> removed) {
+    if (added.isEmpty() && removed.isEmpty())
+      return;
+    List<Node> addedView = Collections.unmodifiableList(added);
+    List<Node> removedView = Collections.unmodifiableList(removed);
+    for (Node n = this; n != null; n = n.parent) {
+      if (n.listeners == null)
+        continue;
+      for (SubtreeBatchListener listener : n.listeners.subtreeBatches)
+        listener.subtreeChanged(this, addedView, removedView);
+    }
   }
 
   private void notifyPendingDeletion() {
     notifySubtreeChanged(this, SubtreeChangeType.eChildRemoved);
-    for (Node child : getChildList())
+    for (Node child : children)  // lazy children were never created, so they have no listeners
       child.notifyPendingDeletion();
   }
   
@@ -353,7 +643,27 @@ public class Node {
   }
 
   void setPolledChildren(boolean polledChildren) {
-    this.polledChildren = polledChildren;
+    setFlag(POLLED_CHILDREN, polledChildren);
+  }
+
+  boolean hasValueSubscription() {
+    return (flags & VALUE_SUBSCRIPTION) != 0;
+  }
+
+  void setValueSubscription(boolean subscribed) {
+    setFlag(VALUE_SUBSCRIPTION, subscribed);
+  }
+
+  boolean hasStructureSubscription() {
+    return (flags & STRUCTURE_SUBSCRIPTION) != 0;
+  }
+
+  void setStructureSubscription(boolean subscribed) {
+    setFlag(STRUCTURE_SUBSCRIPTION, subscribed);
+  }
+
+  private void setFlag(int flag, boolean set) {
+    flags = set ? flags | flag : flags & ~flag;
   }
 
   RequestDispatch getDispatch() {
@@ -368,18 +678,18 @@ public class Node {
     this.dispatch = dispatch;
     if (dispatch != null) {
       if (hasPolledChildren()) {
-        polledChildren = false;  // Must refresh children after dispatch change
+        setPolledChildren(false);  // Must refresh children after dispatch change
         requestChildNodes().then((node, status) -> {
           if (status == Request.Status.RESOLVED)
             for (Node child : children)
               child.updateDispatch(dispatch);
         });
       }
-      if (hasStructureSubscription) {
+      if (hasStructureSubscription()) {
         dispatch.subscribeToNodeStructure(this);
       }
-      if (!valueListenerFsMap.isEmpty()) {
-        dispatch.subscribeToNodeValues(this, Collections.max(valueListenerFsMap.values()));
+      if (hasValueListeners()) {
+        dispatch.subscribeToNodeValues(this, getValueSubscriptionFs());
       }
       notifySubtreeChanged(this, SubtreeChangeType.eSubscribedNodeReconnected);
     } else {
@@ -388,6 +698,30 @@ public class Node {
     }
   }
 
+  /** Get the highest fs requested by the value listeners, 0 if there are none. */
+  double getValueSubscriptionFs() {
+    double fs = 0;
+    if (listeners == null)
+      return fs;
+    for (double listenerFs : listeners.valueFs.values())
+      fs = Math.max(fs, listenerFs);
+    for (double listenerFs : listeners.doubleFs.values())
+      fs = Math.max(fs, listenerFs);
+    return fs;
+  }
+
+  /** Get the statistics of this node, null if none were recorded. */
+  NodeStatistics peekStatistics() {
+    return statistics;
+  }
+
+  /** Get the statistics of this node, creating them on first use. */
+  NodeStatistics getStatistics() {
+    if (statistics == null)
+      statistics = new NodeStatistics();
+    return statistics;
+  }
+
   void setNodeID(int nodeID) {
     this.nodeID = nodeID;
   }
@@ -398,13 +732,61 @@ public class Node {
   
   void setValue(Variant variant) {
     this.value = variant;
-    for (ValueListener listener : valueListenerFsMap.keySet()) {
+    Object dispatchEvent = FlightRecorderEvents.beginValueDispatch();
+    Listeners l = listeners;
+    int listenerCount = 0;
+    if (l != null) {
+      listenerCount = l.doubles.length + l.values.length + l.single.size();
+      StudioAPI.CDPValueType type = variant.getValueType();
+      if (type != StudioAPI.CDPValueType.eUNDEFINED && type != StudioAPI.CDPValueType.eSTRING) {
+        for (DoubleValueListener listener : l.doubles)
+          listener.valueChanged(variant.getDouble(), variant.getTimestampNanos());
+      }
+      notifyValueListeners(l, variant);
+    }
+    FlightRecorderEvents.endValueDispatch(dispatchEvent, nodeID, listenerCount);
+  }
+
+  /**
+   * Set a primitive value received from the server, see {@link ValueDecoder} for the encoding of @a bits.
+   * Allocates nothing unless the node has ValueListeners, the Variant is created on demand.
+   * @param reusable Variant overwritten with the value and passed to ValueListeners instead of a new one,
+   *                 or null. getCachedValue() then creates a copy if it is called.
+   */
+  void setValue(StudioAPI.CDPValueType type, long bits, long timestampNs, ReusableVariant reusable) {
+    rawValueType = type;
+    rawValue = bits;
+    rawTimestampNs = timestampNs;
+    value = null;
+    Object dispatchEvent = FlightRecorderEvents.beginValueDispatch();
+    Listeners l = listeners;
+    int listenerCount = 0;
+    if (l != null) {
+      DoubleValueListener[] doubles = l.doubles;
+      if (doubles.length > 0) {
+        double d = ValueDecoder.toDouble(type, bits);
+        for (DoubleValueListener listener : doubles)
+          listener.valueChanged(d, timestampNs);
+      }
+      listenerCount = doubles.length;
+      if (l.values.length > 0 || !l.single.isEmpty()) {
+        listenerCount += l.values.length + l.single.size();
+        notifyValueListeners(l, reusable != null ? reusable.set(type, bits, timestampNs) : getCachedValue());
+      }
+    }
+    FlightRecorderEvents.endValueDispatch(dispatchEvent, nodeID, listenerCount);
+  }
+
+  private static void notifyValueListeners(Listeners l, Variant variant) {
+    for (ValueListener listener : l.values) {
       listener.valueChanged(variant);
     }
-    for (ValueListener listener : singleListeners) {
+    if (l.single.isEmpty())
+      return;
+    for (ValueListener listener : l.single) {
       listener.valueChanged(variant);
     }
-    singleListeners.clear();
+    l.single.clear();
   }
   
   boolean isRoot() {
@@ -420,12 +802,49 @@ public class Node {
   }
   
   List<Node> getChildList() {
+    return children();
+  }
+
+  /** Get the child list for adding children, replacing the shared empty list of nodes without children. */
+  List<Node> getMutableChildList() {
+    if (children() == NO_CHILDREN)
+      children = new ArrayList<>();
+    return children;
+  }
+
+  /**
+   * Get the children created so far, without materialising children still encoded in a structure response.
+   * Nodes that were never accessed have no listeners or subscriptions.
+   */
+  List<Node> getMaterializedChildList() {
+    return children;
+  }
+
+  /** Get the number of children, without materialising children still encoded in a structure response. */
+  int getRawChildCount() {
+    return lazyChildren != null ? lazyChildren.size() : children.size();
+  }
+
+  /** Keep the children of this node encoded until they are accessed, see {@link LazyChildren}. */
+  void setLazyChildren(LazyChildren lazyChildren) {
+    this.children = NO_CHILDREN;
+    this.lazyChildren = lazyChildren;
+  }
+
+  private List<Node> children() {
+    if (lazyChildren != null) {
+      LazyChildren pending = lazyChildren;
+      lazyChildren = null;
+      children = pending.materialize(this);
+      if (dispatch != null)
+        dispatch.cacheChanged();
+    }
     return children;
   }
 
   @Override
   public String toString() {
-    return "Node(" + nodeID + ", " + name + ")\n" + children;
+    return "Node(" + nodeID + ", " + name + ")\n" + children();
   }
 
   @Override
@@ -0,0 +1,76 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import java.util.concurrent.TimeUnit;
+
+/** Statistics of the values received for a node. Created on demand, only written by the event loop. */
+class NodeStatistics {
+
+  /** 4 buckets per power of two (19% precision) keeps a histogram at about 2 KB per node */
+  private static final int LATENCY_SUB_BUCKET_BITS = 2;
+  /** Samples older than this have decayed to 1/e of their weight in the rate estimates */
+  static final long RATE_TIME_CONSTANT_NS = TimeUnit.SECONDS.toNanos(10);
+
+  /** Created on the first latency sample, as most nodes only track rates */
+  private volatile LatencyRecorder valueLatency;
+  private long sampleCount;
+  private long byteCount;
+  private double decayedSamples;
+  private double decayedBytes;
+  private long lastSampleNs;
+
+  /**
+   * Record a sample of @a size bytes received at @a timeNs. The decay is only computed once per distinct
+   * timestamp, so all values of a received frame cost a plain addition.
+   */
+  void recordSample(long timeNs, int size) {
+    if (timeNs != lastSampleNs) {
+      double decay = decayFactor(timeNs);
+      decayedSamples *= decay;
+      decayedBytes *= decay;
+      lastSampleNs = timeNs;
+    }
+    decayedSamples++;
+    decayedBytes += size;
+    sampleCount++;
+    byteCount += size;
+  }
+
+  /** Record the latency of a received value. */
+  void recordValueLatency(long latencyNs) {
+    LatencyRecorder recorder = valueLatency;
+    if (recorder == null)
+      valueLatency = recorder = new LatencyRecorder(LATENCY_SUB_BUCKET_BITS);
+    recorder.record(latencyNs);
+  }
+
+  /** Get the value latency recorder, null if no latency was recorded. Can be called from any thread. */
+  LatencyRecorder getValueLatency() {
+    return valueLatency;
+  }
+
+  long getSampleCount() {
+    return sampleCount;
+  }
+
+  long getByteCount() {
+    return byteCount;
+  }
+
+  /** Get the exponentially decaying average samples per second at @a timeNs. */
+  double getSampleRate(long timeNs) {
+    return decayedSamples * decayFactor(timeNs) * TimeUnit.SECONDS.toNanos(1) / RATE_TIME_CONSTANT_NS;
+  }
+
+  /** Get the exponentially decaying average bytes per second at @a timeNs. */
+  double getByteRate(long timeNs) {
+    return decayedBytes * decayFactor(timeNs) * TimeUnit.SECONDS.toNanos(1) / RATE_TIME_CONSTANT_NS;
+  }
+
+  private double decayFactor(long timeNs) {
+    return Math.exp(-(double) Math.max(timeNs - lastSampleNs, 0) / RATE_TIME_CONSTANT_NS);
+  }
+}
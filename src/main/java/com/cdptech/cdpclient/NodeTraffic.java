@@ -0,0 +1,40 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import lombok.Data;
+
+import java.util.Comparator;
+
+/**
+ * Received value traffic of a node. Rates are exponentially decaying averages over about the last 10 seconds.
+ *
+ * @see Client#getHottestNodes(int, Comparator)
+ */
+@Data
+public class NodeTraffic {
+
+  /** Orders the nodes using the most bandwidth first. */
+  public static final Comparator<NodeTraffic> BY_BYTE_RATE =
+      Comparator.comparingDouble(NodeTraffic::getByteRate).reversed();
+  /** Orders the nodes receiving the most values, and so the most listener calls, first. */
+  public static final Comparator<NodeTraffic> BY_SAMPLE_RATE =
+      Comparator.comparingDouble(NodeTraffic::getSampleRate).reversed();
+
+  private final Node node;
+  private final String longName;
+  private final long sampleCount;
+  private final long byteCount;
+  /** Values per second */
+  private final double sampleRate;
+  /** Encoded value bytes per second */
+  private final double byteRate;
+
+  @Override
+  public String toString() {
+    return String.format("%s: %.1f values/s, %.0f B/s (%d values, %d B total)", longName, sampleRate, byteRate,
+        sampleCount, byteCount);
+  }
+}
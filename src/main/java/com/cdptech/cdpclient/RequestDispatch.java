@@ -4,7 +4,9 @@
 
 package com.cdptech.cdpclient;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.function.Consumer;
 
 import com.cdptech.cdpclient.proto.StudioAPI;
 import com.cdptech.cdpclient.Request.Status;
@@ -21,11 +23,21 @@ class RequestDispatch implements IOListener {
     DROPPED
   }
   
-  private Client client;
+  private final Client client;
   private IOHandler handler;
   private List<Node> connectionCache;
+  private final IntObjectMap<Node> nodesByID = new IntObjectMap<>();
+  private final ChildListDiff childDiff = new ChildListDiff();
   private List<Request> pendingRequests;
+  private boolean valueLatencyTracking;
+  private boolean valueRateTracking;
+  private ReusableVariant reusableValue;
   private State state;
+  /** Incremented when the cached nodes or their subscriptions change, so that counts are only redone then. */
+  private int cacheVersion;
+  private int countedCacheVersion = -1;
+  private int cachedNodeCount;
+  private int subscriptionCount;
   
   /**
    * Construct a RequestDispatch instance.
@@ -55,6 +67,7 @@ class RequestDispatch implements IOListener {
   Request requestChildrenForNode(Node node) {
     Request req = new Request();
     if (node.hasPolledChildren()) {
+      client.getStructureCache().touch(node);
       req.setNode(node);
       req.setStatus(Status.RESOLVED);
     } else {
@@ -73,6 +86,8 @@ class RequestDispatch implements IOListener {
     while (node != null && node.hasPolledChildren() && it.hasNext()) {
       node = node.getCachedChild(it.next());
     }
+    if (node != null)
+      client.getStructureCache().touch(node);
     if (node == null) {
       Request r = new Request();
       r.setStatus(Status.ERROR);
@@ -109,13 +124,15 @@ class RequestDispatch implements IOListener {
   void subscribeToNodeValues(Node node, double fs) {
     if (node.getValueType() == StudioAPI.CDPValueType.eUNDEFINED)
       throw new UnsupportedOperationException("Node has no value type");
-    node.hasValueSubscription = true;
+    node.setValueSubscription(true);
+    cacheChanged();
     handler.valueRequest(node, fs);
   }
   
   /** Cancel a previous value subscription. */
   void unsubscribeFromNodeValues(Node node) {
-    node.hasValueSubscription = false;
+    node.setValueSubscription(false);
+    cacheChanged();
     handler.cancelValueSubscription(node);
   }
   
@@ -128,16 +145,32 @@ class RequestDispatch implements IOListener {
   
   /** Set the remote value for a node to the given variant. */
   void postValueForNode(Node node, Variant value) {
+    checkValueType(node, value.getValueType());
+    handler.setRemoteValue(node, value);
+  }
+
+  /** Set the remote value for a node to a raw value already converted with ValueEncoder. */
+  void postRawValueForNode(Node node, long bits) {
+    handler.setRemoteRawValue(node, bits);
+  }
+
+  /** Send values already checked and encoded for nodes of this connection in a single request. */
+  void postEncodedValues(List<StudioAPI.VariantValue> values) {
+    handler.setRemoteValues(values);
+  }
+
+  /** Check that a value of @a valueType can be posted to @a node. */
+  static void checkValueType(Node node, StudioAPI.CDPValueType valueType) {
     if (node.getValueType() == StudioAPI.CDPValueType.eUNDEFINED)
       throw new UnsupportedOperationException("Node has no value type");
-    if (node.getValueType() != value.getValueType())
+    if (node.getValueType() != valueType)
       throw new UnsupportedOperationException("Variant value type mismatch");
-    handler.setRemoteValue(node, value);
   }
   
   /** Subscribe to the remote structure changes for a node. */
   void subscribeToNodeStructure(Node node) {
-    node.hasStructureSubscription = true;
+    node.setStructureSubscription(true);
+    cacheChanged();
     if (node.isRoot() && node.getDispatch() == this)
       client.broadcastStructureSubscription();
     handler.startStructureSubscription(node.getNodeID());
@@ -145,7 +178,8 @@ class RequestDispatch implements IOListener {
   
   /** Cancel a previous structure subscription. */
   void cancelNodeStructureSubscription(Node node) {
-    node.hasStructureSubscription = false;
+    node.setStructureSubscription(false);
+    cacheChanged();
     handler.cancelStructureSubscription(node);
   }
 
@@ -160,6 +194,7 @@ class RequestDispatch implements IOListener {
   }
 
   public void nodeReceived(Node node) {
+    clearNodeLookups();  // the structure may change, cached lookups are repeated on demand
     // if no cache has been created or supplied, RequestDispatch is responsible
     // for boostrapping the entire Client
     if (state == State.PENDING) {
@@ -181,52 +216,65 @@ class RequestDispatch implements IOListener {
       } else {
         found.setPolledChildren(true);
         if (found.equals(client.getRootNode()))
-          updateAppIDOnHandleChange(found, node);
-        handleRemovedNodes(found, node);
-        handleNewNodes(found, node);
+          childDiff.remapIDsByName(found, node);
+        childDiff.compare(found, node);
+        boolean changed = childDiff.getRemovedCount() > 0 || childDiff.getAddedCount() > 0;
+        List<Node> removed = null;
+        if (changed && found.hasSubtreeBatchListeners())
+          removed = new ArrayList<>(childDiff.getRemovedCount());
+        found.removeChildrenWithIDs(childDiff.getRemovedIDs(), childDiff.getRemovedCount(), removed);
+        List<Node> added = childDiff.getAddedCount() > 0 ? handleNewNodes(found, node) : Collections.emptyList();
+        if (removed != null)
+          found.notifySubtreeBatch(added, removed);
       }
+      client.getStructureCache().childrenReceived(found);
       interceptNode(found);
     }
   }
 
-  private void updateAppIDOnHandleChange(Node cachedNode, Node receivedNode) {
-    for (Node cachedChild : cachedNode.getChildList())
-      for (Node receivedChild : receivedNode.getChildList())
-        if (cachedChild.getName().equals(receivedChild.getName()))
-          cachedChild.setNodeID(receivedChild.getNodeID());
-  }
-
-  private void handleRemovedNodes(Node cachedNode, Node receivedNode) {
-    HashSet<Node> received = new HashSet<>(receivedNode.getChildList());
-    List<Integer> idsToRemove = new ArrayList<>();
-    for (Node child : cachedNode.getChildList()) {
-      if (!received.contains(child)) {
-        idsToRemove.add(child.getNodeID());
-      }
-    }
-    for (Integer id : idsToRemove)
-      cachedNode.removeChildWithID(id);
-  }
-
-  private void handleNewNodes(Node cachedNode, Node receivedNode) {
-    HashSet<Node> cached = new HashSet<>(cachedNode.getChildList());
+  /**
+   * Add the children found by childDiff, in the order they were received.
+   * @return The children added to @a cachedNode.
+   */
+  private List<Node> handleNewNodes(Node cachedNode, Node receivedNode) {
+    List<Node> added = new ArrayList<>(childDiff.getAddedCount());
     for (Node child : receivedNode.getChildList()) {
-      if (!cached.contains(child)) {
+      if (childDiff.isAdded(child.getNodeID())) {
         if (cachedNode.equals(client.getRootNode())) {
           client.openConnection(child);
           // TODO: copy listeners
         } else if (receivedNode.getConnectionData().isLocal) {
           child.setDispatch(this);
-          cachedNode.addChild(child);
+          added.add(child);
         }
       }
     }
+    cachedNode.addNewChildren(added);
+    return added;
+  }
+
+  public void valueReceived(int nodeID, StudioAPI.CDPValueType type, long bits, long timestampNs, int encodedSize) {
+    Node node = findNodeByID(nodeID);
+
+    if (node != null) {
+      if (valueLatencyTracking && timestampNs != 0)
+        node.getStatistics().recordValueLatency(handler.getFrameReceivedNs() - timestampNs);
+      if (valueRateTracking)
+        node.getStatistics().recordSample(handler.getFrameReceivedNs(), encodedSize);
+      node.setValue(type, bits, timestampNs, reusableValue);
+    } else {
+      System.err.println("Received value for unknown Node.");
+    }
   }
 
-  public void valueReceived(int nodeID, Variant value) {
+  public void valueReceived(int nodeID, Variant value, int encodedSize) {
     Node node = findNodeByID(nodeID);
     
     if (node != null) {
+      if (valueLatencyTracking && value.getTimestampNanos() != 0)
+        node.getStatistics().recordValueLatency(handler.getFrameReceivedNs() - value.getTimestampNanos());
+      if (valueRateTracking)
+        node.getStatistics().recordSample(handler.getFrameReceivedNs(), encodedSize);
       node.setValue(value); // fires PropertyChangeEvent
     } else {
       System.err.println("Received value for unknown Node.");
@@ -287,7 +335,7 @@ class RequestDispatch implements IOListener {
         lostApp.setNodeID(receivedAppNode.getNodeID());
         if (!root.getChildList().contains(lostApp)) {
           lostApp.setParent(root);
-          root.getChildList().add(lostApp);
+          root.getMutableChildList().add(lostApp);
           lostApp.updateDispatch(this);
           connectionCache.add(lostApp);
           client.getLostApps().remove(lostApp);
@@ -306,8 +354,117 @@ class RequestDispatch implements IOListener {
     pendingRequests.removeIf(req -> req.getStatus() != Status.PENDING);
   }
   
-  /** Find a node from this connection's cache. */
-  private Node findNodeByID(int nodeID) {
+  /** Call @a action for every cached node of the applications served by this connection. */
+  void forEachCachedNode(Consumer<Node> action) {
+    Deque<Node> stack = new ArrayDeque<>(connectionCache);
+    while (!stack.isEmpty()) {
+      Node node = stack.pop();
+      action.accept(node);
+      stack.addAll(node.getMaterializedChildList());
+    }
+  }
+
+  /** Get the number of cached nodes of this connection, counted again only after the cache changed. */
+  int getCachedNodeCount() {
+    updateCounts();
+    return cachedNodeCount;
+  }
+
+  /** Get the number of value and structure subscriptions, the lines of {@link #getSubscriptionTable()}. */
+  int getSubscriptionCount() {
+    updateCounts();
+    return subscriptionCount;
+  }
+
+  /** Note a change of the cached nodes or their subscriptions, e.g. children decoded on first access. */
+  void cacheChanged() {
+    cacheVersion++;
+  }
+
+  private void updateCounts() {
+    if (countedCacheVersion == cacheVersion)
+      return;
+    int nodes = 0;
+    int subscriptions = 0;
+    Deque<Node> stack = new ArrayDeque<>(connectionCache);
+    while (!stack.isEmpty()) {
+      Node node = stack.pop();
+      nodes++;
+      if (node.hasValueSubscription())
+        subscriptions++;
+      if (node.hasStructureSubscription())
+        subscriptions++;
+      for (Node child : node.getMaterializedChildList())
+        stack.push(child);
+    }
+    cachedNodeCount = nodes;
+    subscriptionCount = subscriptions;
+    countedCacheVersion = cacheVersion;
+  }
+
+  /** Get a line per subscribed node with its subscription type and fs. */
+  List<String> getSubscriptionTable() {
+    List<String> table = new ArrayList<>();
+    forEachCachedNode(node -> {
+      if (node.hasValueSubscription())
+        table.add(node.getLongName() + " value fs=" + node.getValueSubscriptionFs());
+      if (node.hasStructureSubscription())
+        table.add(node.getLongName() + " structure");
+    });
+    return table;
+  }
+
+  /** Resend the value and structure subscriptions of all cached nodes. */
+  void resubscribe() {
+    forEachCachedNode(node -> {
+      if (node.hasValueSubscription())
+        handler.valueRequest(node, node.getValueSubscriptionFs());
+      if (node.hasStructureSubscription())
+        handler.startStructureSubscription(node.getNodeID());
+    });
+  }
+
+  /** Enable recording the latency of received values per node. */
+  void setValueLatencyTracking(boolean enabled) {
+    valueLatencyTracking = enabled;
+  }
+
+  /** Pass a reused Variant to ValueListeners instead of creating one per value. */
+  void setReusableValues(boolean enabled) {
+    reusableValue = enabled ? new ReusableVariant() : null;
+  }
+
+  /** Enable recording the sample and byte rate of received values per node. */
+  void setValueRateTracking(boolean enabled) {
+    valueRateTracking = enabled;
+  }
+
+  static long toEpochNanos(Instant timestamp) {
+    return timestamp.getEpochSecond() * 1_000_000_000L + timestamp.getNano();
+  }
+
+  int getPendingRequestCount() {
+    return pendingRequests.size();
+  }
+
+  /** Find a node from this connection's cache, remembering it until the structure changes. */
+  Node findNodeByID(int nodeID) {
+    Node node = nodesByID.get(nodeID);
+    if (node != null && node.getNodeID() == nodeID)
+      return node;
+    node = searchNodeByID(nodeID);
+    if (node != null)
+      nodesByID.put(nodeID, node);
+    return node;
+  }
+
+  /** Forget the nodes looked up by ID, e.g. after they were removed from the cache. */
+  void clearNodeLookups() {
+    nodesByID.clear();
+    cacheChanged();
+  }
+
+  private Node searchNodeByID(int nodeID) {
     if (nodeID == client.getRootNode().getNodeID())
       return client.getRootNode();
     for (Node app : client.getRootNode().getChildList()) {
@@ -327,4 +484,8 @@ class RequestDispatch implements IOListener {
     return state;
   }
 
+  Client getClient() {
+    return client;
+  }
+
 }
@@ -0,0 +1,58 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import com.cdptech.cdpclient.proto.StudioAPI.CDPValueType;
+
+import java.time.Instant;
+
+/**
+ * Variant that is overwritten with every value passed to ValueListeners of a connection, see
+ * {@link Client#setReusableValues}. Only valid on the event loop during the listener callback, use
+ * {@link #copy()} to retain the value or pass it to another thread.
+ */
+final class ReusableVariant extends Variant {
+
+  private CDPValueType valueType = CDPValueType.eUNDEFINED;
+  private long bits;
+  private long timestampNs = NO_TIMESTAMP;
+
+  ReusableVariant() {
+    super(CDPValueType.eUNDEFINED, 0, NO_TIMESTAMP, null);
+  }
+
+  /** Overwrite this variant with a primitive value, see {@link Variant#ofBits}. */
+  ReusableVariant set(CDPValueType valueType, long bits, long timestampNs) {
+    this.valueType = valueType;
+    this.bits = bits;
+    this.timestampNs = timestampNs;
+    return this;
+  }
+
+  @Override
+  public Variant copy() {
+    return Variant.ofBits(valueType, bits, timestampNs);
+  }
+
+  @Override
+  public Instant getTimestamp() {
+    return timestampNs == NO_TIMESTAMP ? null : Instant.ofEpochSecond(0, timestampNs);
+  }
+
+  @Override
+  CDPValueType valueType() {
+    return valueType;
+  }
+
+  @Override
+  long bits() {
+    return bits;
+  }
+
+  @Override
+  long timestampNs() {
+    return timestampNs;
+  }
+}
@@ -0,0 +1,463 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import com.cdptech.cdpclient.proto.StudioAPI.CDPValueType;
+import lombok.Data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bulk import of setpoints from a CSV file with one {@code path,value} row per line, for example to load
+ * recipes of tens of thousands of values:
+ * <pre>
+ * SetpointImport.Result result = SetpointImport.parse(Paths.get("setpoints.csv"))
+ *     .post(client.threadSafe())
+ *     .get(10, TimeUnit.SECONDS);
+ * </pre>
+ * The file is streamed and parsed on the calling thread. Numbers are parsed straight from the bytes, and the
+ * paths are collected into a tree of names, so consecutive rows of the same component share their parent.
+ * {@link #post(ThreadSafeClient)} then resolves the tree on the event loop, requesting the children of each
+ * node once and all nodes of a level at the same time, and sends the values of each application connection in
+ * a single request.
+ *
+ * Empty lines, lines starting with '#' and a "path,value" header are skipped. Values may be enclosed in double
+ * quotes. If a path occurs several times, the last row wins.
+ */
+public final class SetpointImport {
+
+  private static final byte INTEGER = 0;
+  private static final byte DOUBLE = 1;
+  private static final byte TEXT = 2;
+  /** Integer in [2^63, 2^64), stored as unsigned bits. Only written as is to eUINT64 nodes. */
+  private static final byte UNSIGNED_INTEGER = 3;
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+  private static final int MAX_EXACT_DIGITS = 18;  // any 18 digit number fits a long
+
+  /** The result of {@link #post(ThreadSafeClient)}. */
+  @Data
+  public static class Result {
+    /** Number of values sent */
+    private final int postedCount;
+    /** Rows that could not be parsed, resolved or converted, e.g. "line 12: App.Component.Gain: not found" */
+    private final List<String> failures;
+  }
+
+  /** A path element, the parent of other elements and/or the node of a row. */
+  private static final class Segment {
+    final Segment parent;
+    final String name;
+    Map<String, Segment> children;
+    int row = -1;
+
+    Segment(Segment parent, String name) {
+      this.parent = parent;
+      this.name = name;
+    }
+
+    Segment child(String name) {
+      if (children == null)
+        children = new LinkedHashMap<>();
+      return children.computeIfAbsent(name, n -> new Segment(this, n));
+    }
+
+    String getPath() {
+      return parent.parent == null ? name : parent.getPath() + "." + name;
+    }
+  }
+
+  private final Segment root = new Segment(null, null);
+  private final List<String> parseFailures = new ArrayList<>();
+  private int rowCount;
+  private byte[] kinds = new byte[1024];
+  private long[] values = new long[1024];
+  private int[] lines = new int[1024];
+  private int[] textOffsets = new int[1025];
+  private byte[] text = new byte[16 * 1024];
+  private byte[] lastParentPath = new byte[0];
+  private Segment lastParent = root;
+
+  private SetpointImport() {
+  }
+
+  /** Parse a setpoint CSV @a file. */
+  public static SetpointImport parse(Path file) throws IOException {
+    try (InputStream in = Files.newInputStream(file)) {
+      return parse(in);
+    }
+  }
+
+  /** Parse setpoint CSV rows from @a in, which is read until its end but not closed. */
+  public static SetpointImport parse(InputStream in) throws IOException {
+    SetpointImport setpoints = new SetpointImport();
+    setpoints.read(in);
+    return setpoints;
+  }
+
+  /** Get the number of parsed rows. */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * (asynchronous) Resolve the paths and send the values, converted to the value type of each node. The future
+   * is completed once the values are sent, and never if a connection is lost while paths are being resolved,
+   * so wait with a timeout.
+   */
+  public CompletableFuture<Result> post(ThreadSafeClient client) {
+    CompletableFuture<Result> future = new CompletableFuture<>();
+    client.execute(c -> new Resolution(c, future).start()).exceptionally(e -> {
+      future.completeExceptionally(e);
+      return null;
+    });
+    return future;
+  }
+
+  private void read(InputStream in) throws IOException {
+    byte[] buf = new byte[64 * 1024];
+    int start = 0;
+    int end = 0;
+    int lineNumber = 0;
+    boolean eof = false;
+    while (true) {
+      int newline = indexOf(buf, start, end, (byte) '\n');
+      if (newline >= 0) {
+        parseLine(buf, start, newline, ++lineNumber);
+        start = newline + 1;
+      } else if (eof) {
+        if (start < end)
+          parseLine(buf, start, end, ++lineNumber);
+        return;
+      } else {
+        if (start > 0) {
+          System.arraycopy(buf, start, buf, 0, end - start);
+          end -= start;
+          start = 0;
+        } else if (end == buf.length) {
+          buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+        int n = in.read(buf, end, buf.length - end);
+        if (n < 0)
+          eof = true;
+        else
+          end += n;
+      }
+    }
+  }
+
+  private void parseLine(byte[] b, int from, int to, int lineNumber) {
+    if (lineNumber == 1 && to - from >= 3 && b[from] == (byte) 0xEF && b[from + 1] == (byte) 0xBB
+        && b[from + 2] == (byte) 0xBF)
+      from += 3;  // UTF-8 byte order mark
+    while (from < to && isSpace(b[from]))
+      from++;
+    while (to > from && isSpace(b[to - 1]))
+      to--;
+    if (from == to || b[from] == '#')
+      return;
+    int comma = indexOf(b, from, to, (byte) ',');
+    if (comma < 0) {
+      parseFailures.add("line " + lineNumber + ": missing value");
+      return;
+    }
+    int pathEnd = comma;
+    while (pathEnd > from && isSpace(b[pathEnd - 1]))
+      pathEnd--;
+    int valueStart = comma + 1;
+    while (valueStart < to && isSpace(b[valueStart]))
+      valueStart++;
+    if (rowCount == 0 && parseFailures.isEmpty() && isHeader(b, from, pathEnd))
+      return;
+    if (to - valueStart >= 2 && b[valueStart] == '"' && b[to - 1] == '"') {
+      valueStart++;
+      to--;
+    }
+    int row = addRow(b, valueStart, to, lineNumber);
+    segmentFor(b, from, pathEnd).row = row;
+  }
+
+  private static boolean isHeader(byte[] b, int from, int to) {
+    return to - from == 4 && new String(b, from, 4, StandardCharsets.US_ASCII).equalsIgnoreCase("path");
+  }
+
+  /** Get the segment of a path, reusing the parent of the previous row if it is the same. */
+  private Segment segmentFor(byte[] b, int from, int to) {
+    int lastDot = lastIndexOf(b, from, to, (byte) '.');
+    int parentLength = Math.max(lastDot - from, 0);
+    if (parentLength != lastParentPath.length || !rangeEquals(b, from, lastParentPath)) {
+      lastParentPath = Arrays.copyOfRange(b, from, from + parentLength);
+      lastParent = root;
+      for (int start = from; start < from + parentLength; ) {
+        int dot = indexOf(b, start, lastDot, (byte) '.');
+        int end = dot < 0 ? lastDot : dot;
+        lastParent = lastParent.child(new String(b, start, end - start, StandardCharsets.UTF_8));
+        start = end + 1;
+      }
+    }
+    int nameStart = lastDot < 0 ? from : lastDot + 1;
+    return lastParent.child(new String(b, nameStart, to - nameStart, StandardCharsets.UTF_8));
+  }
+
+  private int addRow(byte[] b, int from, int to, int lineNumber) {
+    int row = rowCount++;
+    if (row == kinds.length) {
+      kinds = Arrays.copyOf(kinds, row * 2);
+      values = Arrays.copyOf(values, row * 2);
+      lines = Arrays.copyOf(lines, row * 2);
+      textOffsets = Arrays.copyOf(textOffsets, row * 2 + 1);
+    }
+    int textStart = textOffsets[row];
+    if (textStart + to - from > text.length)
+      text = Arrays.copyOf(text, Math.max(text.length * 2, textStart + to - from));
+    System.arraycopy(b, from, text, textStart, to - from);
+    textOffsets[row + 1] = textStart + to - from;
+    lines[row] = lineNumber;
+    kinds[row] = parseNumber(b, from, to, row);
+    return row;
+  }
+
+  /**
+   * Parse a decimal number into values[row] and return its kind, TEXT if it is not a number. Numbers with up to
+   * 18 significant digits and a decimal exponent within +-22 are converted exactly with a single multiplication
+   * or division, anything else falls back to the JDK parsers.
+   */
+  private byte parseNumber(byte[] b, int from, int to, int row) {
+    int i = from;
+    boolean negative = false;
+    if (i < to && (b[i] == '-' || b[i] == '+'))
+      negative = b[i++] == '-';
+    long mantissa = 0;
+    int digits = 0;
+    int exponent = 0;
+    boolean anyDigit = false;
+    boolean isInteger = true;
+    for (; i < to && isDigit(b[i]); i++, anyDigit = true) {
+      if (digits++ < MAX_EXACT_DIGITS)
+        mantissa = mantissa * 10 + (b[i] - '0');
+      if (mantissa == 0)
+        digits = 0;
+    }
+    if (i < to && b[i] == '.') {
+      isInteger = false;
+      for (i++; i < to && isDigit(b[i]); i++, anyDigit = true) {
+        if (digits++ < MAX_EXACT_DIGITS) {
+          mantissa = mantissa * 10 + (b[i] - '0');
+          exponent--;
+        }
+        if (mantissa == 0)
+          digits = 0;
+      }
+    }
+    if (!anyDigit)
+      return TEXT;
+    if (i < to && (b[i] == 'e' || b[i] == 'E')) {
+      isInteger = false;
+      boolean negativeExponent = false;
+      if (++i < to && (b[i] == '-' || b[i] == '+'))
+        negativeExponent = b[i++] == '-';
+      int exponentStart = i;
+      int e = 0;
+      for (; i < to && isDigit(b[i]); i++)
+        e = Math.min(e * 10 + (b[i] - '0'), 100_000);
+      if (i == exponentStart)
+        return TEXT;
+      exponent += negativeExponent ? -e : e;
+    }
+    if (i != to)
+      return TEXT;
+    boolean exact = digits <= MAX_EXACT_DIGITS;
+    if (isInteger && exact) {
+      values[row] = negative ? -mantissa : mantissa;
+      return INTEGER;
+    }
+    String s = null;
+    if (isInteger) {
+      s = new String(b, from, to - from, StandardCharsets.US_ASCII);
+      try {
+        values[row] = Long.parseLong(s);
+        return INTEGER;
+      } catch (NumberFormatException e) {
+        // out of range, try unsigned or use a double
+      }
+      if (!negative) {
+        try {
+          values[row] = Long.parseUnsignedLong(s.startsWith("+") ? s.substring(1) : s);
+          return UNSIGNED_INTEGER;
+        } catch (NumberFormatException e) {
+          // out of range, use a double
+        }
+      }
+    }
+    double d;
+    if (exact && mantissa < 1L << 53 && exponent >= -22 && exponent <= 22) {
+      d = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+      d = negative ? -d : d;
+    } else {
+      d = Double.parseDouble(s != null ? s : new String(b, from, to - from, StandardCharsets.US_ASCII));
+    }
+    values[row] = Double.doubleToRawLongBits(d);
+    return DOUBLE;
+  }
+
+  private static boolean isSpace(byte b) {
+    return b == ' ' || b == '\t' || b == '\r';
+  }
+
+  private static boolean isDigit(byte b) {
+    return b >= '0' && b <= '9';
+  }
+
+  private static int indexOf(byte[] b, int from, int to, byte value) {
+    for (int i = from; i < to; i++)
+      if (b[i] == value)
+        return i;
+    return -1;
+  }
+
+  private static int lastIndexOf(byte[] b, int from, int to, byte value) {
+    for (int i = to - 1; i >= from; i--)
+      if (b[i] == value)
+        return i;
+    return -1;
+  }
+
+  private static boolean rangeEquals(byte[] b, int from, byte[] other) {
+    for (int i = 0; i < other.length; i++)
+      if (b[from + i] != other[i])
+        return false;
+    return true;
+  }
+
+  /** Get the number of @a row, NaN if it is not a number. */
+  double getNumber(int row) {
+    if (kinds[row] == INTEGER)
+      return values[row];
+    if (kinds[row] == UNSIGNED_INTEGER)
+      return Double.parseDouble(getText(row));
+    return kinds[row] == DOUBLE ? Double.longBitsToDouble(values[row]) : Double.NaN;
+  }
+
+  private String getText(int row) {
+    return new String(text, textOffsets[row], textOffsets[row + 1] - textOffsets[row], StandardCharsets.UTF_8);
+  }
+
+  private StudioAPI.VariantValue encode(Node node, int row) {
+    CDPValueType type = node.getValueType();
+    if (type == CDPValueType.eUNDEFINED)
+      throw new UnsupportedOperationException("node has no value");
+    if (type == CDPValueType.eSTRING || kinds[row] == TEXT)
+      return IOHandler.encodeValue(node, new Variant.Builder(type).parse(getText(row)).build());
+    if (kinds[row] == INTEGER || kinds[row] == UNSIGNED_INTEGER && type == CDPValueType.eUINT64)
+      return IOHandler.encodeRawValue(node, ValueEncoder.fromLong(node, values[row]));
+    return IOHandler.encodeRawValue(node, ValueEncoder.fromDouble(node, getNumber(row)));
+  }
+
+  /** Resolves the segment tree against the node tree on the event loop and collects the encoded values. */
+  private final class Resolution {
+    private final Client client;
+    private final CompletableFuture<Result> future;
+    private final Map<RequestDispatch, List<StudioAPI.VariantValue>> batches = new LinkedHashMap<>();
+    private final List<String> failures = new ArrayList<>(parseFailures);
+    private int pendingRequests;
+    private int postedCount;
+
+    Resolution(Client client, CompletableFuture<Result> future) {
+      this.client = client;
+      this.future = future;
+    }
+
+    void start() {
+      if (root.children == null) {  // no valid rows, only report the parse failures
+        future.complete(new Result(0, failures));
+        return;
+      }
+      pendingRequests++;
+      resolveChildren(client.getRootNode(), root);
+      requestDone();
+    }
+
+    private void resolveChildren(Node node, Segment segment) {
+      pendingRequests++;
+      try {
+        node.requestChildNodes().then((n, status) -> {
+          if (status == Request.Status.RESOLVED) {
+            resolve(n, segment);
+          } else {
+            for (Segment child : childrenOf(segment))
+              failAll(child, "not found");
+          }
+          requestDone();
+        });
+      } catch (RuntimeException e) {
+        pendingRequests--;
+        for (Segment child : childrenOf(segment))
+          failAll(child, "children of " + node.getLongName() + " could not be requested: " + e);
+      }
+    }
+
+    /** Match the children of @a parent in one pass, as looking up each by name would be quadratic. */
+    private void resolve(Node parent, Segment segment) {
+      if (segment.children == null)
+        return;
+      Map<String, Segment> unmatched = new HashMap<>(segment.children);
+      for (int i = 0; i < parent.getChildCount() && !unmatched.isEmpty(); i++) {
+        Node child = parent.getCachedChild(i);
+        Segment childSegment = unmatched.remove(child.getName());
+        if (childSegment != null)
+          resolveNode(child, childSegment);
+      }
+      for (Segment childSegment : unmatched.values())
+        failAll(childSegment, "not found");
+    }
+
+    private void resolveNode(Node node, Segment segment) {
+      if (segment.row >= 0) {
+        try {
+          client.batchFor(batches, node).add(encode(node, segment.row));
+          postedCount++;
+        } catch (IllegalArgumentException | UnsupportedOperationException | IllegalStateException e) {
+          fail(segment, segment.row, e.getMessage());
+        }
+      }
+      if (segment.children != null)
+        resolveChildren(node, segment);
+    }
+
+    private void requestDone() {
+      if (--pendingRequests > 0)
+        return;
+      try {
+        client.sendBatches(batches);
+        future.complete(new Result(postedCount, failures));
+      } catch (RuntimeException e) {
+        future.completeExceptionally(e);
+      }
+    }
+
+    private void failAll(Segment segment, String reason) {
+      if (segment.row >= 0)
+        fail(segment, segment.row, reason);
+      for (Segment child : childrenOf(segment))
+        failAll(child, reason);
+    }
+
+    private Collection<Segment> childrenOf(Segment segment) {
+      return segment.children == null ? Collections.emptyList() : segment.children.values();
+    }
+
+    private void fail(Segment segment, int row, String reason) {
+      failures.add("line " + lines[row] + ": " + segment.getPath() + ": " + reason);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounds the number of cached child nodes, see {@link Client#setStructureCacheBudget(int)}. Nodes with polled
+ * children are kept in least recently used order, where receiving the children or finding or requesting them
+ * from the cache counts as an access of the node and its ancestors. When the budget is exceeded, the least
+ * recently used subtrees without value or structure subscriptions are returned to the unpolled state with
+ * {@link Node#invalidateCache()}, so that the next request fetches their children again. Subtrees watched by a
+ * {@link SubtreeListener} or {@link SubtreeBatchListener} of an ancestor are kept as well, as eviction is not a
+ * remote structure change and is not reported to them.
+ *
+ * Shared by the connections of a client and only used by the event loop.
+ */
+final class StructureCache {
+
+  /** Polled node to the number of children it had when they were received. */
+  private final LinkedHashMap<Node, Integer> polled = new LinkedHashMap<>(16, 0.75f, true);
+  /** Subscription check results of the candidates of one eviction round, which does not change them. */
+  private final Map<Node, Boolean> subscribedSubtrees = new IdentityHashMap<>();
+  private int budget;
+  private int size;
+  private long evictionCount;
+
+  /** @param budget Maximum number of cached child nodes, 0 for no limit. */
+  void setBudget(int budget) {
+    if (budget < 0)
+      throw new IllegalArgumentException("Budget must not be negative");
+    this.budget = budget;
+    if (budget == 0) {
+      polled.clear();
+      size = 0;
+    }
+  }
+
+  int getSize() {
+    return size;
+  }
+
+  long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /** Mark @a node and its ancestors as recently used. */
+  void touch(Node node) {
+    if (budget == 0)
+      return;
+    for (Node n = node; n != null; n = n.getParent())
+      polled.get(n);
+  }
+
+  /** Account for the children received for @a node and evict other subtrees if over budget. */
+  void childrenReceived(Node node) {
+    if (budget == 0 || node.isRoot())
+      return;
+    int count = node.getRawChildCount();
+    Integer previous = polled.put(node, count);
+    size += count - (previous == null ? 0 : previous);
+    touch(node);
+    while (size > budget) {
+      Node victim = findVictim(node);
+      if (victim == null)
+        break;
+      evict(victim);
+    }
+    subscribedSubtrees.clear();
+  }
+
+  private Node findVictim(Node keep) {
+    for (Iterator<Node> it = polled.keySet().iterator(); it.hasNext(); ) {
+      Node candidate = it.next();
+      if (!candidate.hasPolledChildren()) {  // removed or invalidated since
+        size -= polled.get(candidate);
+        it.remove();
+      } else if (!isSameOrAncestor(candidate, keep) && !isSubscribed(candidate) && !isWatched(candidate)) {
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  private void evict(Node victim) {
+    Deque<Node> stack = new ArrayDeque<>();
+    stack.push(victim);
+    while (!stack.isEmpty()) {
+      Node node = stack.pop();
+      Integer count = polled.remove(node);
+      if (count != null)
+        size -= count;
+      for (Node child : node.getMaterializedChildList())
+        stack.push(child);
+    }
+    victim.invalidateCache();
+    if (victim.getDispatch() != null)
+      victim.getDispatch().clearNodeLookups();
+    evictionCount++;
+  }
+
+  private static boolean isSameOrAncestor(Node node, Node descendant) {
+    for (Node n = descendant; n != null; n = n.getParent())
+      if (n == node)
+        return true;
+    return false;
+  }
+
+  /** Check if an ancestor of @a node has subtree listeners, which expect the subtree to stay cached. */
+  private static boolean isWatched(Node node) {
+    for (Node n = node.getParent(); n != null; n = n.getParent())
+      if (n.hasSubtreeListeners())
+        return true;
+    return false;
+  }
+
+  /**
+   * Check if @a root or a node below it has a subscription. Subtrees of candidates already checked in this
+   * eviction round are not walked again, so a round visits each cached node about once.
+   */
+  private boolean isSubscribed(Node root) {
+    Boolean known = subscribedSubtrees.get(root);
+    if (known != null)
+      return known;
+    boolean subscribed = false;
+    Deque<Node> stack = new ArrayDeque<>();
+    stack.push(root);
+    while (!stack.isEmpty() && !subscribed) {
+      Node node = stack.pop();
+      known = node != root ? subscribedSubtrees.get(node) : null;
+      if (known != null) {
+        subscribed = known;
+      } else if (node.hasValueSubscription() || node.hasStructureSubscription()) {
+        subscribed = true;
+      } else {
+        for (Node child : node.getMaterializedChildList())
+          stack.push(child);
+      }
+    }
+    subscribedSubtrees.put(root, subscribed);
+    return subscribed;
+  }
+}
@@ -0,0 +1,24 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import java.util.List;
+
+/**
+ * Callback interface for receiving the structure changes of a subtree as one change set per structure update,
+ * instead of a {@link SubtreeListener} call per added or removed node.
+ *
+ * @see Node#addSubtreeBatchListener(SubtreeBatchListener)
+ */
+public interface SubtreeBatchListener {
+
+  /**
+   * Called once per structure update of @a parent, the subscribed node or one of its descendants.
+   * @param added Children added to @a parent, in the order the server lists them.
+   * @param removed Children removed from @a parent. Their subtrees are no longer cached.
+   */
+  void subtreeChanged(Node parent, List<Node> added, List<Node> removed);
+
+}
@@ -0,0 +1,262 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Thread-safe facade of a {@link Client}. Client, Node and Request are not thread-safe and must only be used from
+ * the thread running the client's event loop ({@link Client#run()} or {@link Client#process()}). The methods of this
+ * class can instead be called from any thread: calls are queued on a lock-free queue, executed in order on the
+ * event loop thread and their result is delivered through a CompletableFuture.
+ *
+ * <pre>
+ * {@code
+ * ThreadSafeClient facade = client.threadSafe();
+ * // From any worker thread:
+ * facade.findNode("myApp.MySignal")
+ *     .thenCompose(node -> facade.postDouble(node, 4.0))
+ *     .exceptionally(e -> { e.printStackTrace(); return null; });
+ * }
+ * </pre>
+ *
+ * Note that Nodes returned by the futures must still not be accessed directly outside the event loop thread,
+ * pass them back to this facade instead. Value and subtree listeners, as well as non-async dependent actions of
+ * the futures, are called on the event loop thread and should return quickly.
+ *
+ * @see Client#threadSafe()
+ */
+public class ThreadSafeClient {
+
+  private final Client client;
+
+  ThreadSafeClient(Client client) {
+    this.client = client;
+  }
+
+  /** Get the wrapped client. */
+  public Client getClient() {
+    return client;
+  }
+
+  /**
+   * Run @a task on the event loop thread and complete the returned future with its result, or exceptionally
+   * with the exception it threw.
+   */
+  public <T> CompletableFuture<T> submit(Function<Client, T> task) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    enqueue(future, () -> future.complete(task.apply(client)));
+    return future;
+  }
+
+  /** Run @a task on the event loop thread. */
+  public CompletableFuture<Void> execute(Consumer<Client> task) {
+    return submit(c -> {
+      task.accept(c);
+      return null;
+    });
+  }
+
+  /**
+   * (asynchronous) Request node with the provided path.
+   * The future fails with NoSuchElementException if the node does not exist.
+   *
+   * @see Client#findNode(String)
+   */
+  public CompletableFuture<Node> findNode(String nodePath) {
+    return find(null, nodePath);
+  }
+
+  /**
+   * (asynchronous) Request node with the provided path relative to @a parent.
+   * The future fails with NoSuchElementException if the node does not exist.
+   *
+   * @see Node#find(String)
+   */
+  public CompletableFuture<Node> find(Node parent, String nodePath) {
+    CompletableFuture<Node> future = new CompletableFuture<>();
+    enqueue(future, () -> {
+      Request request = parent == null ? client.findNode(nodePath) : parent.find(nodePath);
+      request.then((node, status) -> completeRequest(future, node, status, nodePath));
+    });
+    return future;
+  }
+
+  /**
+   * (asynchronous) Request the child nodes of @a node. The future is completed with @a node once
+   * {@link Node#getChildCount()} and {@link Node#getCachedChild(int)} reflect the children.
+   */
+  public CompletableFuture<Node> requestChildNodes(Node node) {
+    CompletableFuture<Node> future = new CompletableFuture<>();
+    enqueue(future, () -> {
+      node.checkConnected();
+      node.requestChildNodes().then((n, status) -> completeRequest(future, n, status, node.getLongName()));
+    });
+    return future;
+  }
+
+  /** (asynchronous) Request a single value of @a node. */
+  public CompletableFuture<Variant> requestValue(Node node) {
+    CompletableFuture<Variant> future = new CompletableFuture<>();
+    enqueue(future, () -> {
+      node.checkConnected();
+      node.requestValue(value -> future.complete(value.copy()));
+    });
+    return future;
+  }
+
+  /** @see Node#subscribeToValueChanges(ValueListener, double) */
+  public CompletableFuture<Void> subscribeToValueChanges(Node node, ValueListener listener, double fs) {
+    return execute(c -> node.subscribeToValueChanges(listener, fs));
+  }
+
+  /** @see Node#removeValueListener(ValueListener) */
+  public CompletableFuture<Void> removeValueListener(Node node, ValueListener listener) {
+    return execute(c -> node.removeValueListener(listener));
+  }
+
+  /** @see Node#subscribeToDoubleValues(DoubleValueListener, double) */
+  public CompletableFuture<Void> subscribeToDoubleValues(Node node, DoubleValueListener listener, double fs) {
+    return execute(c -> node.subscribeToDoubleValues(listener, fs));
+  }
+
+  /** @see Node#removeDoubleValueListener(DoubleValueListener) */
+  public CompletableFuture<Void> removeDoubleValueListener(Node node, DoubleValueListener listener) {
+    return execute(c -> node.removeDoubleValueListener(listener));
+  }
+
+  /** @see Node#addSubtreeListener(SubtreeListener) */
+  public CompletableFuture<Void> addSubtreeListener(Node node, SubtreeListener listener) {
+    return execute(c -> node.addSubtreeListener(listener));
+  }
+
+  /** @see Node#removeSubtreeListener(SubtreeListener) */
+  public CompletableFuture<Void> removeSubtreeListener(Node node, SubtreeListener listener) {
+    return execute(c -> node.removeSubtreeListener(listener));
+  }
+
+  /** @see Node#addSubtreeBatchListener(SubtreeBatchListener) */
+  public CompletableFuture<Void> addSubtreeBatchListener(Node node, SubtreeBatchListener listener) {
+    return execute(c -> node.addSubtreeBatchListener(listener));
+  }
+
+  /** @see Node#removeSubtreeBatchListener(SubtreeBatchListener) */
+  public CompletableFuture<Void> removeSubtreeBatchListener(Node node, SubtreeBatchListener listener) {
+    return execute(c -> node.removeSubtreeBatchListener(listener));
+  }
+
+  /**
+   * (asynchronous) Set the remote value of @a node. The future completes once the request is sent and
+   * fails if the value type does not match.
+   *
+   * @see Node#postValue(Variant)
+   */
+  public CompletableFuture<Void> postValue(Node node, Variant value) {
+    return execute(c -> node.postValue(value));
+  }
+
+  /** @see Node#postDouble(double) */
+  public CompletableFuture<Void> postDouble(Node node, double value) {
+    return execute(c -> node.postDouble(value));
+  }
+
+  /** @see Node#postLong(long) */
+  public CompletableFuture<Void> postLong(Node node, long value) {
+    return execute(c -> node.postLong(value));
+  }
+
+  /** @see Node#postBoolean(boolean) */
+  public CompletableFuture<Void> postBoolean(Node node, boolean value) {
+    return execute(c -> node.postBoolean(value));
+  }
+
+  /** @see Client#postValues(Map) */
+  public CompletableFuture<Void> postValues(Map<Node, Variant> values) {
+    return execute(c -> c.postValues(values));
+  }
+
+  /** @see Client#getHottestNodes(int) */
+  public CompletableFuture<List<NodeTraffic>> getHottestNodes(int count) {
+    return submit(c -> c.getHottestNodes(count));
+  }
+
+  /** Close the client. */
+  public CompletableFuture<Void> close() {
+    return execute(Client::close);
+  }
+
+  /**
+   * Wait for @a future on a thread other than the event loop thread and return its result. A null @a timeout
+   * waits indefinitely. Exceptions the future failed with are rethrown as is when unchecked.
+   */
+  <T> T await(CompletableFuture<T> future, Duration timeout) throws InterruptedException, TimeoutException {
+    try {
+      if (timeout == null)
+        return future.get();
+      return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException)
+        throw (RuntimeException) e.getCause();
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /** Fail fast instead of deadlocking when a blocking call is made from the event loop thread. */
+  void checkNotEventLoopThread() {
+    if (client.isEventLoopThread())
+      throw new IllegalStateException("Blocking call from the event loop thread would never complete, "
+          + "use the asynchronous API instead");
+  }
+
+  private void enqueue(CompletableFuture<?> future, Runnable command) {
+    if (client.isClosed()) {
+      future.completeExceptionally(new IllegalStateException("Client is closed"));
+      return;
+    }
+    client.invokeLater(new Command(future, command));
+    if (client.isClosed())
+      client.rejectQueuedCommands();  // closed while queuing, the event loop may no longer run it
+  }
+
+  /** A queued call, failing its future with anything the call throws, or when the client is closed first. */
+  static final class Command implements Runnable {
+    private final CompletableFuture<?> future;
+    private final Runnable command;
+
+    Command(CompletableFuture<?> future, Runnable command) {
+      this.future = future;
+      this.command = command;
+    }
+
+    @Override
+    public void run() {
+      try {
+        command.run();
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      }
+    }
+
+    void reject() {
+      future.completeExceptionally(new IllegalStateException("Client is closed"));
+    }
+  }
+
+  private static void completeRequest(CompletableFuture<Node> future, Node node, Request.Status status, String path) {
+    if (status == Request.Status.RESOLVED)
+      future.complete(node);
+    else
+      future.completeExceptionally(new NoSuchElementException("Node not found: " + path));
+  }
+}
@@ -4,13 +4,31 @@
 
 package com.cdptech.cdpclient;
 
-import java.time.Instant;
 import java.util.ArrayList;
-
+import java.util.function.LongSupplier;
+
+/**
+ * Estimates the difference between the local and the server clock, which is added to received timestamps.
+ *
+ * Each measurement round takes a few samples and keeps the one with the lowest round trip time, as it was
+ * delayed least by queuing. The rounds of a sliding window are fitted with a weighted linear regression of the
+ * delta over local time, weighted by the inverse square round trip time, which gives both the offset and the
+ * drift of the server clock. The delta is evaluated from this model after every received frame, so timestamps
+ * follow the drift continuously. Rounds are taken more seldom while they match the model and more often when
+ * they do not. A delta that jumps by more than {@link #STEP_THRESHOLD_NS} is taken as a clock step and restarts
+ * the model.
+ */
 class TimeSync {
   private static final int SAMPLE_COUNT = 3;
-  private static final double DELTA_REFRESH_RATE_NS = 10e9;
-  private static final double DELTA_CHANGE_THRESHOLD_NS = 20e6;
+  private static final int WINDOW_SIZE = 8;
+  private static final long MIN_REFRESH_PERIOD_NS = 2_000_000_000L;
+  private static final long INITIAL_REFRESH_PERIOD_NS = 10_000_000_000L;
+  private static final long MAX_REFRESH_PERIOD_NS = 60_000_000_000L;
+  private static final double STEP_THRESHOLD_NS = 20e6;
+  /** Drift limit of the model, well above the tolerance of the oscillator of any real clock. */
+  private static final double MAX_DRIFT = 500e-6;
+  /** Added to the round trip time of the regression weights, so that loopback samples do not dominate. */
+  private static final double MIN_WEIGHT_RTT_NS = 10e3;
 
   static class Sample {
     long packetSentTimeNs;
@@ -28,27 +46,58 @@ class TimeSync {
   }
 
   private ArrayList<Sample> samples = new ArrayList<>();
+  private final long[] windowTimeNs = new long[WINDOW_SIZE];
+  private final long[] windowDeltaNs = new long[WINDOW_SIZE];
+  private final long[] windowRoundTripNs = new long[WINDOW_SIZE];
+  private int windowCount;
+  private int windowNext;
+  /** Model: delta(t) = referenceDeltaNs + offsetNs + drift * (t - referenceTimeNs). */
+  private long referenceTimeNs;
+  private long referenceDeltaNs;
+  private double offsetNs;
+  private double drift;
+  private long errorBoundNs = -1;
+  private long refreshPeriodNs = INITIAL_REFRESH_PERIOD_NS;
   private long lastRefreshTimeNs;
   private long deltaNs;
   private Runnable requestSampleFunction;
+  private final LongSupplier clock;
   private boolean enabled = true;
 
   TimeSync(Runnable requestSampleFunction) {
+    this(requestSampleFunction, WallClock::epochNanos);
+  }
+
+  /** @param clock Local time in epoch nanoseconds. */
+  TimeSync(Runnable requestSampleFunction, LongSupplier clock) {
     this.requestSampleFunction = requestSampleFunction;
+    this.clock = clock;
   }
 
   void setEnabled(boolean enabled) {
     this.enabled = enabled;
   }
 
+  /** Update the delta from the clock model and start a measurement round when it is due. */
   void refreshDeltaIfNeeded() {
     long now = getCurrentNanoTime();
-    if (enabled && now - lastRefreshTimeNs > DELTA_REFRESH_RATE_NS) {
+    if (windowCount > 0)
+      deltaNs = evaluate(now);
+    if (enabled && now - lastRefreshTimeNs > refreshPeriodNs) {
       lastRefreshTimeNs = now;
       requestNewSample();
     }
   }
 
+  /** Start measuring a new delta now instead of waiting for the refresh period. */
+  void forceRefresh() {
+    if (!enabled)
+      return;
+    samples.clear();
+    lastRefreshTimeNs = getCurrentNanoTime();
+    requestNewSample();
+  }
+
   void responseReceived(long timeNs) {
     if (samples.isEmpty()) {
       requestNewSample();
@@ -77,22 +126,99 @@ class TimeSync {
         best = samples.get(i);
 
     samples.clear();
-    if (deltaNs == 0 || isChangeOverThreshold(best)) {
-      deltaNs = best.getDelta();
+    addToModel(best.packetReceivedTimeNs, best.getDelta(), best.getRoundTripTime());
+    deltaNs = evaluate(best.packetReceivedTimeNs);
+  }
+
+  /** Add a measured delta to the window, adapt the refresh period to how well it was predicted and refit. */
+  private void addToModel(long timeNs, long delta, long roundTripNs) {
+    if (windowCount > 0) {
+      double residual = Math.abs(delta - (double) evaluate(timeNs));
+      if (residual > STEP_THRESHOLD_NS) {
+        windowCount = 0;
+        refreshPeriodNs = MIN_REFRESH_PERIOD_NS;
+      } else if (windowCount > 1 && residual <= Math.max(roundTripNs / 2, errorBoundNs)) {
+        refreshPeriodNs = Math.min(refreshPeriodNs * 2, MAX_REFRESH_PERIOD_NS);
+      } else {
+        refreshPeriodNs = Math.max(refreshPeriodNs / 2, MIN_REFRESH_PERIOD_NS);
+      }
     }
+    if (windowCount == 0) {
+      windowNext = 0;
+      referenceTimeNs = timeNs;
+      referenceDeltaNs = delta;
+    }
+    windowTimeNs[windowNext] = timeNs;
+    windowDeltaNs[windowNext] = delta;
+    windowRoundTripNs[windowNext] = roundTripNs;
+    windowNext = (windowNext + 1) % WINDOW_SIZE;
+    windowCount = Math.min(windowCount + 1, WINDOW_SIZE);
+    fit();
+  }
+
+  /** Weighted least squares fit of the window, relative to the reference point to keep the doubles exact. */
+  private void fit() {
+    double sumW = 0, sumX = 0, sumY = 0;
+    long minRoundTripNs = Long.MAX_VALUE;
+    for (int i = 0; i < windowCount; i++) {
+      double w = weight(i);
+      sumW += w;
+      sumX += w * (windowTimeNs[i] - referenceTimeNs);
+      sumY += w * (windowDeltaNs[i] - referenceDeltaNs);
+      minRoundTripNs = Math.min(minRoundTripNs, windowRoundTripNs[i]);
+    }
+    double meanX = sumX / sumW;
+    double meanY = sumY / sumW;
+    double sxx = 0, sxy = 0;
+    for (int i = 0; i < windowCount; i++) {
+      double dx = windowTimeNs[i] - referenceTimeNs - meanX;
+      sxx += weight(i) * dx * dx;
+      sxy += weight(i) * dx * (windowDeltaNs[i] - referenceDeltaNs - meanY);
+    }
+    drift = sxx > 0 ? Math.max(-MAX_DRIFT, Math.min(MAX_DRIFT, sxy / sxx)) : 0;
+    offsetNs = meanY - drift * meanX;
+
+    double sumSquares = 0;
+    for (int i = 0; i < windowCount; i++) {
+      double residual = windowDeltaNs[i] - (double) evaluate(windowTimeNs[i]);
+      sumSquares += weight(i) * residual * residual;
+    }
+    errorBoundNs = minRoundTripNs / 2 + (long) Math.sqrt(sumSquares / sumW);
+  }
+
+  private double weight(int i) {
+    double rtt = windowRoundTripNs[i] + MIN_WEIGHT_RTT_NS;
+    return 1 / (rtt * rtt);
+  }
+
+  private long evaluate(long timeNs) {
+    return referenceDeltaNs + Math.round(offsetNs + drift * (timeNs - referenceTimeNs));
   }
 
   long getDeltaNs() {
     return enabled ? deltaNs : 0;
   }
 
-  private boolean isChangeOverThreshold(Sample bestSample) {
-    return Math.abs(deltaNs - bestSample.getDelta()) > DELTA_CHANGE_THRESHOLD_NS;
+  /**
+   * Get the estimated error of the delta: half the lowest round trip time in the window, which bounds the
+   * error of an asymmetric network path, plus the weighted RMS residual of the fit. -1 if not measured.
+   */
+  long getErrorBoundNs() {
+    return enabled ? errorBoundNs : -1;
+  }
+
+  /** Get the rate at which the server clock runs ahead of the local clock, in parts per million. */
+  double getDriftPpm() {
+    return enabled ? -drift * 1e6 : 0;
+  }
+
+  /** Get the current period between measurement rounds. */
+  long getRefreshPeriodNs() {
+    return refreshPeriodNs;
   }
 
   private long getCurrentNanoTime() {
-    Instant i = Instant.now();
-    return i.getEpochSecond() * (long) 1e9 + i.getNano();
+    return clock.getAsLong();
   }
 
 }
@@ -0,0 +1,107 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes every raw frame sent or received by the client's connections to a capture file, for reproducing
+ * issues offline with {@link TrafficReplay}. Called from both the WebSocket threads and the event loop.
+ *
+ * File format (big endian, varints are unsigned LEB128 as in protobuf):
+ * <pre>
+ * header:  int magic "CDPC", int version, long capture start time in epoch nanoseconds
+ * records: byte type, then
+ *   URI_DEFINITION: varint uri id, UTF uri (DataOutput.writeUTF)
+ *   INBOUND/OUTBOUND: varint uri id, varint nanoseconds since the previous record, varint length, frame bytes
+ * </pre>
+ */
+class TrafficCapture implements Closeable {
+
+  static final int MAGIC = 0x43445043;
+  static final int VERSION = 1;
+  static final byte URI_DEFINITION = 0;
+  static final byte INBOUND = 1;
+  static final byte OUTBOUND = 2;
+
+  private final DataOutputStream out;
+  private final Map<URI, Integer> uriIds = new HashMap<>();
+  private long lastRecordNanoTime;
+  private boolean closed;
+
+  TrafficCapture(File file) throws IOException {
+    out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeLong(WallClock.epochNanos());
+    lastRecordNanoTime = System.nanoTime();
+  }
+
+  void frameReceived(URI uri, byte[] frame) {
+    write(INBOUND, uri, frame);
+  }
+
+  void frameSent(URI uri, byte[] frame) {
+    write(OUTBOUND, uri, frame);
+  }
+
+  private synchronized void write(byte type, URI uri, byte[] frame) {
+    if (closed)
+      return;
+    try {
+      int uriId = getUriId(uri);
+      long now = System.nanoTime();
+      out.writeByte(type);
+      writeVarint(uriId);
+      writeVarint(Math.max(now - lastRecordNanoTime, 0));
+      writeVarint(frame.length);
+      out.write(frame);
+      lastRecordNanoTime = now;
+    } catch (IOException e) {
+      System.err.println("Traffic capture stopped, failed to write: " + e.getMessage());
+      close();
+    }
+  }
+
+  private int getUriId(URI uri) throws IOException {
+    Integer id = uriIds.get(uri);
+    if (id == null) {
+      id = uriIds.size();
+      uriIds.put(uri, id);
+      out.writeByte(URI_DEFINITION);
+      writeVarint(id);
+      out.writeUTF(uri.toString());
+    }
+    return id;
+  }
+
+  private void writeVarint(long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  @Override
+  public synchronized void close() {
+    if (closed)
+      return;
+    closed = true;
+    try {
+      out.close();
+    } catch (IOException e) {
+      System.err.println("Failed to close traffic capture: " + e.getMessage());
+    }
+  }
+}
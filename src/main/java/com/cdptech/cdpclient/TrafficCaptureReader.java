@@ -0,0 +1,96 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Reads the frames of a file written by {@link TrafficCapture}. */
+class TrafficCaptureReader implements Closeable {
+
+  static class Frame {
+    final URI uri;
+    final boolean inbound;
+    /** Nanoseconds since the start of the capture */
+    final long timeNs;
+    final byte[] data;
+
+    Frame(URI uri, boolean inbound, long timeNs, byte[] data) {
+      this.uri = uri;
+      this.inbound = inbound;
+      this.timeNs = timeNs;
+      this.data = data;
+    }
+  }
+
+  private final DataInputStream in;
+  private final Map<Integer, URI> uris = new HashMap<>();
+  private final long startEpochNs;
+  private long timeNs;
+
+  TrafficCaptureReader(File file) throws IOException {
+    in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+    if (in.readInt() != TrafficCapture.MAGIC)
+      throw new IOException(file + " is not a traffic capture");
+    int version = in.readInt();
+    if (version != TrafficCapture.VERSION)
+      throw new IOException("Unsupported traffic capture version " + version);
+    startEpochNs = in.readLong();
+  }
+
+  /** Get the wall clock time the capture was started at, in epoch nanoseconds. */
+  long getStartEpochNs() {
+    return startEpochNs;
+  }
+
+  /** Read the next frame, null at the end of the file. */
+  Frame next() throws IOException {
+    while (true) {
+      int type = in.read();
+      if (type == -1)
+        return null;
+      if (type == TrafficCapture.URI_DEFINITION) {
+        int id = (int) readVarint();
+        uris.put(id, URI.create(in.readUTF()));
+      } else if (type == TrafficCapture.INBOUND || type == TrafficCapture.OUTBOUND) {
+        URI uri = uris.get((int) readVarint());
+        if (uri == null)
+          throw new IOException("Frame of undefined connection");
+        timeNs += readVarint();
+        byte[] data = new byte[(int) readVarint()];
+        in.readFully(data);
+        return new Frame(uri, type == TrafficCapture.INBOUND, timeNs, data);
+      } else {
+        throw new IOException("Unknown record type " + type);
+      }
+    }
+  }
+
+  private long readVarint() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.read();
+      if (b == -1)
+        throw new EOFException();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0)
+        return value;
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Replays a capture written with {@link Client#startCapture(File)} into a client without a network, to
+ * reproduce issues deterministically. The received frames are fed through the same parsing and request
+ * dispatch as live traffic, while frames the client sends are discarded. Connections are matched to the
+ * captured ones by host and port.
+ *
+ * <pre>
+ * {@code
+ * TrafficReplay replay = new TrafficReplay(new File("session.cap")).setSpeed(TrafficReplay.AS_FAST_AS_POSSIBLE);
+ * replay.getClient().setValueRateTracking(true);
+ * replay.run(listener);
+ * System.out.println(replay.getClient().getHottestNodes(10));
+ * }
+ * </pre>
+ *
+ * The client is driven by the thread calling {@link #run}, so it must not be run by another event loop.
+ */
+public class TrafficReplay {
+
+  /** Speed factor to replay the frames at their original pace. */
+  public static final double ORIGINAL_SPEED = 1;
+  /** Speed factor to replay the frames without waiting between them. */
+  public static final double AS_FAST_AS_POSSIBLE = 0;
+
+  private final File file;
+  private final Client client = new Client();
+  private final Map<String, ReplayTransport> transports = new HashMap<>();
+  private final Map<String, Queue<byte[]>> undelivered = new HashMap<>();
+  private double speed = ORIGINAL_SPEED;
+  private long framesReplayed;
+
+  /** Create a replay of the capture in @a file. */
+  public TrafficReplay(File file) {
+    this.file = file;
+    client.setAutoReconnect(false);
+    client.setTransportFactory(this::createTransport);
+  }
+
+  /**
+   * Set the replay speed relative to the capture, e.g. 2 replays twice as fast. {@link #AS_FAST_AS_POSSIBLE}
+   * feeds the frames back to back, default is {@link #ORIGINAL_SPEED}.
+   */
+  public TrafficReplay setSpeed(double factor) {
+    if (factor < 0 || Double.isNaN(factor))
+      throw new IllegalArgumentException("Replay speed must be positive");
+    speed = Double.isInfinite(factor) ? AS_FAST_AS_POSSIBLE : factor;
+    return this;
+  }
+
+  /** Get the client the capture is replayed into, e.g. to configure it before {@link #run}. */
+  public Client getClient() {
+    return client;
+  }
+
+  /** Get the number of received frames replayed so far. */
+  public long getFramesReplayed() {
+    return framesReplayed;
+  }
+
+  /**
+   * Replay the whole capture, notifying @a listener like a live client would. Authentication requests are
+   * answered with empty credentials as the captured server responses decide the outcome. Returns when all
+   * frames are replayed, leaving the client and its node tree open for inspection until it is closed.
+   *
+   * @throws IOException if the capture can not be read.
+   */
+  public void run(NotificationListener listener) throws IOException {
+    try (TrafficCaptureReader reader = new TrafficCaptureReader(file)) {
+      TrafficCaptureReader.Frame frame = reader.next();
+      while (frame != null && !frame.inbound)
+        frame = reader.next();
+      if (frame == null)
+        return;
+      client.init(frame.uri.getHost(), frame.uri.getPort(), new ReplayListener(listener));
+      long startNs = System.nanoTime();
+      for (; frame != null; frame = reader.next()) {
+        if (!frame.inbound)
+          continue;
+        if (speed != AS_FAST_AS_POSSIBLE)
+          processUntil(startNs + (long) (frame.timeNs / speed));
+        deliver(key(frame.uri), frame.data);
+        client.process();
+      }
+      client.process();
+    }
+  }
+
+  private void processUntil(long deadlineNs) {
+    long remaining;
+    while ((remaining = deadlineNs - System.nanoTime()) > 0) {
+      client.process();
+      LockSupport.parkNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(1)));
+    }
+  }
+
+  private void deliver(String key, byte[] data) {
+    ReplayTransport transport = transports.get(key);
+    if (transport == null) {
+      undelivered.computeIfAbsent(key, k -> new ArrayDeque<>()).add(data);
+      return;
+    }
+    transport.onMessage(ByteBuffer.wrap(data));
+    framesReplayed++;
+  }
+
+  private Transport createTransport(URI serverURI, BlockingQueue<byte[]> queue, Consumer<Exception> onError) {
+    ReplayTransport transport = new ReplayTransport(serverURI, queue, onError);
+    String key = key(serverURI);
+    transports.put(key, transport);
+    Queue<byte[]> pending = undelivered.remove(key);
+    if (pending != null)
+      for (byte[] data : pending)
+        deliver(key, data);
+    return transport;
+  }
+
+  private static String key(URI uri) {
+    return uri.getHost() + ":" + uri.getPort();
+  }
+
+  /** A transport that is connected without a socket and discards everything sent. */
+  private static class ReplayTransport extends Transport {
+
+    ReplayTransport(URI serverURI, BlockingQueue<byte[]> queue, Consumer<Exception> onError) {
+      super(serverURI, queue, onError);
+    }
+
+    @Override
+    public void connect() {
+      onOpen(null);
+    }
+
+    @Override
+    public void send(byte[] data) {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  /** Answers credential requests so the captured authentication responses can be replayed. */
+  private static class ReplayListener implements NotificationListener {
+    private final NotificationListener listener;
+
+    ReplayListener(NotificationListener listener) {
+      this.listener = listener;
+    }
+
+    @Override
+    public void clientReady(Client client) {
+      listener.clientReady(client);
+    }
+
+    @Override
+    public void clientClosed(Client client) {
+      listener.clientClosed(client);
+    }
+
+    @Override
+    public void connectionError(URI serverURI, Exception e) {
+      listener.connectionError(serverURI, e);
+    }
+
+    @Override
+    public void credentialsRequested(AuthRequest request) {
+      request.accept(AuthResponse.password("", ""));
+    }
+
+    @Override
+    public void applicationAcceptanceRequested(AuthRequest request) {
+      listener.applicationAcceptanceRequested(request);
+    }
+
+    @Override
+    public void handshakeAcceptanceRequested(AuthRequest request) {
+      listener.handshakeAcceptanceRequested(request);
+    }
+  }
+}
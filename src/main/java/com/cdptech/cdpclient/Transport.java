@@ -18,6 +18,11 @@ import java.util.function.Consumer;
  */
 class Transport extends org.java_websocket.client.WebSocketClient {
 
+  /** Creates the transport of a connection, replaced when replaying a capture. */
+  interface Factory {
+    Transport create(URI serverURI, BlockingQueue<byte[]> queue, Consumer<Exception> onError);
+  }
+
   enum State {
     IDLE,
     CONNECTED,
@@ -25,15 +30,20 @@ class Transport extends org.java_websocket.client.WebSocketClient {
   }
 
   private URI serverURI;
+  private String uriName;
+  private long receivedFrameSequence;
   private BlockingQueue<byte[]> queue;
   private State state;
   private Consumer<Exception> onError;
   private BiConsumer<URI, SSLParameters> socketParameterHandler;
+  private ConnectionCounters counters = new ConnectionCounters();
+  private volatile TrafficCapture capture;
 
   /** Create a transport with an URI and received data queue. */
   Transport(URI serverURI, BlockingQueue<byte[]> queue, Consumer<Exception> onError) {
     super(serverURI);
     this.serverURI = serverURI;
+    this.uriName = serverURI.toString();
     this.queue = queue;
     this.state = State.IDLE;
     this.onError = onError;
@@ -43,6 +53,14 @@ class Transport extends org.java_websocket.client.WebSocketClient {
     this.socketParameterHandler = socketParameterHandler;
   }
   
+  void setCounters(ConnectionCounters counters) {
+    this.counters = counters;
+  }
+
+  void setCapture(TrafficCapture capture) {
+    this.capture = capture;
+  }
+
   /** Check if the socket is disconnected or failed. */
   State getState() {
     return state;
@@ -67,7 +85,22 @@ class Transport extends org.java_websocket.client.WebSocketClient {
   
   @Override
   public void onMessage(ByteBuffer buf) {
-    queue.add(buf.array().clone()); // TODO is clone neccessary? costly even?
+    byte[] data = buf.array().clone(); // TODO is clone neccessary? costly even?
+    TrafficCapture capture = this.capture;
+    if (capture != null)
+      capture.frameReceived(serverURI, data);
+    queue.add(data);
+    counters.frameReceived(data.length);
+    FlightRecorderEvents.frameReceived(uriName, ++receivedFrameSequence, data.length, queue);
+  }
+
+  @Override
+  public void send(byte[] data) {
+    TrafficCapture capture = this.capture;
+    if (capture != null)
+      capture.frameSent(serverURI, data);
+    super.send(data);
+    counters.frameSent(data.length);
   }
   
   /** Unused but needs to be defined for java-websocket. */
@@ -0,0 +1,223 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import com.cdptech.cdpclient.proto.StudioAPI.CDPValueType;
+import com.cdptech.cdpclient.proto.StudioAPI.Container;
+import com.google.protobuf.WireFormat;
+
+/**
+ * Decodes eGetterResponse containers of primitive values straight from the received bytes, without creating
+ * protobuf messages, Variants or boxed values. Values are passed on as a raw long bit pattern interpreted by
+ * the value type, as in {@link ValueEncoder}: IEEE 754 bits for eDOUBLE and eFLOAT, the integer value for
+ * integer types (unsigned 32- and 64-bit values may use the sign bit as top bit) and 0 or 1 for eBOOL.
+ *
+ * Containers holding anything else, e.g. string values, are left to the generated protobuf parser.
+ * An instance is reused for every frame of a connection and must only be used by the event loop.
+ */
+final class ValueDecoder {
+
+  /** Receives the values of a decoded getter response. */
+  interface Sink {
+    /**
+     * @param timestamp Server time of the value in nanoseconds, {@link Variant#NO_TIMESTAMP} if the value has
+     *        no timestamp. A present timestamp may be 0.
+     * @param encodedSize Size of the value in the container in bytes.
+     */
+    void valueDecoded(int nodeId, CDPValueType type, long bits, long timestamp, int encodedSize);
+  }
+
+  private static final int MESSAGE_TYPE_FIELD = Container.MESSAGE_TYPE_FIELD_NUMBER;
+  private static final int GETTER_RESPONSE_FIELD = Container.GETTER_RESPONSE_FIELD_NUMBER;
+  private static final int NODE_ID_FIELD = StudioAPI.VariantValue.NODE_ID_FIELD_NUMBER;
+  private static final int TIMESTAMP_FIELD = StudioAPI.VariantValue.TIMESTAMP_FIELD_NUMBER;
+  private static final CDPValueType[] TYPE_BY_FIELD = new CDPValueType[TIMESTAMP_FIELD];
+  static {
+    TYPE_BY_FIELD[StudioAPI.VariantValue.D_VALUE_FIELD_NUMBER] = CDPValueType.eDOUBLE;
+    TYPE_BY_FIELD[StudioAPI.VariantValue.F_VALUE_FIELD_NUMBER] = CDPValueType.eFLOAT;
+    TYPE_BY_FIELD[StudioAPI.VariantValue.UI64_VALUE_FIELD_NUMBER] = CDPValueType.eUINT64;
+    TYPE_BY_FIELD[StudioAPI.VariantValue.I64_VALUE_FIELD_NUMBER] = CDPValueType.eINT64;
+    TYPE_BY_FIELD[StudioAPI.VariantValue.UI_VALUE_FIELD_NUMBER] = CDPValueType.eUINT;
+    TYPE_BY_FIELD[StudioAPI.VariantValue.I_VALUE_FIELD_NUMBER] = CDPValueType.eINT;
+    TYPE_BY_FIELD[StudioAPI.VariantValue.US_VALUE_FIELD_NUMBER] = CDPValueType.eUSHORT;
+    TYPE_BY_FIELD[StudioAPI.VariantValue.S_VALUE_FIELD_NUMBER] = CDPValueType.eSHORT;
+    TYPE_BY_FIELD[StudioAPI.VariantValue.UC_VALUE_FIELD_NUMBER] = CDPValueType.eUCHAR;
+    TYPE_BY_FIELD[StudioAPI.VariantValue.C_VALUE_FIELD_NUMBER] = CDPValueType.eCHAR;
+    TYPE_BY_FIELD[StudioAPI.VariantValue.B_VALUE_FIELD_NUMBER] = CDPValueType.eBOOL;
+  }
+
+  private byte[] buf;
+  private int pos;
+
+  /**
+   * Check if @a frame is an eGetterResponse container with exactly one primitive value in each VariantValue
+   * and nothing else. Returns the number of values if so, -1 otherwise, including for malformed frames.
+   */
+  int countPrimitiveValues(byte[] frame) {
+    buf = frame;
+    pos = 0;
+    int count = 0;
+    boolean isGetterResponse = false;
+    try {
+      while (pos < buf.length) {
+        int tag = (int) readVarint();
+        int field = WireFormat.getTagFieldNumber(tag);
+        int wireType = WireFormat.getTagWireType(tag);
+        if (field == MESSAGE_TYPE_FIELD && wireType == WireFormat.WIRETYPE_VARINT) {
+          isGetterResponse = readVarint() == Container.Type.eGetterResponse_VALUE;
+        } else if (field == GETTER_RESPONSE_FIELD && wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+          int length = (int) readVarint();
+          int end = pos + length;
+          if (length < 0 || end > buf.length || !isPrimitiveValue(end))
+            return -1;
+          count++;
+        } else {
+          return -1;
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException e) {
+      return -1;
+    }
+    return isGetterResponse ? count : -1;
+  }
+
+  private boolean isPrimitiveValue(int end) {
+    int valueCount = 0;
+    while (pos < end) {
+      int tag = (int) readVarint();
+      int field = WireFormat.getTagFieldNumber(tag);
+      int wireType = WireFormat.getTagWireType(tag);
+      if (field == NODE_ID_FIELD || field == TIMESTAMP_FIELD) {
+        if (wireType != WireFormat.WIRETYPE_VARINT)
+          return false;
+        readVarint();
+      } else if (field > 0 && field < TYPE_BY_FIELD.length && TYPE_BY_FIELD[field] != null) {
+        if (wireType != wireTypeOf(TYPE_BY_FIELD[field]))
+          return false;
+        skipValue(wireType);
+        valueCount++;
+      } else {
+        return false;
+      }
+    }
+    return pos == end && valueCount == 1;
+  }
+
+  /** Decode a frame accepted by {@link #countPrimitiveValues(byte[])} into @a sink. */
+  void decode(byte[] frame, Sink sink) {
+    buf = frame;
+    pos = 0;
+    while (pos < buf.length) {
+      int field = WireFormat.getTagFieldNumber((int) readVarint());
+      if (field == MESSAGE_TYPE_FIELD) {
+        readVarint();
+        continue;
+      }
+      int length = (int) readVarint();
+      int end = pos + length;
+      int nodeId = 0;
+      long timestamp = Variant.NO_TIMESTAMP;
+      long bits = 0;
+      CDPValueType type = CDPValueType.eUNDEFINED;
+      while (pos < end) {
+        int valueField = WireFormat.getTagFieldNumber((int) readVarint());
+        if (valueField == NODE_ID_FIELD) {
+          nodeId = (int) readVarint();
+        } else if (valueField == TIMESTAMP_FIELD) {
+          timestamp = readVarint();
+        } else {
+          type = TYPE_BY_FIELD[valueField];
+          bits = readValue(type);
+        }
+      }
+      sink.valueDecoded(nodeId, type, bits, timestamp, length);
+    }
+  }
+
+  private long readValue(CDPValueType type) {
+    switch (type) {
+    case eDOUBLE:
+      return readFixed64();
+    case eFLOAT:
+      return (int) readFixed32();
+    case eINT64:
+      long n = readVarint();
+      return (n >>> 1) ^ -(n & 1);
+    case eINT:
+    case eSHORT:
+    case eCHAR:
+      int i = (int) readVarint();
+      return (i >>> 1) ^ -(i & 1);
+    case eUINT:
+    case eUSHORT:
+    case eUCHAR:
+      return (int) readVarint();
+    case eBOOL:
+      return readVarint() != 0 ? 1 : 0;
+    default:
+      return readVarint();
+    }
+  }
+
+  private static int wireTypeOf(CDPValueType type) {
+    switch (type) {
+    case eDOUBLE:
+      return WireFormat.WIRETYPE_FIXED64;
+    case eFLOAT:
+      return WireFormat.WIRETYPE_FIXED32;
+    default:
+      return WireFormat.WIRETYPE_VARINT;
+    }
+  }
+
+  private void skipValue(int wireType) {
+    if (wireType == WireFormat.WIRETYPE_FIXED64)
+      pos += 8;
+    else if (wireType == WireFormat.WIRETYPE_FIXED32)
+      pos += 4;
+    else
+      readVarint();
+  }
+
+  private long readVarint() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = buf[pos++];
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0)
+        return value;
+    }
+    throw new ArrayIndexOutOfBoundsException("Malformed varint");
+  }
+
+  private long readFixed32() {
+    long value = (buf[pos] & 0xFFL) | (buf[pos + 1] & 0xFFL) << 8 | (buf[pos + 2] & 0xFFL) << 16
+        | (buf[pos + 3] & 0xFFL) << 24;
+    pos += 4;
+    return value;
+  }
+
+  private long readFixed64() {
+    long low = readFixed32();
+    return low | readFixed32() << 32;
+  }
+
+  /** Convert a raw value of @a type to a double, e.g. for a {@link DoubleValueListener}. */
+  static double toDouble(CDPValueType type, long bits) {
+    switch (type) {
+    case eDOUBLE:
+      return Double.longBitsToDouble(bits);
+    case eFLOAT:
+      return Float.intBitsToFloat((int) bits);
+    case eUINT64:
+      return bits >= 0 ? bits : ((bits >>> 1) | (bits & 1)) * 2.0;
+    case eUINT:
+      return bits & 0xFFFFFFFFL;
+    default:
+      return bits;
+    }
+  }
+}
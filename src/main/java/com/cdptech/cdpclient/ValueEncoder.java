@@ -0,0 +1,250 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import com.cdptech.cdpclient.proto.StudioAPI.CDPValueType;
+import com.cdptech.cdpclient.proto.StudioAPI.Container;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+
+/**
+ * Encodes primitive node values for setter requests without boxing.
+ *
+ * Values are passed around as a raw long bit pattern interpreted by the node's value type:
+ * IEEE 754 bits for eDOUBLE and eFLOAT, the integer value for integer types (unsigned 32- and 64-bit
+ * values may use the sign bit as top bit) and 0 or 1 for eBOOL.
+ */
+final class ValueEncoder {
+
+  private static final int NODE_ID_FIELD = StudioAPI.VariantValue.NODE_ID_FIELD_NUMBER;
+  private static final int MESSAGE_TYPE_FIELD = Container.MESSAGE_TYPE_FIELD_NUMBER;
+  private static final int SETTER_REQUEST_FIELD = Container.SETTER_REQUEST_FIELD_NUMBER;
+
+  private ValueEncoder() {
+  }
+
+  /**
+   * Convert @a value to the value type of @a node.
+   * @throws IllegalArgumentException if the node has an integer type and @a value is not a whole number in its range.
+   * @throws UnsupportedOperationException if the node value type is not numeric or boolean.
+   */
+  static long fromDouble(Node node, double value) {
+    switch (node.getValueType()) {
+    case eDOUBLE:
+      return Double.doubleToRawLongBits(value);
+    case eFLOAT:
+      return Float.floatToRawIntBits((float) value);
+    case eBOOL:
+      return value != 0 ? 1 : 0;
+    case eUINT64:
+      checkWholeNumber(node, value, -0x1p63, 0x1p64);
+      return value >= 0x1p63 ? (long) (value - 0x1p63) | Long.MIN_VALUE : (long) value;  // sign bit is top bit
+    case eINT64:
+    case eUINT:
+    case eINT:
+    case eUSHORT:
+    case eSHORT:
+    case eUCHAR:
+    case eCHAR:
+      checkWholeNumber(node, value, -0x1p63, 0x1p63);
+      return fromLong(node, (long) value);
+    default:
+      throw new UnsupportedOperationException("Node " + node.getLongName() + " does not have a numeric value");
+    }
+  }
+
+  /** Check that @a value is a whole number in [@a min, @a max), so that casting it to long does not saturate. */
+  private static void checkWholeNumber(Node node, double value, double min, double max) {
+    if (value != Math.rint(value))
+      throw new IllegalArgumentException("Node " + node.getLongName() + " requires a whole number, got " + value);
+    if (!(value >= min && value < max))
+      throw new IllegalArgumentException("Value " + value + " is out of range for node " + node.getLongName()
+          + " of type " + node.getValueType());
+  }
+
+  /**
+   * Convert @a value to the value type of @a node.
+   * @throws IllegalArgumentException if @a value is out of range for an integer node.
+   * @throws UnsupportedOperationException if the node value type is not numeric or boolean.
+   */
+  static long fromLong(Node node, long value) {
+    switch (node.getValueType()) {
+    case eDOUBLE:
+      return Double.doubleToRawLongBits(value);
+    case eFLOAT:
+      return Float.floatToRawIntBits(value);
+    case eUINT64:
+    case eINT64:
+      return value;
+    case eUINT:
+      return checkRange(node, value, Integer.MIN_VALUE, 0xFFFFFFFFL);
+    case eINT:
+      return checkRange(node, value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    case eUSHORT:
+      return checkRange(node, value, 0, 0xFFFF);
+    case eSHORT:
+      return checkRange(node, value, Short.MIN_VALUE, Short.MAX_VALUE);
+    case eUCHAR:
+      return checkRange(node, value, 0, 0xFF);
+    case eCHAR:
+      return checkRange(node, value, Byte.MIN_VALUE, Byte.MAX_VALUE);
+    case eBOOL:
+      return value != 0 ? 1 : 0;
+    default:
+      throw new UnsupportedOperationException("Node " + node.getLongName() + " does not have a numeric value");
+    }
+  }
+
+  /**
+   * Convert @a value to the value type of @a node.
+   * @throws UnsupportedOperationException if the node value type is not eBOOL.
+   */
+  static long fromBoolean(Node node, boolean value) {
+    if (node.getValueType() != CDPValueType.eBOOL)
+      throw new UnsupportedOperationException("Node " + node.getLongName() + " does not have a boolean value");
+    return value ? 1 : 0;
+  }
+
+  private static long checkRange(Node node, long value, long min, long max) {
+    if (value < min || value > max)
+      throw new IllegalArgumentException("Value " + value + " is out of range for node " + node.getLongName()
+          + " of type " + node.getValueType());
+    return value;
+  }
+
+  /** Set the value field matching @a type on @a pbv. */
+  static void setValue(StudioAPI.VariantValue.Builder pbv, CDPValueType type, long bits) {
+    switch (type) {
+    case eDOUBLE:
+      pbv.setDValue(Double.longBitsToDouble(bits));
+      break;
+    case eFLOAT:
+      pbv.setFValue(Float.intBitsToFloat((int) bits));
+      break;
+    case eUINT64:
+      pbv.setUi64Value(bits);
+      break;
+    case eINT64:
+      pbv.setI64Value(bits);
+      break;
+    case eUINT:
+      pbv.setUiValue((int) bits);
+      break;
+    case eINT:
+      pbv.setIValue((int) bits);
+      break;
+    case eUSHORT:
+      pbv.setUsValue((int) bits);
+      break;
+    case eSHORT:
+      pbv.setSValue((int) bits);
+      break;
+    case eUCHAR:
+      pbv.setUcValue((int) bits);
+      break;
+    case eCHAR:
+      pbv.setCValue((int) bits);
+      break;
+    case eBOOL:
+      pbv.setBValue(bits != 0);
+      break;
+    default:
+      throw new UnsupportedOperationException("Value type " + type + " is not primitive");
+    }
+  }
+
+  /** Serialize a complete eSetterRequest container for a single primitive value. */
+  static byte[] encodeSetterRequest(int nodeId, CDPValueType type, long bits) {
+    int valueSize = CodedOutputStream.computeUInt32Size(NODE_ID_FIELD, nodeId) + computeValueSize(type, bits);
+    byte[] buffer = new byte[CodedOutputStream.computeEnumSize(MESSAGE_TYPE_FIELD, Container.Type.eSetterRequest_VALUE)
+        + CodedOutputStream.computeTagSize(SETTER_REQUEST_FIELD)
+        + CodedOutputStream.computeUInt32SizeNoTag(valueSize)
+        + valueSize];
+    CodedOutputStream out = CodedOutputStream.newInstance(buffer);
+    try {
+      out.writeEnum(MESSAGE_TYPE_FIELD, Container.Type.eSetterRequest_VALUE);
+      out.writeTag(SETTER_REQUEST_FIELD, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+      out.writeUInt32NoTag(valueSize);
+      out.writeUInt32(NODE_ID_FIELD, nodeId);
+      writeValue(out, type, bits);
+      out.checkNoSpaceLeft();
+    } catch (IOException e) {
+      throw new IllegalStateException(e); // buffer is sized exactly, can't happen
+    }
+    return buffer;
+  }
+
+  private static int computeValueSize(CDPValueType type, long bits) {
+    switch (type) {
+    case eDOUBLE:
+      return CodedOutputStream.computeDoubleSize(StudioAPI.VariantValue.D_VALUE_FIELD_NUMBER, 0);
+    case eFLOAT:
+      return CodedOutputStream.computeFloatSize(StudioAPI.VariantValue.F_VALUE_FIELD_NUMBER, 0);
+    case eUINT64:
+      return CodedOutputStream.computeUInt64Size(StudioAPI.VariantValue.UI64_VALUE_FIELD_NUMBER, bits);
+    case eINT64:
+      return CodedOutputStream.computeSInt64Size(StudioAPI.VariantValue.I64_VALUE_FIELD_NUMBER, bits);
+    case eUINT:
+      return CodedOutputStream.computeUInt32Size(StudioAPI.VariantValue.UI_VALUE_FIELD_NUMBER, (int) bits);
+    case eINT:
+      return CodedOutputStream.computeSInt32Size(StudioAPI.VariantValue.I_VALUE_FIELD_NUMBER, (int) bits);
+    case eUSHORT:
+      return CodedOutputStream.computeUInt32Size(StudioAPI.VariantValue.US_VALUE_FIELD_NUMBER, (int) bits);
+    case eSHORT:
+      return CodedOutputStream.computeSInt32Size(StudioAPI.VariantValue.S_VALUE_FIELD_NUMBER, (int) bits);
+    case eUCHAR:
+      return CodedOutputStream.computeUInt32Size(StudioAPI.VariantValue.UC_VALUE_FIELD_NUMBER, (int) bits);
+    case eCHAR:
+      return CodedOutputStream.computeSInt32Size(StudioAPI.VariantValue.C_VALUE_FIELD_NUMBER, (int) bits);
+    case eBOOL:
+      return CodedOutputStream.computeBoolSize(StudioAPI.VariantValue.B_VALUE_FIELD_NUMBER, bits != 0);
+    default:
+      throw new UnsupportedOperationException("Value type " + type + " is not primitive");
+    }
+  }
+
+  private static void writeValue(CodedOutputStream out, CDPValueType type, long bits) throws IOException {
+    switch (type) {
+    case eDOUBLE:
+      out.writeDouble(StudioAPI.VariantValue.D_VALUE_FIELD_NUMBER, Double.longBitsToDouble(bits));
+      break;
+    case eFLOAT:
+      out.writeFloat(StudioAPI.VariantValue.F_VALUE_FIELD_NUMBER, Float.intBitsToFloat((int) bits));
+      break;
+    case eUINT64:
+      out.writeUInt64(StudioAPI.VariantValue.UI64_VALUE_FIELD_NUMBER, bits);
+      break;
+    case eINT64:
+      out.writeSInt64(StudioAPI.VariantValue.I64_VALUE_FIELD_NUMBER, bits);
+      break;
+    case eUINT:
+      out.writeUInt32(StudioAPI.VariantValue.UI_VALUE_FIELD_NUMBER, (int) bits);
+      break;
+    case eINT:
+      out.writeSInt32(StudioAPI.VariantValue.I_VALUE_FIELD_NUMBER, (int) bits);
+      break;
+    case eUSHORT:
+      out.writeUInt32(StudioAPI.VariantValue.US_VALUE_FIELD_NUMBER, (int) bits);
+      break;
+    case eSHORT:
+      out.writeSInt32(StudioAPI.VariantValue.S_VALUE_FIELD_NUMBER, (int) bits);
+      break;
+    case eUCHAR:
+      out.writeUInt32(StudioAPI.VariantValue.UC_VALUE_FIELD_NUMBER, (int) bits);
+      break;
+    case eCHAR:
+      out.writeSInt32(StudioAPI.VariantValue.C_VALUE_FIELD_NUMBER, (int) bits);
+      break;
+    case eBOOL:
+      out.writeBool(StudioAPI.VariantValue.B_VALUE_FIELD_NUMBER, bits != 0);
+      break;
+    default:
+      throw new UnsupportedOperationException("Value type " + type + " is not primitive");
+    }
+  }
+}
@@ -10,29 +10,85 @@ import java.time.Instant;
 
 /** 
  * Simple variant class for holding different type Node values.
- * External creation of instances is through Variant.Builder only.
+ * External creation of instances is through Variant.Builder only. Variants are immutable and can be passed
+ * between threads, except the reused Variants passed to ValueListeners with {@link Client#setReusableValues}
+ * enabled, see {@link #copy()}.
  */
 public class Variant {
-  
+
+  /** Timestamp of variants built without one, for which getTimestamp() returns null. */
+  static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
   private final CDPValueType valueType;
-  private final Object value;
-  private final Instant timestamp;
-  
+  private final long bits;
+  private final long timestampNs;
+  private final Object object;
+  /** Created on first use. Instant is immutable, so a racing thread at most creates an equal one. */
+  private Instant timestamp;
+
   /** Constructor is internal, use Variant.Builder to construct Variants. */
   Variant(CDPValueType valueType, Object value, Instant timestamp) {
-    this.valueType = valueType;
-    this.value = value;
+    this(valueType, toBits(value), timestamp == null ? NO_TIMESTAMP : RequestDispatch.toEpochNanos(timestamp), value);
     this.timestamp = timestamp;
   }
 
   Variant(CDPValueType valueType, Object value, long nanoTime) {
+    this(valueType, toBits(value), nanoTime, value);
+  }
+
+  /**
+   * Create a variant of a primitive value without boxing it.
+   * @param bits The value encoded as described in {@link ValueEncoder}.
+   * @param timestampNs Timestamp in epoch nanoseconds. Received values without a timestamp have 0, which is kept
+   *        as the epoch, so getTimestamp() only returns null for Variants built without a timestamp.
+   */
+  static Variant ofBits(CDPValueType valueType, long bits, long timestampNs) {
+    return new Variant(valueType, bits, timestampNs, null);
+  }
+
+  Variant(CDPValueType valueType, long bits, long timestampNs, Object object) {
     this.valueType = valueType;
-    this.value = value;
-    this.timestamp = Instant.ofEpochSecond(0, nanoTime);
+    this.bits = bits;
+    this.timestampNs = timestampNs;
+    this.object = object;
+  }
+
+  /**
+   * Get a Variant that stays valid after the listener callback returns. With {@link Client#setReusableValues}
+   * enabled, the Variant passed to a ValueListener is overwritten by the next value and must be copied to be
+   * retained. Other Variants are immutable and return themselves.
+   */
+  public Variant copy() {
+    return this;
+  }
+
+  CDPValueType valueType() {
+    return valueType;
+  }
+
+  long bits() {
+    return bits;
+  }
+
+  long timestampNs() {
+    return timestampNs;
+  }
+
+  private static long toBits(Object value) {
+    if (value instanceof Double)
+      return Double.doubleToRawLongBits((Double) value);
+    if (value instanceof Float)
+      return Float.floatToRawIntBits((Float) value);
+    if (value instanceof Number)
+      return ((Number) value).longValue();
+    if (value instanceof Boolean)
+      return (Boolean) value ? 1 : 0;
+    return 0;
   }
   
   /**
-   * Get the value of this variant.
+   * Get the value of this variant. Numeric and boolean values are boxed on each call, prefer
+   * {@link #getDouble()} or {@link #getLong()} for frequently received values.
    * @return A value of the requested type if it matches.
    * @throws ClassCastException if the requested type and getValueType() 
    *         don't match.
@@ -40,26 +96,89 @@ public class Variant {
    */
   @SuppressWarnings("unchecked")
   public <T> T getValue() {
+    CDPValueType valueType = valueType();
+    long bits = bits();
     if (valueType == CDPValueType.eUNDEFINED)
       throw new IllegalArgumentException("Variant has no value!");
-    
-    return (T)value;
+    if (object != null)
+      return (T) object;
+    switch (valueType) {
+    case eDOUBLE:
+      return (T) Double.valueOf(Double.longBitsToDouble(bits));
+    case eFLOAT:
+      return (T) Float.valueOf(Float.intBitsToFloat((int) bits));
+    case eUINT64:
+    case eINT64:
+      return (T) Long.valueOf(bits);
+    case eBOOL:
+      return (T) Boolean.valueOf(bits != 0);
+    default:
+      return (T) Integer.valueOf((int) bits);
+    }
+  }
+
+  /**
+   * Get a numeric or boolean value as a double. eUINT64 values above 2^53 lose precision, eBOOL values are 0 or 1.
+   * @throws IllegalArgumentException if the variant has no numeric value.
+   */
+  public double getDouble() {
+    checkPrimitive();
+    return ValueDecoder.toDouble(valueType(), bits());
+  }
+
+  /**
+   * Get a numeric or boolean value as a long. Floating point values are truncated, for eUINT64 values the sign
+   * bit represents the top bit and eBOOL values are 0 or 1.
+   * @throws IllegalArgumentException if the variant has no numeric value.
+   */
+  public long getLong() {
+    checkPrimitive();
+    long bits = bits();
+    switch (valueType()) {
+    case eDOUBLE:
+      return (long) Double.longBitsToDouble(bits);
+    case eFLOAT:
+      return (long) Float.intBitsToFloat((int) bits);
+    case eUINT:
+      return bits & 0xFFFFFFFFL;
+    default:
+      return bits;
+    }
+  }
+
+  private void checkPrimitive() {
+    CDPValueType valueType = valueType();
+    if (valueType == CDPValueType.eUNDEFINED || valueType == CDPValueType.eSTRING)
+      throw new IllegalArgumentException("Variant has no numeric value!");
+  }
+
+  /** Get the raw value bits, see {@link ValueEncoder}. */
+  long getRawBits() {
+    return bits();
   }
   
   /** Get the value type of the Variant. */
   public CDPValueType getValueType() {
-    return valueType;
+    return valueType();
   }
   
-  /** Get the value timestamp. @returns 0.0 if no timestamp was specified. */
+  /** Get the value timestamp. @returns null if the Variant was built without a timestamp. */
   public Instant getTimestamp() {
+    if (timestamp == null && timestampNs != NO_TIMESTAMP)
+      timestamp = Instant.ofEpochSecond(0, timestampNs);
     return timestamp;
   }
 
+  /** Get the value timestamp in epoch nanoseconds without creating an Instant. @returns 0 if there is none. */
+  public long getTimestampNanos() {
+    long timestampNs = timestampNs();
+    return timestampNs == NO_TIMESTAMP ? 0 : timestampNs;
+  }
+
   /** Get the Variant's value as a printable String. */
   public String toString() {
-    if (valueType == CDPValueType.eUNDEFINED) return "<invalid variant>";
-    return value.toString();
+    if (valueType() == CDPValueType.eUNDEFINED) return "<invalid variant>";
+    return getValue().toString();
   }
   
   
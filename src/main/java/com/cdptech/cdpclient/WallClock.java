@@ -0,0 +1,86 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation-free wall clock time in nanoseconds since the epoch, computed from System.nanoTime() and an
+ * anchor to System.currentTimeMillis(). Unlike Instant.now() this allocates nothing and has nanosecond
+ * resolution. The anchor is aligned once to the start of a millisecond, when the class is initialized, e.g. by
+ * the Client constructor before the event loop runs. When the wall clock is later adjusted, e.g. slewed by NTP,
+ * the anchor is slewed after it by at most {@link #MAX_SLEW_RATE}, so that time sync sees a drift and not steps.
+ * Only adjustments larger than {@link #MAX_SLEW_NS} step the anchor at once.
+ */
+final class WallClock {
+
+  private static final long RECHECK_PERIOD_NS = TimeUnit.SECONDS.toNanos(1);
+  private static final long MILLI_NS = TimeUnit.MILLISECONDS.toNanos(1);
+  /** Twice the largest rate at which NTP slews the system clock. */
+  private static final double MAX_SLEW_RATE = 1000e-6;
+  private static final long MAX_SLEW_NS = TimeUnit.MILLISECONDS.toNanos(100);
+  /** Longer than the clock tick of any OS, in case currentTimeMillis() does not advance. */
+  private static final long MAX_ALIGN_NS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  private static volatile Anchor anchor = Anchor.alignedToMillisecond();
+  private static volatile long lastCheckNanoTime = anchor.nanoTime;
+
+  private WallClock() {
+  }
+
+  /** Get the current time in nanoseconds since the epoch. */
+  static long epochNanos() {
+    long now = System.nanoTime();
+    Anchor a = anchor;
+    if (now - lastCheckNanoTime > RECHECK_PERIOD_NS)
+      a = recheck(a, now);
+    return a.epochNanos + (now - a.nanoTime);
+  }
+
+  /** Move the anchor towards the current millisecond of the wall clock if the time has left it. */
+  private static Anchor recheck(Anchor a, long now) {
+    long elapsed = now - lastCheckNanoTime;
+    lastCheckNanoTime = now;
+    long millisNs = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    long time = a.epochNanos + (now - a.nanoTime);
+    long error;
+    if (time < millisNs)
+      error = time - millisNs;
+    else if (time >= millisNs + MILLI_NS)
+      error = time - (millisNs + MILLI_NS - 1);
+    else
+      return a;
+    long correction = error;
+    if (Math.abs(error) <= MAX_SLEW_NS) {
+      long maxCorrection = (long) (elapsed * MAX_SLEW_RATE);
+      correction = Math.max(-maxCorrection, Math.min(maxCorrection, error));
+    }
+    anchor = new Anchor(time - correction, now);
+    return anchor;
+  }
+
+  private static class Anchor {
+    final long epochNanos;
+    final long nanoTime;
+
+    Anchor(long epochNanos, long nanoTime) {
+      this.epochNanos = epochNanos;
+      this.nanoTime = nanoTime;
+    }
+
+    /** Anchor at the start of the next millisecond, waiting for currentTimeMillis() to advance. */
+    static Anchor alignedToMillisecond() {
+      long start = System.currentTimeMillis();
+      long deadline = System.nanoTime() + MAX_ALIGN_NS;
+      long nanoTime;
+      long millis;
+      do {
+        nanoTime = System.nanoTime();
+        millis = System.currentTimeMillis();
+      } while (millis == start && nanoTime - deadline < 0);
+      return new Anchor(TimeUnit.MILLISECONDS.toNanos(millis), nanoTime);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds back outgoing setter requests for up to a flush interval and keeps only the most
+ * recent value per node (last writer wins). Used by IOHandler when write coalescing is enabled.
+ */
+class WriteCoalescer {
+
+  private Map<Integer, StudioAPI.VariantValue> pendingWrites = new LinkedHashMap<>();
+  private long flushIntervalNs;
+  private long firstPendingTimeNs;
+  private long supersededWriteCount;
+  private final LongSupplier clock;
+
+  WriteCoalescer() {
+    this(System::nanoTime);
+  }
+
+  /** @param clock Monotonic time in nanoseconds. */
+  WriteCoalescer(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  /** Set the flush interval. Zero disables coalescing. */
+  void setFlushInterval(long flushIntervalNs) {
+    this.flushIntervalNs = flushIntervalNs;
+  }
+
+  boolean isEnabled() {
+    return flushIntervalNs > 0;
+  }
+
+  /** Queue a write, replacing any not yet flushed write to the same node. */
+  void add(StudioAPI.VariantValue value) {
+    if (pendingWrites.isEmpty())
+      firstPendingTimeNs = clock.getAsLong();
+    if (pendingWrites.put(value.getNodeId(), value) != null)
+      supersededWriteCount++;
+  }
+
+  boolean hasPendingWrites() {
+    return !pendingWrites.isEmpty();
+  }
+
+  /** Check if the oldest pending write has waited for the whole flush interval. */
+  boolean isFlushDue() {
+    return !pendingWrites.isEmpty()
+        && (!isEnabled() || clock.getAsLong() - firstPendingTimeNs >= flushIntervalNs);
+  }
+
+  /** Remove and return all pending writes in the order the nodes were first written. */
+  List<StudioAPI.VariantValue> drain() {
+    List<StudioAPI.VariantValue> writes = new ArrayList<>(pendingWrites.values());
+    pendingWrites.clear();
+    return writes;
+  }
+
+  /** Number of writes that were dropped because a newer value for the same node replaced them. */
+  long getSupersededWriteCount() {
+    return supersededWriteCount;
+  }
+}
@@ -0,0 +1,234 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.simulator.ConnectedClient;
+import com.cdptech.cdpclient.simulator.SimulatedNode;
+import com.cdptech.cdpclient.simulator.StudioAPISimulator;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.junit.Rule;
+import org.junit.Test;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Long-running load against an in-process {@link StudioAPISimulator}: many applications and subscriptions,
+ * periodic reconnects and structure churn. Reports sustained throughput, allocated bytes per value, GC
+ * pauses and heap growth, and fails if the heap or the pending requests keep growing or the applications are
+ * not restored after the reconnects. Run with
+ * {@code mvn -Psoak test}, see the soak profile in pom.xml for the parameters.
+ */
+public class SoakTest {
+
+  private static final Duration DURATION = Duration.parse(System.getProperty("soak.duration", "PT10M"));
+  private static final Duration REPORT_PERIOD = Duration.parse(System.getProperty("soak.reportPeriod", "PT1M"));
+  private static final Duration RECONNECT_PERIOD = Duration.parse(System.getProperty("soak.reconnectPeriod", "PT5M"));
+  private static final Duration CHURN_PERIOD = Duration.parse(System.getProperty("soak.churnPeriod", "PT10S"));
+  private static final int APPLICATIONS = Integer.getInteger("soak.applications", 50);
+  private static final int COMPONENTS = Integer.getInteger("soak.componentsPerApplication", 40);
+  private static final int SIGNALS = Integer.getInteger("soak.signalsPerComponent", 100);
+  private static final int SUBSCRIPTIONS = Integer.getInteger("soak.subscriptions", 20000);
+  private static final double FS = Double.parseDouble(System.getProperty("soak.fs", "100"));
+  private static final long MAX_HEAP_GROWTH = Integer.getInteger("soak.maxHeapGrowthMb", 64) * 1024L * 1024L;
+  private static final int MAX_PENDING_REQUESTS = Integer.getInteger("soak.maxPendingRequests", 100);
+
+  private final LongAdder valuesReceived = new LongAdder();
+
+  @Rule
+  public final ConnectedClient connection = new ConnectedClient();
+
+  @Test
+  public void client_shouldSustainLoadWithoutLeaking() throws Exception {
+    StudioAPISimulator simulator = new StudioAPISimulator(0)
+        .setApplicationCount(APPLICATIONS)
+        .setComponentsPerApplication(COMPONENTS)
+        .setSignalsPerComponent(SIGNALS);
+    Client client = connection.connect(simulator);
+    System.out.printf("[soak] %d nodes, subscribing to %d signals at %.0f Hz for %s%n",
+        simulator.getValueNodeCount(), SUBSCRIPTIONS, FS, DURATION);
+    subscribe(client.threadSafe());
+    run(client, simulator, new Monitor(client, connection.getEventLoop()));
+  }
+
+  private void subscribe(ThreadSafeClient facade) throws Exception {
+    ValueListener listener = value -> valuesReceived.increment();
+    List<CompletableFuture<Void>> batch = new ArrayList<>();
+    for (int i = 0; i < SUBSCRIPTIONS; i++) {
+      String path = "App" + (i % APPLICATIONS)
+          + ".Component" + (i / APPLICATIONS % COMPONENTS)
+          + ".Signal" + (i / (APPLICATIONS * COMPONENTS) % SIGNALS);
+      batch.add(facade.findNode(path).thenCompose(node -> facade.subscribeToValueChanges(node, listener, FS)));
+      if (batch.size() == 1000 || i == SUBSCRIPTIONS - 1) {
+        CompletableFuture.allOf(batch.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+        batch.clear();
+      }
+    }
+  }
+
+  private void run(Client client, StudioAPISimulator simulator, Monitor monitor) throws Exception {
+    Random random = new Random(1);
+    Queue<SimulatedNode> churned = new ArrayDeque<>();
+    long startNs = System.nanoTime();
+    long endNs = startNs + DURATION.toNanos();
+    long nextReportNs = startNs + REPORT_PERIOD.toNanos();
+    long nextReconnectNs = startNs + RECONNECT_PERIOD.toNanos();
+    long nextChurnNs = startNs + CHURN_PERIOD.toNanos();
+    monitor.report(0);  // baseline after subscribing
+    long baselineHeap = monitor.liveHeap();
+    while (System.nanoTime() < endNs) {
+      long now = System.nanoTime();
+      if (now >= nextChurnNs) {
+        String component = "App" + random.nextInt(APPLICATIONS) + ".Component" + random.nextInt(COMPONENTS);
+        churned.add(simulator.addSignal(simulator.find(component).getId(), "Churn" + random.nextInt()));
+        if (churned.size() > 10)
+          simulator.removeNode(churned.remove().getId());
+        nextChurnNs += CHURN_PERIOD.toNanos();
+      }
+      if (now >= nextReconnectNs) {
+        System.out.println("[soak] dropping connections");
+        simulator.dropConnections();
+        nextReconnectNs += RECONNECT_PERIOD.toNanos();
+      }
+      if (now >= nextReportNs) {
+        monitor.report(now - startNs);
+        nextReportNs += REPORT_PERIOD.toNanos();
+      }
+      Thread.sleep(10);
+    }
+    monitor.report(System.nanoTime() - startNs);
+
+    long heapGrowth = monitor.liveHeap() - baselineHeap;
+    System.out.printf("[soak] live heap growth %.1f MB%n", heapGrowth / 1e6);
+    assertTrue("Heap grew by " + heapGrowth + " bytes", heapGrowth < MAX_HEAP_GROWTH);
+    assertTrue("No values received in the last period", monitor.lastValueRate > 0);
+    assertTrue(monitor.pendingRequests() <= MAX_PENDING_REQUESTS);
+    assertApplicationsRestored(client.threadSafe());
+  }
+
+  /** Wait for the last reconnect to finish, after which every application is cached once and none is lost. */
+  private static void assertApplicationsRestored(ThreadSafeClient facade) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    int lostApps;
+    while ((lostApps = facade.submit(c -> c.getLostApps().size()).get(5, TimeUnit.SECONDS)) > 0
+        && System.nanoTime() < deadline)
+      Thread.sleep(100);
+    assertEquals("Applications not restored after reconnects", 0, lostApps);
+    int cachedApps = facade.submit(c -> c.getRootNode().getChildCount()).get(5, TimeUnit.SECONDS);
+    assertEquals("Cached applications", APPLICATIONS, cachedApps);
+  }
+
+  /** Samples the client and JVM resource usage between reports. */
+  private class Monitor {
+    private final Client client;
+    private final long eventLoopThreadId;
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final AtomicLong maxGcPauseMs = new AtomicLong();
+    private long lastTimeNs;
+    private long lastValues;
+    private long lastLoopAllocated;
+    private long lastClientAllocated;
+    private long lastGcCount;
+    private long lastGcTimeMs;
+    double lastValueRate;
+
+    Monitor(Client client, Thread eventLoop) {
+      this.client = client;
+      this.eventLoopThreadId = eventLoop.getId();
+      NotificationListener gcListener = (notification, handback) -> {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()))
+          return;
+        long duration = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData())
+            .getGcInfo().getDuration();
+        maxGcPauseMs.accumulateAndGet(duration, Math::max);
+      };
+      for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+        if (gc instanceof NotificationEmitter)
+          ((NotificationEmitter) gc).addNotificationListener(gcListener, null, null);
+    }
+
+    void report(long elapsedNs) throws Exception {
+      long now = System.nanoTime();
+      long values = valuesReceived.sum();
+      long loopAllocated = threads.getThreadAllocatedBytes(eventLoopThreadId);
+      long clientAllocated = clientAllocatedBytes();
+      long gcCount = 0;
+      long gcTimeMs = 0;
+      for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+        gcCount += Math.max(gc.getCollectionCount(), 0);
+        gcTimeMs += Math.max(gc.getCollectionTime(), 0);
+      }
+      if (elapsedNs > 0) {
+        long valueDelta = Math.max(values - lastValues, 1);
+        lastValueRate = (values - lastValues) * 1e9 / (now - lastTimeNs);
+        System.out.printf("[soak] %s values/s=%.0f B/value loop=%.1f client=%.1f gc=%d (%d ms, max pause %d ms)"
+                + " heap after gc=%.1f MB pending=%d%n",
+            Duration.ofNanos(elapsedNs).withNanos(0), lastValueRate,
+            (double) (loopAllocated - lastLoopAllocated) / valueDelta,
+            (double) (clientAllocated - lastClientAllocated) / valueDelta,
+            gcCount - lastGcCount, gcTimeMs - lastGcTimeMs, maxGcPauseMs.getAndSet(0),
+            collectionUsage() / 1e6, pendingRequests());
+      }
+      lastTimeNs = now;
+      lastValues = values;
+      lastLoopAllocated = loopAllocated;
+      lastClientAllocated = clientAllocated;
+      lastGcCount = gcCount;
+      lastGcTimeMs = gcTimeMs;
+    }
+
+    /** Used heap after a forced full collection. */
+    long liveHeap() {
+      System.gc();
+      return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    int pendingRequests() {
+      int pending = 0;
+      for (ClientMetrics.ConnectionMetrics connection : client.getMetrics().getConnections().values())
+        pending += connection.getPendingRequests();
+      return pending;
+    }
+
+    /** Bytes allocated by the event loop and the client's WebSocket threads, excluding the simulator. */
+    private long clientAllocatedBytes() {
+      long total = 0;
+      for (Thread thread : Thread.getAllStackTraces().keySet()) {
+        String name = thread.getName();
+        if (thread.getId() == eventLoopThreadId || name.startsWith("WebSocketConnectReadThread")
+            || name.startsWith("WebSocketWriteThread"))
+          total += Math.max(threads.getThreadAllocatedBytes(thread.getId()), 0);
+      }
+      return total;
+    }
+
+    /** Heap used right after the last collection of each pool, an estimate of the live set. */
+    private long collectionUsage() {
+      long used = 0;
+      for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+          used += pool.getCollectionUsage().getUsed();
+      return used;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class ChildListDiffTest {
+
+  private final ChildListDiff diff = new ChildListDiff();
+
+  @Test
+  public void compare_shouldFindRemovedAndAddedIDs() {
+    Node cached = parent(5, 3, 9, 1);
+    Node received = parent(9, 2, 3, 7);
+
+    diff.compare(cached, received);
+
+    assertEquals(2, diff.getRemovedCount());
+    assertArrayEquals(new int[] {1, 5}, Arrays.copyOf(diff.getRemovedIDs(), 2));
+    assertEquals(2, diff.getAddedCount());
+    assertTrue(diff.isAdded(2));
+    assertTrue(diff.isAdded(7));
+    assertFalse(diff.isAdded(9));
+  }
+
+  @Test
+  public void compare_shouldHandleThousandsOfChildren() {
+    int[] cachedIDs = new int[5000];
+    int[] receivedIDs = new int[5000];
+    for (int i = 0; i < 5000; i++) {
+      cachedIDs[i] = i;
+      receivedIDs[i] = i + 1;
+    }
+    diff.compare(parent(cachedIDs), parent(receivedIDs));
+    assertEquals(1, diff.getRemovedCount());
+    assertEquals(0, diff.getRemovedIDs()[0]);
+    assertEquals(1, diff.getAddedCount());
+    assertTrue(diff.isAdded(5000));
+
+    diff.compare(parent(cachedIDs), parent(cachedIDs));
+    assertEquals(0, diff.getRemovedCount());
+    assertEquals(0, diff.getAddedCount());
+  }
+
+  @Test
+  public void remapIDsByName_shouldTakeIDsOfReceivedNodesWithSameName() {
+    Node cached = parent(1, 2, 3);
+    Node received = parent(2, 1);
+    received.getChildList().get(0).setNodeID(12);
+    received.getChildList().get(1).setNodeID(11);
+
+    diff.remapIDsByName(cached, received);
+
+    assertEquals(11, cached.getChildList().get(0).getNodeID());
+    assertEquals(12, cached.getChildList().get(1).getNodeID());
+    assertEquals(3, cached.getChildList().get(2).getNodeID());
+  }
+
+  private static Node parent(int... childIDs) {
+    Node parent = new Node(0, StudioAPI.CDPNodeType.CDP_COMPONENT, StudioAPI.CDPValueType.eUNDEFINED, "Parent", 0);
+    for (int id : childIDs)
+      parent.addNewChild(
+          new Node(id, StudioAPI.CDPNodeType.CDP_OBJECT, StudioAPI.CDPValueType.eDOUBLE, "Node" + id, 0));
+    return parent;
+  }
+}
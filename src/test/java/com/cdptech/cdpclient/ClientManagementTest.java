@@ -0,0 +1,57 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.simulator.ConnectedClient;
+import com.cdptech.cdpclient.simulator.StudioAPISimulator;
+import org.junit.Rule;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class ClientManagementTest {
+
+  @Rule
+  public final ConnectedClient connection = new ConnectedClient();
+
+  @Test
+  public void jmx_shouldExposeConnectionStateAndSubscriptions() throws Exception {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    Client client = connection.connect(new StudioAPISimulator(0).setSignalsPerComponent(3),
+        c -> c.setJmxEnabled(true));
+    Node signal = client.findNodeBlocking("App0.Component0.Signal1", Duration.ofSeconds(5));
+    ValueListener listener = value -> {};
+    client.threadSafe().subscribeToValueChanges(signal, listener, 5).get(5, TimeUnit.SECONDS);
+
+    Set<ObjectName> connections = server.queryNames(
+        new ObjectName(ClientManagement.DOMAIN + ":type=Connection,*"), null);
+    assertEquals(1, connections.size());
+    ObjectName bean = connections.iterator().next();
+    assertEquals("ESTABLISHED", server.getAttribute(bean, "State"));
+    assertEquals(1, server.getAttribute(bean, "SubscriptionCount"));
+    assertEquals(1 + 1 + 3, server.getAttribute(bean, "CachedNodeCount"));
+    String[] subscriptions = (String[]) server.invoke(bean, "dumpSubscriptions", null, null);
+    assertEquals("App0.Component0.Signal1 value fs=5.0", subscriptions[0]);
+    client.threadSafe().removeValueListener(signal, listener).get(5, TimeUnit.SECONDS);
+    assertEquals(0, server.getAttribute(bean, "SubscriptionCount"));
+
+    long framesSent = (Long) server.getAttribute(bean, "FramesSent");
+    server.invoke(bean, "forceResync", null, null);
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while ((Long) server.getAttribute(bean, "FramesSent") < framesSent + 2 && System.nanoTime() < deadline)
+      Thread.sleep(10);
+    assertTrue((Long) server.getAttribute(bean, "FramesSent") >= framesSent + 2);
+
+    connection.close();
+    assertTrue(server.queryNames(new ObjectName(ClientManagement.DOMAIN + ":*"), null).isEmpty());
+  }
+}
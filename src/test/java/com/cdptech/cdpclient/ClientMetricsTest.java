@@ -0,0 +1,96 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.simulator.ConnectedClient;
+import com.cdptech.cdpclient.simulator.StudioAPISimulator;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ClientMetricsTest {
+
+  @Rule
+  public final ConnectedClient connection = new ConnectedClient();
+
+  @Test
+  public void latencyHistogram_shouldReportPercentilesWithinBucketPrecision() {
+    LatencyRecorder recorder = new LatencyRecorder();
+    for (int i = 1; i <= 1000; i++)
+      recorder.record(i * 1000L);
+    LatencyHistogram histogram = recorder.snapshot();
+
+    assertEquals(1000, histogram.getCount());
+    assertEquals(1_000_000, histogram.getMaxNs());
+    assertEquals(500_500, histogram.getMeanNs(), 0.1);
+    assertEquals(500_000, histogram.getPercentileNs(50), 500_000 * 0.125);
+    assertEquals(990_000, histogram.getPercentileNs(99), 990_000 * 0.125);
+    assertEquals(1_000_000, histogram.getPercentileNs(100));
+  }
+
+  @Test
+  public void bucketBounds_shouldCoverEveryValue() {
+    for (long ns : new long[] {0, 15, 16, 17, 31, 32, 1000, 123456789, Long.MAX_VALUE}) {
+      for (int bits = 1; bits <= 3; bits++) {
+        int bucket = LatencyHistogram.bucketIndex(bits, ns);
+        assertTrue(bucket < LatencyHistogram.bucketCount(bits));
+        assertTrue(ns <= LatencyHistogram.bucketUpperBound(bits, bucket));
+        assertTrue(bucket == 0 || ns > LatencyHistogram.bucketUpperBound(bits, bucket - 1));
+      }
+    }
+  }
+
+  @Test
+  public void wallClock_shouldMatchSystemClock() {
+    long millis = System.currentTimeMillis();
+    long nanos = WallClock.epochNanos();
+    assertEquals(millis, TimeUnit.NANOSECONDS.toMillis(nanos), 2);
+  }
+
+  @Test
+  public void valueLatency_shouldBeRecordedPerNodeAndConnection() throws Exception {
+    Client client = connection.connect(new StudioAPISimulator(0), c -> c.setValueLatencyTracking(true));
+    Node signal = client.findNodeBlocking("App0.Component0.Signal0", Duration.ofSeconds(5));
+    assertNull(signal.getValueLatency());
+    CountDownLatch received = new CountDownLatch(10);
+    client.threadSafe().subscribeToValueChanges(signal, value -> received.countDown(), 100);
+    assertTrue(received.await(5, TimeUnit.SECONDS));
+
+    LatencyHistogram nodeLatency = signal.getValueLatency();
+    assertTrue(nodeLatency.getCount() >= 10);
+    assertTrue(nodeLatency.getPercentileNs(50) < TimeUnit.SECONDS.toNanos(1));
+    LatencyHistogram connectionLatency = client.getMetrics().getConnections().values().iterator().next()
+        .getValueLatency();
+    assertTrue(connectionLatency.getCount() >= nodeLatency.getCount());
+  }
+
+  @Test
+  public void getMetrics_shouldCountTrafficPerConnection() throws Exception {
+    Client client = connection.connect(new StudioAPISimulator(0).setSignalsPerComponent(10));
+    Node signal = client.findNodeBlocking("App0.Component0.Signal0", Duration.ofSeconds(5));
+    CountDownLatch received = new CountDownLatch(20);
+    client.threadSafe().subscribeToValueChanges(signal, value -> received.countDown(), 100);
+    assertTrue(received.await(5, TimeUnit.SECONDS));
+
+    ClientMetrics metrics = client.getMetrics();
+    assertEquals(1, metrics.getConnections().size());
+    ClientMetrics.ConnectionMetrics connectionMetrics = metrics.getConnections().values().iterator().next();
+    assertEquals(URI.create("ws://127.0.0.1:" + connection.getSimulator().getPort()), connectionMetrics.getUri());
+    assertTrue(connectionMetrics.getFramesReceived() > 20);
+    assertTrue(connectionMetrics.getBytesReceived() > connectionMetrics.getFramesReceived());
+    assertTrue(connectionMetrics.getFramesSent() >= 4);
+    assertTrue(connectionMetrics.getValuesDispatched() >= 20);
+    assertTrue(connectionMetrics.getQueueHighWaterMark() >= 1);
+    assertTrue(connectionMetrics.getDecodeTime().getCount() > 0);
+    assertTrue(connectionMetrics.getListenerTime().getCount() > 0);
+    assertEquals(0, connectionMetrics.getDropCount());
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.simulator.ConnectedClient;
+import com.cdptech.cdpclient.simulator.StudioAPISimulator;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class FlightRecorderEventsTest {
+
+  @Rule
+  public final ConnectedClient connection = new ConnectedClient();
+
+  @Test
+  public void recording_shouldContainEventsOfTheWholeReceivePath() throws Exception {
+    Assume.assumeTrue(FlightRecorderEvents.AVAILABLE);
+    StudioAPISimulator simulator = new StudioAPISimulator(0);
+    Client client = connection.connect(simulator);
+    Path file = Files.createTempFile("cdpclient", ".jfr");
+    try (Recording recording = new Recording()) {
+      for (String event : new String[] {"FrameReceived", "FrameDequeued", "MessageParse", "ValueDispatch"})
+        recording.enable("com.cdptech.cdpclient." + event).withThreshold(Duration.ZERO);
+      recording.start();
+
+      Node signal = client.findNodeBlocking("App0.Component0.Signal0", Duration.ofSeconds(5));
+      CountDownLatch received = new CountDownLatch(6);  // the event of the last value is committed after its listener
+      client.threadSafe().subscribeToValueChanges(signal, value -> received.countDown(), 100);
+      assertTrue(received.await(5, TimeUnit.SECONDS));
+
+      recording.stop();
+      recording.dump(file);
+      Map<String, Integer> counts = new HashMap<>();
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+      for (RecordedEvent event : events) {
+        counts.merge(event.getEventType().getName(), 1, Integer::sum);
+        if (event.getEventType().getName().endsWith("ValueDispatch"))
+          assertEquals(simulator.find("App0.Component0.Signal0").getId(), event.getInt("nodeId"));
+      }
+      assertTrue(counts.get("com.cdptech.cdpclient.FrameReceived") >= 5);
+      assertTrue(counts.get("com.cdptech.cdpclient.FrameDequeued") >= 5);
+      assertTrue(counts.get("com.cdptech.cdpclient.FrameDequeued") <= counts.get("com.cdptech.cdpclient.FrameReceived"));
+      assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().endsWith("MessageParse")
+          && "eGetterResponse".equals(e.getString("messageType"))));
+      assertTrue(counts.get("com.cdptech.cdpclient.ValueDispatch") >= 5);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
@@ -34,4 +34,18 @@ public class IOHandlerTest {
     assertEquals("test", value);
   }
 
+  @Test
+  public void encodeValue_shouldConvertDoubleToNodeType() {
+    Node node = new Node(7, StudioAPI.CDPNodeType.CDP_PROPERTY, StudioAPI.CDPValueType.eINT, "Setpoint", 0);
+    StudioAPI.VariantValue encoded = IOHandler.encodeValue(node, 42.0);
+    assertEquals(7, encoded.getNodeId());
+    assertEquals(42, encoded.getIValue());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void encodeValue_shouldRejectFractionForIntegerNode() {
+    Node node = new Node(7, StudioAPI.CDPNodeType.CDP_PROPERTY, StudioAPI.CDPValueType.eUINT64, "Setpoint", 0);
+    IOHandler.encodeValue(node, 1.5);
+  }
+
 }
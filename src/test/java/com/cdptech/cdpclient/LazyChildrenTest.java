@@ -0,0 +1,69 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import com.cdptech.cdpclient.proto.StudioAPI.Container;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class LazyChildrenTest {
+
+  private final NameTable names = new NameTable(NameTable.DEFAULT_CAPACITY);
+
+  @Test
+  public void decodeStructureResponse_shouldCreateChildrenOnFirstAccess() {
+    StudioAPI.Node app = node(10, "App", StudioAPI.CDPNodeType.CDP_APPLICATION,
+        node(11, "CPU", StudioAPI.CDPNodeType.CDP_COMPONENT, signal(12, "Load"), signal(13, "Temperature")),
+        node(14, "Pump", StudioAPI.CDPNodeType.CDP_COMPONENT, signal(15, "Speed")));
+    byte[] frame = Container.newBuilder().setMessageType(Container.Type.eStructureResponse)
+        .addStructureResponse(app).build().toByteArray();
+
+    List<Node> nodes = LazyChildren.decodeStructureResponse(frame, names);
+
+    assertEquals(1, nodes.size());
+    Node received = nodes.get(0);
+    assertEquals("App", received.getName());
+    assertTrue(received.getMaterializedChildList().isEmpty());
+    assertNull(received.findChildByID(99));
+    assertTrue(received.getMaterializedChildList().isEmpty());
+
+    Node speed = received.findChildByID(15);
+    assertEquals("App.Pump.Speed", speed.getLongName());
+    assertEquals(StudioAPI.CDPValueType.eDOUBLE, speed.getValueType());
+    Node cpu = received.getCachedChild(0);
+    assertTrue(cpu.getMaterializedChildList().isEmpty());
+    assertEquals(2, cpu.getChildCount());
+    assertEquals("Temperature", cpu.getCachedChild(1).getName());
+    assertSame(cpu, cpu.getCachedChild(1).getParent());
+  }
+
+  @Test
+  public void decodeStructureResponse_shouldLeaveOtherFramesToProtobuf() {
+    byte[] values = Container.newBuilder().setMessageType(Container.Type.eGetterResponse)
+        .addGetterResponse(StudioAPI.VariantValue.newBuilder().setNodeId(1).setDValue(1)).build().toByteArray();
+    byte[] structure = Container.newBuilder().setMessageType(Container.Type.eStructureResponse)
+        .addStructureResponse(node(1, "App", StudioAPI.CDPNodeType.CDP_APPLICATION, signal(2, "Value")))
+        .build().toByteArray();
+
+    assertNull(LazyChildren.decodeStructureResponse(values, names));
+    assertNull(LazyChildren.decodeStructureResponse(Arrays.copyOf(structure, structure.length - 3), names));
+  }
+
+  private static StudioAPI.Node signal(int id, String name) {
+    return StudioAPI.Node.newBuilder().setInfo(StudioAPI.Info.newBuilder().setNodeId(id).setName(name)
+        .setNodeType(StudioAPI.CDPNodeType.CDP_OBJECT).setValueType(StudioAPI.CDPValueType.eDOUBLE)).build();
+  }
+
+  private static StudioAPI.Node node(int id, String name, StudioAPI.CDPNodeType type, StudioAPI.Node... children) {
+    return StudioAPI.Node.newBuilder().setInfo(StudioAPI.Info.newBuilder().setNodeId(id).setName(name)
+        .setNodeType(type).setValueType(StudioAPI.CDPValueType.eUNDEFINED)).addAllNode(Arrays.asList(children))
+        .build();
+  }
+}
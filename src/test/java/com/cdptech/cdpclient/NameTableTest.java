@@ -0,0 +1,54 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import com.cdptech.cdpclient.proto.StudioAPI.CDPNodeType;
+import com.cdptech.cdpclient.proto.StudioAPI.CDPValueType;
+import com.google.protobuf.ByteString;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class NameTableTest {
+
+  @Test
+  public void intern_shouldReturnSameInstanceForEqualNames() {
+    NameTable table = new NameTable(16);
+    String value = table.intern(ByteString.copyFromUtf8("Value"));
+    assertSame(value, table.intern(ByteString.copyFromUtf8("Value")));
+    assertEquals("Värde", table.intern(ByteString.copyFromUtf8("Värde")));
+    assertEquals("", table.intern(ByteString.EMPTY));
+    for (int i = 0; i < 100; i++)  // evicts some entries, but never returns a wrong name
+      assertEquals("Name" + i, table.intern(ByteString.copyFromUtf8("Name" + i)));
+  }
+
+  @Test
+  public void parseNodeData_shouldShareRepeatedNames() throws Exception {
+    IOHandler handler = new IOHandler(new Transport(URI.create("ws://127.0.0.1:7689"), new LinkedBlockingQueue<>(),
+        e -> {}));
+    StudioAPI.Node.Builder component = node(1, "Component", "CDPComponent");
+    for (int i = 0; i < 3; i++)
+      component.addNode(node(2 + i, "Gain" + i, "CDPParameter")
+          .addNode(node(10 + i, "Value", "")));
+    byte[] wire = component.build().toByteArray();
+
+    Node first = handler.parseNodeData(StudioAPI.Node.parseFrom(wire));
+    Node second = handler.parseNodeData(StudioAPI.Node.parseFrom(wire));
+    assertEquals("Gain1", first.getCachedChild(1).getName());
+    assertSame(first.getCachedChild(0).getTypeName(), second.getCachedChild(2).getTypeName());
+    assertSame(first.getCachedChild(0).getCachedChild(0).getName(),
+        second.getCachedChild(1).getCachedChild(0).getName());
+  }
+
+  private static StudioAPI.Node.Builder node(int id, String name, String typeName) {
+    return StudioAPI.Node.newBuilder().setInfo(StudioAPI.Info.newBuilder()
+        .setNodeId(id).setName(name).setTypeName(typeName)
+        .setNodeType(CDPNodeType.CDP_OBJECT).setValueType(CDPValueType.eUNDEFINED));
+  }
+}
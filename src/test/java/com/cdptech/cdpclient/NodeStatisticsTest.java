@@ -0,0 +1,72 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.simulator.ConnectedClient;
+import com.cdptech.cdpclient.simulator.StudioAPISimulator;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class NodeStatisticsTest {
+
+  private static final long SECOND_NS = TimeUnit.SECONDS.toNanos(1);
+
+  @Rule
+  public final ConnectedClient connection = new ConnectedClient();
+
+  @Test
+  public void rates_shouldConvergeToSteadyRateAndDecay() {
+    NodeStatistics statistics = new NodeStatistics();
+    long time = SECOND_NS;
+    for (int i = 0; i < 100 * 60; i++) {  // 100 values/s of 20 bytes for a minute, in frames of 10 values
+      if (i % 10 == 0)
+        time += SECOND_NS / 10;
+      statistics.recordSample(time, 20);
+    }
+    assertEquals(6000, statistics.getSampleCount());
+    assertEquals(120000, statistics.getByteCount());
+    assertEquals(100, statistics.getSampleRate(time), 2);
+    assertEquals(2000, statistics.getByteRate(time), 40);
+    assertEquals(100 / Math.E, statistics.getSampleRate(time + NodeStatistics.RATE_TIME_CONSTANT_NS), 1);
+  }
+
+  @Test
+  public void recordValueLatency_shouldCreateRecorderOnFirstSample() {
+    NodeStatistics statistics = new NodeStatistics();
+    statistics.recordSample(SECOND_NS, 20);
+    assertNull(statistics.getValueLatency());
+
+    statistics.recordValueLatency(TimeUnit.MILLISECONDS.toNanos(2));
+
+    assertEquals(1, statistics.getValueLatency().snapshot().getCount());
+  }
+
+  @Test
+  public void getHottestNodes_shouldOrderNodesByRate() throws Exception {
+    Client client = connection.connect(new StudioAPISimulator(0).setSignalsPerComponent(3),
+        c -> c.setValueRateTracking(true));
+    Node slow = client.findNodeBlocking("App0.Component0.Signal0", Duration.ofSeconds(5));
+    Node fast = client.findNodeBlocking("App0.Component0.Signal1", Duration.ofSeconds(5));
+    CountDownLatch received = new CountDownLatch(30);
+    client.threadSafe().subscribeToValueChanges(slow, value -> {}, 5);
+    client.threadSafe().subscribeToValueChanges(fast, value -> received.countDown(), 100);
+    assertTrue(received.await(5, TimeUnit.SECONDS));
+
+    List<NodeTraffic> hottest = client.threadSafe().getHottestNodes(10).get(5, TimeUnit.SECONDS);
+    assertEquals(2, hottest.size());
+    assertSame(fast, hottest.get(0).getNode());
+    assertSame(slow, hottest.get(1).getNode());
+    assertTrue(hottest.get(0).getByteCount() > hottest.get(0).getSampleCount());
+    assertEquals(1, client.threadSafe().submit(c -> c.getHottestNodes(1, NodeTraffic.BY_SAMPLE_RATE))
+        .get(5, TimeUnit.SECONDS).size());
+  }
+}
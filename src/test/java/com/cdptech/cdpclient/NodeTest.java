@@ -12,6 +12,10 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public class NodeTest {
 
   @Before
@@ -36,4 +40,39 @@ public class NodeTest {
     assertEquals("Application", app.getLongName());
   }
 
+  @Test
+  public void addNewChildrenAndRemoveChildrenWithIDs_shouldNotifyAncestorSubtreeListeners() {
+    Node app = node(1, "App");
+    Node component = node(2, "Component");
+    app.addChild(component);
+    List<String> events = new ArrayList<>();
+    app.setStructureSubscription(true);
+    app.addSubtreeListener((node, type) -> events.add(type + " " + node.getName()));
+
+    component.addNewChildren(Arrays.asList(node(3, "A"), node(4, "B")));
+    component.removeChildrenWithIDs(new int[] {3}, 1, null);
+
+    assertEquals(Arrays.asList("eChildAdded A", "eChildAdded B", "eChildRemoved A"), events);
+    assertEquals(1, component.getChildCount());
+  }
+
+  @Test
+  public void removeChildrenWithIDs_shouldNotifyListenersAfterRemovingAllChildren() {
+    Node component = node(2, "Component");
+    component.addNewChildren(Arrays.asList(node(3, "A"), node(4, "B"), node(5, "C")));
+    List<Integer> childCounts = new ArrayList<>();
+    component.setStructureSubscription(true);
+    component.addSubtreeListener((node, type) -> childCounts.add(component.getChildCount()));
+
+    List<Node> removed = new ArrayList<>();
+    component.removeChildrenWithIDs(new int[] {3, 4}, 2, removed);
+
+    assertEquals(Arrays.asList(1, 1), childCounts);
+    assertEquals(2, removed.size());
+  }
+
+  private static Node node(int id, String name) {
+    return new Node(id, StudioAPI.CDPNodeType.CDP_COMPONENT, StudioAPI.CDPValueType.eUNDEFINED, name, 0);
+  }
+
 }
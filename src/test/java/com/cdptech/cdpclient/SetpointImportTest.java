@@ -0,0 +1,112 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.simulator.ConnectedClient;
+import com.cdptech.cdpclient.simulator.StudioAPISimulator;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class SetpointImportTest {
+
+  @Rule
+  public final ConnectedClient connection = new ConnectedClient();
+
+  @Test
+  public void parse_shouldMatchJdkNumberParsing() throws Exception {
+    String[] numbers = {"0", "-0.0", "+12", "007", "1.5", "-2.25e3", "1E-5", "123456789012345678", "9223372036854775808",
+        "12345678901234567890", "-12345678901234567890",
+        "0.1", "3.141592653589793238", "1e300", "4.9e-324", ".5", "5."};
+    Random random = new Random(1);
+    StringBuilder csv = new StringBuilder("path,value\n");
+    for (String number : numbers)
+      csv.append("App.Component.Signal,").append(number).append('\n');
+    for (int i = 0; i < 10000; i++)
+      csv.append("App.Component.Signal,").append(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20)).append('\n');
+    SetpointImport setpoints = parse(csv.toString());
+
+    assertEquals(numbers.length + 10000, setpoints.getRowCount());
+    for (int i = 0; i < numbers.length; i++) {
+      assertEquals(numbers[i], Double.parseDouble(numbers[i]), setpoints.getNumber(i), 0);
+    }
+    String[] rows = csv.toString().split("\n");
+    for (int i = numbers.length; i < setpoints.getRowCount(); i++) {
+      double expected = Double.parseDouble(rows[i + 1].substring(rows[i + 1].indexOf(',') + 1));
+      assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(setpoints.getNumber(i)));
+    }
+    assertTrue(Double.isNaN(parse("A.B,true\nA.C,\"1,5\"\nA.D,1e\n").getNumber(2)));
+  }
+
+  @Test
+  public void post_shouldSendValuesAndReportFailures() throws Exception {
+    StudioAPISimulator simulator = new StudioAPISimulator(0)
+        .setApplicationCount(2)
+        .setComponentsPerApplication(50)
+        .setSignalsPerComponent(500);
+    Client client = connection.connect(simulator);
+    StringBuilder csv = new StringBuilder("# recipe\n");
+    for (int a = 0; a < 2; a++)
+      for (int c = 0; c < 50; c++)
+        for (int s = 0; s < 500; s++)
+          csv.append("App").append(a).append(".Component").append(c).append(".Signal").append(s).append(',')
+              .append(a + c * 0.5 + s * 0.001).append("\r\n");
+    csv.append("App0.Component0.Missing,1\nApp0.Component0.Signal0,abc\nApp0.Component0\n");
+    byte[] file = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+    SetpointImport setpoints = SetpointImport.parse(new ByteArrayInputStream(file));
+    SetpointImport.Result result = setpoints.post(client.threadSafe()).get(10, TimeUnit.SECONDS);
+
+    assertEquals(50_002, setpoints.getRowCount());
+    assertEquals(49_999, result.getPostedCount());
+    assertEquals(3, result.getFailures().size());
+    assertTrue(result.getFailures().contains("line 50004: missing value"));
+    assertTrue(result.getFailures().contains("line 50002: App0.Component0.Missing: not found"));
+    assertTrue(result.getFailures().stream().anyMatch(f -> f.startsWith("line 50003: App0.Component0.Signal0: ")));
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (simulator.getSetterCount() < 49_999 && System.nanoTime() < deadline)
+      Thread.sleep(10);
+    assertEquals(49_999, simulator.getSetterCount());
+    assertEquals(1 + 49 * 0.5 + 499 * 0.001, simulator.find("App1.Component49.Signal499").getValue(), 0);
+  }
+
+  @Test
+  public void post_shouldWriteUnsignedIntegerAboveLongRangeAsDoubleToDoubleNode() throws Exception {
+    StudioAPISimulator simulator = new StudioAPISimulator(0);
+    Client client = connection.connect(simulator);
+
+    SetpointImport.Result result = parse("App0.Component0.Signal0,12345678901234567890\n")
+        .post(client.threadSafe()).get(5, TimeUnit.SECONDS);
+
+    assertEquals(1, result.getPostedCount());
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (simulator.getSetterCount() < 1 && System.nanoTime() < deadline)
+      Thread.sleep(10);
+    assertEquals(12345678901234567890.0, simulator.find("App0.Component0.Signal0").getValue(), 0);
+  }
+
+  @Test
+  public void post_shouldReportParseFailuresWhenNoRowIsValid() throws Exception {
+    Client client = connection.connect(new StudioAPISimulator(0));
+    for (String csv : new String[] {"", "path,value\n"}) {
+      SetpointImport.Result result = parse(csv).post(client.threadSafe()).get(5, TimeUnit.SECONDS);
+      assertEquals(0, result.getPostedCount());
+      assertTrue(result.getFailures().isEmpty());
+    }
+    SetpointImport.Result result = parse("garbage line\n").post(client.threadSafe()).get(5, TimeUnit.SECONDS);
+    assertEquals(0, result.getPostedCount());
+    assertEquals(1, result.getFailures().size());
+  }
+
+  private static SetpointImport parse(String csv) throws Exception {
+    return SetpointImport.parse(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -0,0 +1,65 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.simulator.ConnectedClient;
+import com.cdptech.cdpclient.simulator.StudioAPISimulator;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class StructureCacheTest {
+
+  @Rule
+  public final ConnectedClient connection = new ConnectedClient();
+
+  @Test
+  public void childrenReceived_shouldEvictLeastRecentlyUsedUnsubscribedSubtrees() throws Exception {
+    StudioAPISimulator simulator = new StudioAPISimulator(0)
+        .setApplicationCount(1)
+        .setComponentsPerApplication(10)
+        .setSignalsPerComponent(10);
+    ThreadSafeClient facade = connection.connect(simulator, c -> c.setStructureCacheBudget(25)).threadSafe();
+    Node subscribed = facade.findNode("App0.Component0.Signal0").get(5, TimeUnit.SECONDS);
+    facade.subscribeToDoubleValues(subscribed, (value, timestamp) -> {}, 10).get(5, TimeUnit.SECONDS);
+    Node evicted = facade.findNode("App0.Component1.Signal0").get(5, TimeUnit.SECONDS);
+    for (int c = 2; c <= 5; c++)
+      facade.findNode("App0.Component" + c + ".Signal0").get(5, TimeUnit.SECONDS);
+
+    assertEquals(30, (int) facade.submit(c -> c.getStructureCache().getSize()).get(5, TimeUnit.SECONDS));
+    assertEquals(4, (long) facade.submit(c -> c.getStructureCache().getEvictionCount()).get(5, TimeUnit.SECONDS));
+    assertTrue(subscribed.getParent().hasPolledChildren());
+    assertFalse(evicted.getParent().hasPolledChildren());
+    assertEquals(0, (int) facade.submit(c -> evicted.getParent().getChildCount()).get(5, TimeUnit.SECONDS));
+
+    Node refetched = facade.findNode("App0.Component1.Signal3").get(5, TimeUnit.SECONDS);
+    assertEquals("App0.Component1.Signal3", refetched.getLongName());
+    assertSame(evicted.getParent(), refetched.getParent());
+  }
+
+  @Test
+  public void childrenReceived_shouldKeepSubtreesWatchedByAncestorListeners() throws Exception {
+    StudioAPISimulator simulator = new StudioAPISimulator(0)
+        .setApplicationCount(1)
+        .setComponentsPerApplication(10)
+        .setSignalsPerComponent(10);
+    ThreadSafeClient facade = connection.connect(simulator, c -> c.setStructureCacheBudget(25)).threadSafe();
+    Node watched = facade.findNode("App0").get(5, TimeUnit.SECONDS);
+    facade.submit(c -> {
+      watched.addSubtreeBatchListener((parent, added, removed) -> {});
+      return null;
+    }).get(5, TimeUnit.SECONDS);
+    Node child = facade.findNode("App0.Component1.Signal0").get(5, TimeUnit.SECONDS);
+    for (int c = 2; c <= 5; c++)
+      facade.findNode("App0.Component" + c + ".Signal0").get(5, TimeUnit.SECONDS);
+
+    assertEquals(0, (long) facade.submit(c -> c.getStructureCache().getEvictionCount()).get(5, TimeUnit.SECONDS));
+    assertTrue(child.getParent().hasPolledChildren());
+    assertSame(child, facade.findNode("App0.Component1.Signal0").get(5, TimeUnit.SECONDS));
+  }
+}
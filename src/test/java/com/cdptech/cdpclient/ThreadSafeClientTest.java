@@ -0,0 +1,132 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class ThreadSafeClientTest {
+
+  private Client client;
+  private Thread eventLoop;
+
+  @Before
+  public void setUp() throws Exception {
+    client = new Client();
+    eventLoop = new Thread(client);
+    eventLoop.start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    client.threadSafe().close();
+    eventLoop.join(1000);
+  }
+
+  @Test
+  public void submit_shouldRunCommandsOnEventLoopInOrder() throws Exception {
+    List<Integer> executed = new ArrayList<>();
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    Thread[] producers = new Thread[4];
+    for (int t = 0; t < producers.length; t++) {
+      producers[t] = new Thread(() -> {
+        for (int i = 0; i < 1000; i++) {
+          synchronized (futures) {  // queue in the order of the submission index
+            int index = futures.size();
+            futures.add(client.threadSafe().execute(c -> {
+              assertSame(eventLoop, Thread.currentThread());
+              executed.add(index);
+            }));
+          }
+        }
+      });
+      producers[t].start();
+    }
+    for (Thread producer : producers)
+      producer.join();
+
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 4000; i++)
+      expected.add(i);
+    assertEquals(expected, executed);
+  }
+
+  @Test
+  public void submit_shouldFailFutureWhenCommandThrows() throws Exception {
+    CompletableFuture<Object> future = client.threadSafe().submit(c -> {
+      throw new UnsupportedOperationException("test");
+    });
+    try {
+      future.get(5, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof UnsupportedOperationException);
+    }
+  }
+
+  @Test
+  public void submit_shouldFailFutureAndKeepEventLoopRunningWhenCommandThrowsError() throws Exception {
+    CompletableFuture<Object> future = client.threadSafe().submit(c -> {
+      throw new AssertionError("test");
+    });
+    try {
+      future.get(5, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof AssertionError);
+    }
+    assertEquals(42, (int) client.threadSafe().submit(c -> 42).get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void close_shouldFailCommandsQueuedBehindIt() throws Exception {
+    ThreadSafeClient facade = client.threadSafe();
+    CompletableFuture<Void> closed = facade.close();
+    List<CompletableFuture<Integer>> queued = new ArrayList<>();
+    for (int i = 0; i < 100; i++)
+      queued.add(facade.submit(c -> 1));
+
+    closed.get(5, TimeUnit.SECONDS);
+    eventLoop.join(1000);
+    for (CompletableFuture<Integer> future : queued) {
+      try {
+        future.get(5, TimeUnit.SECONDS);
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof IllegalStateException);
+      }
+    }
+    assertTrue(facade.submit(c -> 1).isCompletedExceptionally());
+  }
+
+  @Test
+  public void findNodeBlocking_shouldRefuseToBlockEventLoop() throws Exception {
+    CompletableFuture<Node> future = client.threadSafe().submit(c -> {
+      try {
+        return c.findNodeBlocking("App.Signal", Duration.ofSeconds(1));
+      } catch (InterruptedException | TimeoutException e) {
+        throw new AssertionError(e);
+      }
+    });
+    try {
+      future.get(5, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+}
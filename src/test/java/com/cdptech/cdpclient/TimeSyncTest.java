@@ -0,0 +1,74 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class TimeSyncTest {
+
+  private static final long START_NS = 1_700_000_000_000_000_000L;
+  private static final double SERVER_DRIFT = 50e-6;
+
+  private final Random random = new Random(1);
+  private long nowNs = START_NS;
+  private long serverStepNs = -3_000_000_000L;
+  private boolean requested;
+  private final TimeSync timeSync = new TimeSync(() -> requested = true, () -> nowNs);
+
+  @Test
+  public void refreshDeltaIfNeeded_shouldTrackServerDriftWithSubMillisecondError() {
+    run(TimeUnit.MINUTES.toNanos(5));
+
+    assertEquals(SERVER_DRIFT * 1e6, timeSync.getDriftPpm(), 5);
+    for (int i = 0; i < 100; i++) {
+      run(TimeUnit.SECONDS.toNanos(1));
+      long errorNs = Math.abs(timeSync.getDeltaNs() - trueDeltaNs());
+      assertTrue("error " + errorNs, errorNs < TimeUnit.MICROSECONDS.toNanos(500));
+      assertTrue(errorNs <= timeSync.getErrorBoundNs());
+    }
+    assertTrue(timeSync.getErrorBoundNs() < TimeUnit.MILLISECONDS.toNanos(1));
+    assertTrue(timeSync.getRefreshPeriodNs() > TimeUnit.SECONDS.toNanos(10));
+  }
+
+  @Test
+  public void refreshDeltaIfNeeded_shouldRestartModelOnClockStep() {
+    run(TimeUnit.MINUTES.toNanos(5));
+    serverStepNs += TimeUnit.SECONDS.toNanos(1);
+
+    run(TimeUnit.MINUTES.toNanos(2));
+
+    assertTrue(Math.abs(timeSync.getDeltaNs() - trueDeltaNs()) < TimeUnit.MILLISECONDS.toNanos(1));
+  }
+
+  /** Run an event loop with a 10 ms period, answering time requests over a network with jitter. */
+  private void run(long durationNs) {
+    long endNs = nowNs + durationNs;
+    while (nowNs < endNs) {
+      nowNs += TimeUnit.MILLISECONDS.toNanos(10);
+      timeSync.refreshDeltaIfNeeded();
+      while (requested) {
+        requested = false;
+        nowNs += oneWayDelayNs();
+        long serverTimeNs = nowNs - trueDeltaNs();
+        nowNs += oneWayDelayNs();
+        timeSync.responseReceived(serverTimeNs);
+      }
+    }
+    timeSync.refreshDeltaIfNeeded();
+  }
+
+  private long oneWayDelayNs() {
+    return 200_000 + (long) (-Math.log(1 - random.nextDouble()) * 300_000);
+  }
+
+  private long trueDeltaNs() {
+    return -serverStepNs - (long) ((nowNs - START_NS) * SERVER_DRIFT);
+  }
+}
@@ -0,0 +1,66 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.simulator.ConnectedClient;
+import com.cdptech.cdpclient.simulator.StudioAPISimulator;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class TrafficReplayTest {
+
+  @Rule
+  public final ConnectedClient connection = new ConnectedClient().withCredentials("operator", "secret");
+
+  @Test
+  public void replay_shouldReproduceTheCapturedSession() throws Exception {
+    File file = File.createTempFile("cdpclient", ".cap");
+    try {
+      Client client = connection.connect(new StudioAPISimulator(0).setCredentials("operator", "secret"), c -> {
+        c.setValueRateTracking(true);
+        c.startCapture(file);
+      });
+      Node signal = client.findNodeBlocking("App0.Component0.Signal0", Duration.ofSeconds(5));
+      CountDownLatch received = new CountDownLatch(10);
+      client.threadSafe().subscribeToValueChanges(signal, value -> received.countDown(), 100);
+      assertTrue(received.await(5, TimeUnit.SECONDS));
+      long liveSampleCount = client.threadSafe().submit(c -> {
+        c.stopCapture();
+        return c.getHottestNodes(1).get(0).getSampleCount();
+      }).get(5, TimeUnit.SECONDS);
+      connection.close();
+
+      TrafficReplay replay = new TrafficReplay(file).setSpeed(TrafficReplay.AS_FAST_AS_POSSIBLE);
+      replay.getClient().setValueRateTracking(true);
+      CountDownLatch replayReady = new CountDownLatch(1);
+      replay.run(new NotificationListener() {
+        @Override
+        public void clientReady(Client client) {
+          replayReady.countDown();
+        }
+
+        @Override
+        public void clientClosed(Client client) {
+        }
+      });
+      assertEquals(0, replayReady.getCount());
+      assertTrue(replay.getFramesReplayed() > 10);
+      List<NodeTraffic> hottest = replay.getClient().getHottestNodes(1);
+      assertEquals("App0.Component0.Signal0", hottest.get(0).getLongName());
+      assertTrue(hottest.get(0).getSampleCount() >= liveSampleCount);
+      replay.getClient().close();
+    } finally {
+      assertTrue(file.delete());
+    }
+  }
+}
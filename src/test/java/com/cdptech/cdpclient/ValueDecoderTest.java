@@ -0,0 +1,92 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import com.cdptech.cdpclient.proto.StudioAPI.CDPValueType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ValueDecoderTest {
+
+  @Test
+  public void decode_shouldMatchProtobufForEveryPrimitiveType() {
+    List<StudioAPI.VariantValue> values = new ArrayList<>();
+    values.add(value(1).setDValue(-1.5).setTimestamp(1_700_000_000_123_456_789L).build());
+    values.add(value(2).setFValue(2.25f).build());
+    values.add(value(3).setUi64Value(-1L).build());
+    values.add(value(4).setI64Value(Long.MIN_VALUE).build());
+    values.add(value(5).setUiValue(0xFFFFFFFE).build());
+    values.add(value(6).setIValue(-300).build());
+    values.add(value(7).setUsValue(65535).build());
+    values.add(value(8).setSValue(-2).build());
+    values.add(value(9).setUcValue(255).build());
+    values.add(value(10).setCValue(-128).build());
+    values.add(value(300).setBValue(true).setTimestamp(5).build());
+    values.add(value(11).setDValue(0.5).setTimestamp(0).build());
+    byte[] frame = StudioAPI.Container.newBuilder()
+        .setMessageType(StudioAPI.Container.Type.eGetterResponse)
+        .addAllGetterResponse(values)
+        .build().toByteArray();
+
+    ValueDecoder decoder = new ValueDecoder();
+    assertEquals(values.size(), decoder.countPrimitiveValues(frame));
+    List<Variant> decoded = new ArrayList<>();
+    decoder.decode(frame, (nodeId, type, bits, timestamp, encodedSize) -> {
+      StudioAPI.VariantValue expected = values.get(decoded.size());
+      assertEquals(expected.getNodeId(), nodeId);
+      assertEquals(expected.hasTimestamp() ? expected.getTimestamp() : Variant.NO_TIMESTAMP, timestamp);
+      assertEquals(expected.getSerializedSize(), encodedSize);
+      decoded.add(Variant.ofBits(type, bits, timestamp == Variant.NO_TIMESTAMP ? 0 : timestamp));
+    });
+    for (int i = 0; i < values.size(); i++) {
+      Variant expected = IOHandler.createVariant(values.get(i), 0);
+      assertEquals(expected.getValueType(), decoded.get(i).getValueType());
+      assertEquals(expected.<Object>getValue(), decoded.get(i).getValue());
+      assertEquals(expected.getTimestamp(), decoded.get(i).getTimestamp());
+    }
+  }
+
+  @Test
+  public void toDouble_shouldReadUnsignedValues() {
+    assertEquals(18446744073709551615.0, ValueDecoder.toDouble(CDPValueType.eUINT64, -1L), 0);
+    assertEquals(4294967294.0, ValueDecoder.toDouble(CDPValueType.eUINT, 0xFFFFFFFE), 0);
+    assertEquals(-300, ValueDecoder.toDouble(CDPValueType.eINT, -300), 0);
+  }
+
+  @Test
+  public void countPrimitiveValues_shouldLeaveOtherContainersToProtobuf() {
+    ValueDecoder decoder = new ValueDecoder();
+    byte[] string = StudioAPI.Container.newBuilder()
+        .setMessageType(StudioAPI.Container.Type.eGetterResponse)
+        .addGetterResponse(value(1).setStrValue("text"))
+        .build().toByteArray();
+    assertEquals(-1, decoder.countPrimitiveValues(string));
+    byte[] noValue = StudioAPI.Container.newBuilder()
+        .setMessageType(StudioAPI.Container.Type.eGetterResponse)
+        .addGetterResponse(value(1))
+        .build().toByteArray();
+    assertEquals(-1, decoder.countPrimitiveValues(noValue));
+    byte[] structureChange = StudioAPI.Container.newBuilder()
+        .setMessageType(StudioAPI.Container.Type.eStructureChangeResponse)
+        .addStructureChangeResponse(1)
+        .build().toByteArray();
+    assertEquals(-1, decoder.countPrimitiveValues(structureChange));
+    byte[] truncated = StudioAPI.Container.newBuilder()
+        .setMessageType(StudioAPI.Container.Type.eGetterResponse)
+        .addGetterResponse(value(1).setDValue(1))
+        .build().toByteArray();
+    assertEquals(-1, decoder.countPrimitiveValues(java.util.Arrays.copyOf(truncated, truncated.length - 1)));
+  }
+
+  private static StudioAPI.VariantValue.Builder value(int nodeId) {
+    return StudioAPI.VariantValue.newBuilder().setNodeId(nodeId);
+  }
+}
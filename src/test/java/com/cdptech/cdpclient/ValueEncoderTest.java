@@ -0,0 +1,70 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+
+import org.junit.Test;
+
+public class ValueEncoderTest {
+
+  @Test
+  public void encodeSetterRequest_shouldMatchProtobufEncoding() throws Exception {
+    Node node = new Node(300, StudioAPI.CDPNodeType.CDP_PROPERTY, StudioAPI.CDPValueType.eSHORT, "Offset", 0);
+    byte[] encoded = ValueEncoder.encodeSetterRequest(300, node.getValueType(), ValueEncoder.fromLong(node, -12));
+
+    StudioAPI.Container expected = StudioAPI.Container.newBuilder()
+        .setMessageType(StudioAPI.Container.Type.eSetterRequest)
+        .addSetterRequest(StudioAPI.VariantValue.newBuilder().setNodeId(300).setSValue(-12))
+        .build();
+    assertArrayEquals(expected.toByteArray(), encoded);
+  }
+
+  @Test
+  public void encodeSetterRequest_shouldRoundTripDouble() throws Exception {
+    Node node = new Node(1, StudioAPI.CDPNodeType.CDP_PROPERTY, StudioAPI.CDPValueType.eDOUBLE, "Gain", 0);
+    byte[] encoded = ValueEncoder.encodeSetterRequest(1, node.getValueType(), ValueEncoder.fromDouble(node, 0.25));
+
+    StudioAPI.VariantValue value = StudioAPI.Container.parseFrom(encoded).getSetterRequest(0);
+    assertEquals(1, value.getNodeId());
+    assertEquals(0.25, value.getDValue(), 0);
+  }
+
+  @Test
+  public void fromDouble_shouldConvertWholeNumbersInInt64Range() {
+    Node int64 = new Node(1, StudioAPI.CDPNodeType.CDP_PROPERTY, StudioAPI.CDPValueType.eINT64, "Count", 0);
+    Node uint64 = new Node(2, StudioAPI.CDPNodeType.CDP_PROPERTY, StudioAPI.CDPValueType.eUINT64, "Total", 0);
+    assertEquals(-42, ValueEncoder.fromDouble(int64, -42));
+    assertEquals(Long.MIN_VALUE, ValueEncoder.fromDouble(int64, -0x1p63));
+    assertEquals(Long.MIN_VALUE + 2048, ValueEncoder.fromDouble(uint64, 0x1p63 + 2048));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void fromDouble_shouldRejectValueAboveInt64Range() {
+    Node node = new Node(1, StudioAPI.CDPNodeType.CDP_PROPERTY, StudioAPI.CDPValueType.eINT64, "Count", 0);
+    ValueEncoder.fromDouble(node, 0x1p63);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void fromDouble_shouldRejectValueAboveUint64Range() {
+    Node node = new Node(1, StudioAPI.CDPNodeType.CDP_PROPERTY, StudioAPI.CDPValueType.eUINT64, "Total", 0);
+    ValueEncoder.fromDouble(node, 0x1p64);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void fromDouble_shouldRejectStringNodeForFractionalValue() {
+    Node node = new Node(1, StudioAPI.CDPNodeType.CDP_PROPERTY, StudioAPI.CDPValueType.eSTRING, "Text", 0);
+    ValueEncoder.fromDouble(node, 0.5);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void fromLong_shouldRejectOutOfRangeValue() {
+    Node node = new Node(1, StudioAPI.CDPNodeType.CDP_PROPERTY, StudioAPI.CDPValueType.eUCHAR, "Mode", 0);
+    ValueEncoder.fromLong(node, 256);
+  }
+
+}
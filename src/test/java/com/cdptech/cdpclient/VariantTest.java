@@ -0,0 +1,74 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import com.cdptech.cdpclient.proto.StudioAPI.CDPValueType;
+
+import org.junit.Test;
+
+import java.time.Instant;
+
+public class VariantTest {
+
+  @Test
+  public void typedAccessors_shouldReadPrimitiveValuesWithoutBoxing() {
+    Variant value = Variant.ofBits(CDPValueType.eDOUBLE, Double.doubleToRawLongBits(-2.75), 1_500_000_001L);
+    assertEquals(-2.75, value.getDouble(), 0);
+    assertEquals(-2, value.getLong());
+    assertEquals(1_500_000_001L, value.getTimestampNanos());
+    assertEquals(Instant.ofEpochSecond(1, 500_000_001), value.getTimestamp());
+    assertEquals(-2.75, (Double) value.getValue(), 0);
+
+    Variant unsigned = Variant.ofBits(CDPValueType.eUINT, 0xFFFFFFFF, 0);
+    assertEquals(0xFFFFFFFFL, unsigned.getLong());
+    assertEquals(-1, (int) (Integer) unsigned.getValue());
+    assertEquals(Instant.EPOCH, unsigned.getTimestamp());
+    assertEquals(1, Variant.ofBits(CDPValueType.eBOOL, 1, 0).getDouble(), 0);
+    assertEquals(Boolean.TRUE, Variant.ofBits(CDPValueType.eBOOL, 1, 0).getValue());
+  }
+
+  @Test
+  public void builder_shouldKeepItsValueAndTimestamp() {
+    Variant built = new Variant.Builder(CDPValueType.eSHORT).parse("-7").build();
+    assertEquals(Short.valueOf((short) -7), built.getValue());
+    assertEquals(-7, built.getLong());
+    assertNull(built.getTimestamp());
+    assertEquals(0, built.getTimestampNanos());
+
+    Instant time = Instant.ofEpochSecond(1_700_000_000L, 42);
+    Variant timed = new Variant.Builder(CDPValueType.eSTRING).parse("text").setTimestamp(time).build();
+    assertEquals("text", timed.getValue());
+    assertEquals(time, timed.getTimestamp());
+    assertEquals(1_700_000_000_000_000_042L, timed.getTimestampNanos());
+  }
+
+  @Test
+  public void copy_shouldDetachReusableVariant() {
+    ReusableVariant reusable = new ReusableVariant().set(CDPValueType.eINT, -5, 1_000_000_000L);
+    Variant copy = reusable.copy();
+    reusable.set(CDPValueType.eDOUBLE, Double.doubleToRawLongBits(0.5), 2_000_000_000L);
+    assertEquals(CDPValueType.eINT, copy.getValueType());
+    assertEquals(-5, copy.getLong());
+    assertEquals(Instant.ofEpochSecond(1), copy.getTimestamp());
+    assertEquals(0.5, reusable.getDouble(), 0);
+    assertEquals(Instant.ofEpochSecond(2), reusable.getTimestamp());
+    assertSame(copy, copy.copy());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void getDouble_shouldRejectString() {
+    new Variant.Builder(CDPValueType.eSTRING).parse("text").build().getDouble();
+  }
+
+  @Test
+  public void encodeValue_shouldEncodeBuiltUnsignedShort() {
+    Node node = new Node(9, StudioAPI.CDPNodeType.CDP_PROPERTY, CDPValueType.eUSHORT, "Count", 0);
+    Variant value = new Variant.Builder(CDPValueType.eUSHORT).parse("65535").build();
+    assertEquals(65535, IOHandler.encodeValue(node, value).getUsValue());
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import org.junit.Test;
+
+import java.util.List;
+
+public class WriteCoalescerTest {
+
+  private static final long INTERVAL_NS = 5_000_000;
+
+  private long nowNs = 1_000_000_000;
+  private final WriteCoalescer coalescer = new WriteCoalescer(() -> nowNs);
+
+  @Test
+  public void add_shouldKeepLastValuePerNodeInFirstWriteOrder() {
+    coalescer.setFlushInterval(INTERVAL_NS);
+    coalescer.add(value(1, 1.0));
+    coalescer.add(value(2, 2.0));
+    coalescer.add(value(1, 3.0));
+    coalescer.add(value(1, 4.0));
+
+    List<StudioAPI.VariantValue> writes = coalescer.drain();
+
+    assertEquals(2, writes.size());
+    assertEquals(1, writes.get(0).getNodeId());
+    assertEquals(4.0, writes.get(0).getDValue(), 0);
+    assertEquals(2, writes.get(1).getNodeId());
+    assertEquals(2.0, writes.get(1).getDValue(), 0);
+    assertEquals(2, coalescer.getSupersededWriteCount());
+    assertFalse(coalescer.hasPendingWrites());
+  }
+
+  @Test
+  public void isFlushDue_shouldWaitForIntervalFromOldestPendingWrite() {
+    coalescer.setFlushInterval(INTERVAL_NS);
+    assertFalse(coalescer.isFlushDue());
+
+    coalescer.add(value(1, 1.0));
+    nowNs += INTERVAL_NS - 1;
+    coalescer.add(value(2, 2.0));
+    assertFalse(coalescer.isFlushDue());
+
+    nowNs += 1;
+    assertTrue(coalescer.isFlushDue());
+
+    coalescer.drain();
+    assertFalse(coalescer.isFlushDue());
+    coalescer.add(value(1, 1.0));
+    assertFalse(coalescer.isFlushDue());
+  }
+
+  @Test
+  public void isFlushDue_shouldFlushImmediatelyWhenDisabled() {
+    coalescer.setFlushInterval(INTERVAL_NS);
+    coalescer.add(value(1, 1.0));
+
+    coalescer.setFlushInterval(0);
+
+    assertFalse(coalescer.isEnabled());
+    assertTrue(coalescer.isFlushDue());
+  }
+
+  @Test
+  public void getSupersededWriteCount_shouldAccumulateOverDrains() {
+    coalescer.setFlushInterval(INTERVAL_NS);
+    coalescer.add(value(1, 1.0));
+    coalescer.add(value(1, 2.0));
+    coalescer.drain();
+    coalescer.add(value(1, 3.0));
+    assertEquals(1, coalescer.getSupersededWriteCount());
+
+    coalescer.add(value(1, 4.0));
+
+    assertEquals(2, coalescer.getSupersededWriteCount());
+  }
+
+  private static StudioAPI.VariantValue value(int nodeID, double value) {
+    return StudioAPI.VariantValue.newBuilder().setNodeId(nodeID).setDValue(value).build();
+  }
+}
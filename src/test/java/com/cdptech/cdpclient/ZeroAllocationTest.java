@@ -0,0 +1,159 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import com.cdptech.cdpclient.proto.StudioAPI.CDPNodeType;
+import com.cdptech.cdpclient.proto.StudioAPI.CDPValueType;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Guards the steady-state zero allocation guarantee for primitive values received by DoubleValueListeners, or
+ * by ValueListeners with reusable values: decode, node lookup, statistics and dispatch on the event loop must
+ * not allocate. Runs with the default configuration, including time sync: time requests are answered during
+ * warm-up, so the fitted clock model is evaluated for every measured frame.
+ */
+public class ZeroAllocationTest {
+
+  private static final int SIGNALS = 100;
+  private static final int VALUES_PER_FRAME = 10;
+  private static final int FRAMES = 2_000_000;
+
+  private double sum;
+  private long received;
+  private int pendingTimeRequests;
+
+  @Test
+  public void primitiveValueDispatch_shouldNotAllocate() {
+    assertDispatchDoesNotAllocate(false);
+  }
+
+  @Test
+  public void reusableValueDispatch_shouldNotAllocate() {
+    assertDispatchDoesNotAllocate(true);
+  }
+
+  private void assertDispatchDoesNotAllocate(boolean reusableValues) {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+    Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+
+    IOHandler handler = createStack(reusableValues);
+    byte[][] frames = new byte[SIGNALS / VALUES_PER_FRAME][];
+    for (int f = 0; f < frames.length; f++) {
+      StudioAPI.Container.Builder container = StudioAPI.Container.newBuilder()
+          .setMessageType(StudioAPI.Container.Type.eGetterResponse);
+      for (int v = 0; v < VALUES_PER_FRAME; v++)
+        container.addGetterResponse(StudioAPI.VariantValue.newBuilder()
+            .setNodeId(firstSignalId() + f * VALUES_PER_FRAME + v)
+            .setDValue(v * 0.5)
+            .setTimestamp(1_700_000_000_000_000_000L + f));
+      frames[f] = container.build().toByteArray();
+    }
+
+    for (int i = 0; i < 200_000; i++) {  // warm up lookups, lazily created statistics, time sync and the JIT
+      handler.parse(frames[i % frames.length]);
+      answerTimeRequests(handler);
+    }
+    assertTrue(handler.getTimeSyncErrorBoundNs() >= 0);
+    long threadId = Thread.currentThread().getId();
+    long before = threads.getThreadAllocatedBytes(threadId);
+    long overhead = threads.getThreadAllocatedBytes(threadId) - before;
+    before = threads.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < FRAMES; i++)
+      handler.parse(frames[i % frames.length]);
+    long allocated = threads.getThreadAllocatedBytes(threadId) - before - overhead;
+
+    assertEquals((200_000L + FRAMES) * VALUES_PER_FRAME, received);
+    assertTrue(sum > 0);
+    assertTrue("Allocated " + allocated + " bytes for " + FRAMES + " frames", allocated < 1024);
+  }
+
+  private IOHandler createStack(boolean reusableValues) {
+    Transport transport = new Transport(URI.create("ws://127.0.0.1:7689"), new LinkedBlockingQueue<>(), e -> {}) {
+      @Override
+      public void send(byte[] data) {
+        pendingTimeRequests++;  // answering the few structure and getter requests too does not disturb time sync
+      }
+    };
+    IOHandler handler = new IOHandler(transport);
+    Client client = new Client();
+    client.setNotificationListener(new NotificationListener() {
+      public void clientReady(Client client) {}
+      public void clientClosed(Client client) {}
+    });
+    RequestDispatch dispatch = new RequestDispatch(client, handler);
+    dispatch.setValueLatencyTracking(true);
+    dispatch.setValueRateTracking(true);
+    dispatch.setReusableValues(reusableValues);
+    handler.setDispatch(dispatch);
+
+    StudioAPI.Node.Builder component = node(2, "Component", CDPNodeType.CDP_COMPONENT, CDPValueType.eUNDEFINED);
+    for (int s = 0; s < SIGNALS; s++)
+      component.addNode(node(firstSignalId() + s, "Signal" + s, CDPNodeType.CDP_BASE_OBJECT, CDPValueType.eDOUBLE));
+    StudioAPI.Node.Builder system = node(0, "System", CDPNodeType.CDP_SYSTEM, CDPValueType.eUNDEFINED)
+        .addNode(node(1, "App", CDPNodeType.CDP_APPLICATION, CDPValueType.eUNDEFINED));
+    handler.parse(structureResponse(system));
+    handler.parse(structureResponse(node(1, "App", CDPNodeType.CDP_APPLICATION, CDPValueType.eUNDEFINED)
+        .addNode(node(2, "Component", CDPNodeType.CDP_COMPONENT, CDPValueType.eUNDEFINED))));
+    handler.parse(structureResponse(component));
+
+    DoubleValueListener doubleListener = (value, timestampNs) -> {
+      sum += value + 1;
+      received++;
+    };
+    ValueListener listener = value -> {
+      sum += value.getDouble() + 1;
+      received++;
+    };
+    for (int s = 0; s < SIGNALS; s++) {
+      Node node = dispatch.findNodeByID(firstSignalId() + s);
+      if (reusableValues)
+        node.subscribeToValueChanges(listener, 10);
+      else
+        node.subscribeToDoubleValues(doubleListener, 10);
+    }
+    return handler;
+  }
+
+  private void answerTimeRequests(IOHandler handler) {
+    while (pendingTimeRequests > 0) {
+      pendingTimeRequests--;
+      handler.parse(StudioAPI.Container.newBuilder()
+          .setMessageType(StudioAPI.Container.Type.eCurrentTimeResponse)
+          .setCurrentTimeResponse(WallClock.epochNanos())
+          .build().toByteArray());
+    }
+  }
+
+  private static int firstSignalId() {
+    return 3;
+  }
+
+  private static StudioAPI.Node.Builder node(int id, String name, CDPNodeType nodeType, CDPValueType valueType) {
+    StudioAPI.Info.Builder info = StudioAPI.Info.newBuilder()
+        .setNodeId(id).setName(name).setNodeType(nodeType).setValueType(valueType);
+    if (nodeType == CDPNodeType.CDP_APPLICATION)
+      info.setIsLocal(true);
+    return StudioAPI.Node.newBuilder().setInfo(info);
+  }
+
+  private static byte[] structureResponse(StudioAPI.Node.Builder node) {
+    return StudioAPI.Container.newBuilder()
+        .setMessageType(StudioAPI.Container.Type.eStructureResponse)
+        .addStructureResponse(node)
+        .build().toByteArray();
+  }
+}
@@ -0,0 +1,131 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient.simulator;
+
+import static org.junit.Assert.assertTrue;
+
+import com.cdptech.cdpclient.AuthRequest;
+import com.cdptech.cdpclient.AuthResponse;
+import com.cdptech.cdpclient.Client;
+import com.cdptech.cdpclient.NotificationListener;
+import org.junit.rules.ExternalResource;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * JUnit rule connecting a Client to a StudioAPISimulator, with the client's event loop running in its own thread.
+ * The client and the simulator are closed after the test, or earlier with {@link #close()}.
+ *
+ * <pre>
+ * {@code
+ * @Rule public final ConnectedClient connection = new ConnectedClient();
+ *
+ * Client client = connection.connect(new StudioAPISimulator(0), c -> c.setValueRateTracking(true));
+ * }
+ * </pre>
+ */
+public class ConnectedClient extends ExternalResource {
+
+  /** Client settings applied before init, which may throw like {@link Client#startCapture}. */
+  public interface Setup {
+    void configure(Client client) throws Exception;
+  }
+
+  private StudioAPISimulator simulator;
+  private Client client;
+  private Thread eventLoop;
+  private String user;
+  private String password;
+
+  /** Answer credential requests with @a user and @a password. Must be called before connect(). */
+  public ConnectedClient withCredentials(String user, String password) {
+    this.user = user;
+    this.password = password;
+    return this;
+  }
+
+  /** Start @a simulator and connect a new client to it, see {@link #connect(StudioAPISimulator, Setup)}. */
+  public Client connect(StudioAPISimulator simulator) throws Exception {
+    return connect(simulator, c -> {});
+  }
+
+  /**
+   * Start @a simulator and connect a new client to it.
+   * @param setup Applied to the client before it is initialized.
+   * @return The client, once it is ready.
+   */
+  public Client connect(StudioAPISimulator simulator, Setup setup) throws Exception {
+    this.simulator = simulator;
+    simulator.start();
+    client = new Client();
+    setup.configure(client);
+    CountDownLatch ready = new CountDownLatch(1);
+    client.init("127.0.0.1", simulator.getPort(), new NotificationListener() {
+      @Override
+      public void clientReady(Client client) {
+        ready.countDown();
+      }
+
+      @Override
+      public void clientClosed(Client client) {
+      }
+
+      @Override
+      public void credentialsRequested(AuthRequest request) {
+        if (user != null && request.getAuthResult().getCode() == AuthRequest.AuthResultCode.CREDENTIALS_REQUIRED)
+          request.accept(AuthResponse.password(user, password));
+        else
+          request.reject();
+      }
+    });
+    eventLoop = new Thread(client);
+    eventLoop.start();
+    assertTrue(ready.await(5, TimeUnit.SECONDS));
+    return client;
+  }
+
+  public StudioAPISimulator getSimulator() {
+    return simulator;
+  }
+
+  public Client getClient() {
+    return client;
+  }
+
+  /** Get the thread running the client's event loop. */
+  public Thread getEventLoop() {
+    return eventLoop;
+  }
+
+  /** Close the client, wait for its event loop to end and stop the simulator. Does nothing if already closed. */
+  public void close() throws InterruptedException {
+    if (client != null) {
+      try {
+        client.threadSafe().close().get(5, TimeUnit.SECONDS);
+      } catch (ExecutionException | TimeoutException e) {
+        throw new IllegalStateException("Client did not close", e);
+      } finally {
+        eventLoop.join(1000);
+        client = null;
+      }
+    }
+    if (simulator != null) {
+      simulator.stop(1000);
+      simulator = null;
+    }
+  }
+
+  @Override
+  protected void after() {
+    try {
+      close();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient.simulator;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** A node in the tree served by {@link StudioAPISimulator}. */
+public class SimulatedNode {
+
+  private final int id;
+  private final String name;
+  private final StudioAPI.CDPNodeType nodeType;
+  private final StudioAPI.CDPValueType valueType;
+  private final String typeName;
+  private final boolean generated;
+  private final List<SimulatedNode> children = new ArrayList<>();
+  private SimulatedNode parent;
+  private volatile double value;
+  private volatile long version;
+
+  SimulatedNode(int id, String name, StudioAPI.CDPNodeType nodeType, StudioAPI.CDPValueType valueType,
+                String typeName, boolean generated) {
+    this.id = id;
+    this.name = name;
+    this.nodeType = nodeType;
+    this.valueType = valueType;
+    this.typeName = typeName;
+    this.generated = generated;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public SimulatedNode getParent() {
+    return parent;
+  }
+
+  /** Get the children. The list must only be accessed while holding the simulator's tree lock. */
+  public List<SimulatedNode> getChildren() {
+    return children;
+  }
+
+  /** Check if the value is generated as a continuous waveform around the last set value. */
+  public boolean isGenerated() {
+    return generated;
+  }
+
+  /** Get the last value set by a setter request or {@link StudioAPISimulator#setValue}. */
+  public double getValue() {
+    return value;
+  }
+
+  void setValue(double value) {
+    this.value = value;
+    version++;
+  }
+
+  /** Get the value as sent at @a timeNs (wall clock nanoseconds). */
+  double sampleValue(long timeNs) {
+    if (!generated)
+      return value;
+    return value + 10 * Math.sin(2 * Math.PI * 0.1 * (timeNs / 1e9) + id);
+  }
+
+  long getVersion() {
+    return version;
+  }
+
+  boolean hasValue() {
+    return valueType != StudioAPI.CDPValueType.eUNDEFINED;
+  }
+
+  void addChild(SimulatedNode child) {
+    child.parent = this;
+    children.add(child);
+  }
+
+  void removeChild(SimulatedNode child) {
+    children.remove(child);
+    child.parent = null;
+  }
+
+  SimulatedNode getChild(String name) {
+    for (SimulatedNode child : children)
+      if (child.name.equals(name))
+        return child;
+    return null;
+  }
+
+  StudioAPI.Info.Builder toInfo() {
+    StudioAPI.Info.Builder info = StudioAPI.Info.newBuilder()
+        .setNodeId(id)
+        .setName(name)
+        .setNodeType(nodeType)
+        .setValueType(valueType);
+    if (typeName != null)
+      info.setTypeName(typeName);
+    if (nodeType == StudioAPI.CDPNodeType.CDP_APPLICATION)
+      info.setIsLocal(true);
+    if (children.isEmpty() && hasValue())
+      info.setFlags(StudioAPI.Info.Flags.eNodeIsLeaf_VALUE);
+    return info;
+  }
+}
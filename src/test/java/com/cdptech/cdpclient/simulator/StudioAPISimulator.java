@@ -0,0 +1,623 @@
+/*
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient.simulator;
+
+import com.cdptech.cdpclient.proto.StudioAPI;
+import com.cdptech.cdpclient.proto.StudioAPI.Container;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A local StudioAPI server for load and integration testing of the client without a running CDP system.
+ *
+ * Serves a synthetic tree of applications x components x signals (and optional parameters) and supports
+ * Hello, optional password authentication, structure requests, getter requests and subscriptions at the
+ * requested fs, setters, child add and remove requests, current time requests and structure change
+ * notifications. Signal values are generated as a sine wave around the last set value, parameters only
+ * change when set and are sent to subscribers on change.
+ *
+ * <pre>
+ * {@code
+ * StudioAPISimulator simulator = new StudioAPISimulator(7689)
+ *     .setApplicationCount(10)
+ *     .setComponentsPerApplication(100)
+ *     .setSignalsPerComponent(100); // 100k signals
+ * simulator.start();
+ * }
+ * </pre>
+ *
+ * The tree is created on {@link #start()}, configuration setters must be called before that.
+ * Run {@link #main(String[])} to serve a tree from the command line.
+ */
+public class StudioAPISimulator extends WebSocketServer {
+
+  private static final int SYSTEM_NODE_ID = 1;
+  private static final int MAX_VALUES_PER_FRAME = 10000;
+  /** Wall clock anchor of {@link #currentTimeNs()}, which then follows System.nanoTime() monotonically. */
+  private static final long CLOCK_ANCHOR_EPOCH_NS = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+  private static final long CLOCK_ANCHOR_NANO_TIME = System.nanoTime();
+
+  private final Object treeLock = new Object();
+  private final Map<Integer, SimulatedNode> nodesById = new HashMap<>();
+  private final AtomicInteger nextNodeId = new AtomicInteger(SYSTEM_NODE_ID);
+  private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+  private final LongAdder valuesSent = new LongAdder();
+  private final LongAdder framesSent = new LongAdder();
+  private final LongAdder setterCount = new LongAdder();
+  private final SecureRandom random = new SecureRandom();
+  private final CountDownLatch started = new CountDownLatch(1);
+  private ScheduledExecutorService ticker;
+  private SimulatedNode systemNode;
+
+  private String systemName = "SimulatedSystem";
+  private int applicationCount = 1;
+  private int componentsPerApplication = 1;
+  private int signalsPerComponent = 1;
+  private int parametersPerComponent = 0;
+  private long tickPeriodMs = 10;
+  private String user;
+  private String password;
+
+  /** Create a simulator listening on @a port on all interfaces. Port 0 picks a free port. */
+  public StudioAPISimulator(int port) {
+    super(new InetSocketAddress(port));
+    setReuseAddr(true);
+  }
+
+  public StudioAPISimulator setSystemName(String systemName) {
+    this.systemName = systemName;
+    return this;
+  }
+
+  public StudioAPISimulator setApplicationCount(int applicationCount) {
+    this.applicationCount = applicationCount;
+    return this;
+  }
+
+  public StudioAPISimulator setComponentsPerApplication(int componentsPerApplication) {
+    this.componentsPerApplication = componentsPerApplication;
+    return this;
+  }
+
+  /** Set the number of generated eDOUBLE signals per component. */
+  public StudioAPISimulator setSignalsPerComponent(int signalsPerComponent) {
+    this.signalsPerComponent = signalsPerComponent;
+    return this;
+  }
+
+  /** Set the number of eDOUBLE parameters per component. Parameter values only change when set. */
+  public StudioAPISimulator setParametersPerComponent(int parametersPerComponent) {
+    this.parametersPerComponent = parametersPerComponent;
+    return this;
+  }
+
+  /** Set the period at which subscriptions are checked and due values are sent. */
+  public StudioAPISimulator setTickPeriodMs(long tickPeriodMs) {
+    this.tickPeriodMs = tickPeriodMs;
+    return this;
+  }
+
+  /** Require password authentication with @a user and @a password. */
+  public StudioAPISimulator setCredentials(String user, String password) {
+    this.user = user;
+    this.password = password;
+    return this;
+  }
+
+  /** Number of signals and parameters in the tree. */
+  public int getValueNodeCount() {
+    synchronized (treeLock) {
+      int count = 0;
+      for (SimulatedNode node : nodesById.values())
+        if (node.hasValue())
+          count++;
+      return count;
+    }
+  }
+
+  /** Number of values sent to all clients. */
+  public long getValuesSent() {
+    return valuesSent.sum();
+  }
+
+  /** Number of frames sent to all clients. */
+  public long getFramesSent() {
+    return framesSent.sum();
+  }
+
+  /** Number of values received in setter requests. */
+  public long getSetterCount() {
+    return setterCount.sum();
+  }
+
+  /** Find a node by its dot separated path, starting with the application name. Returns null if not found. */
+  public SimulatedNode find(String path) {
+    synchronized (treeLock) {
+      SimulatedNode node = systemNode;
+      for (String name : path.split("\\.")) {
+        node = node.getChild(name);
+        if (node == null)
+          return null;
+      }
+      return node;
+    }
+  }
+
+  /** Set the value of the node with @a nodeId. Subscribers of parameters receive the value on the next tick. */
+  public void setValue(int nodeId, double value) {
+    synchronized (treeLock) {
+      SimulatedNode node = nodesById.get(nodeId);
+      if (node == null)
+        throw new IllegalArgumentException("No node with ID " + nodeId);
+      node.setValue(value);
+    }
+  }
+
+  /** Add an eDOUBLE signal named @a name under @a parentId and notify structure subscribers. */
+  public SimulatedNode addSignal(int parentId, String name) {
+    SimulatedNode node;
+    synchronized (treeLock) {
+      SimulatedNode parent = nodesById.get(parentId);
+      if (parent == null)
+        throw new IllegalArgumentException("No node with ID " + parentId);
+      node = createNode(parent, name, StudioAPI.CDPNodeType.CDP_BASE_OBJECT, StudioAPI.CDPValueType.eDOUBLE,
+          "CDPSignal<double>", true);
+    }
+    notifyStructureChange(parentId);
+    return node;
+  }
+
+  /** Remove the node with @a nodeId and its subtree and notify structure subscribers. */
+  public boolean removeNode(int nodeId) {
+    int parentId;
+    synchronized (treeLock) {
+      SimulatedNode node = nodesById.get(nodeId);
+      if (node == null || node.getParent() == null)
+        return false;
+      parentId = node.getParent().getId();
+      node.getParent().removeChild(node);
+      unregister(node);
+    }
+    notifyStructureChange(parentId);
+    return true;
+  }
+
+  /** Close all client connections, e.g. to test reconnection. */
+  public void dropConnections() {
+    for (WebSocket connection : getConnections())
+      connection.close();
+  }
+
+  /** Build the tree and start serving. Returns once the server socket is bound, so {@link #getPort()} is valid. */
+  @Override
+  public void start() {
+    buildTree();
+    ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "StudioAPISimulator-ticker");
+      thread.setDaemon(true);
+      return thread;
+    });
+    ticker.scheduleAtFixedRate(this::tick, tickPeriodMs, tickPeriodMs, TimeUnit.MILLISECONDS);
+    super.start();
+    try {
+      if (!started.await(5, TimeUnit.SECONDS))
+        throw new IllegalStateException("Simulator did not start on " + getAddress());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void stop(int timeout) throws InterruptedException {
+    if (ticker != null)
+      ticker.shutdownNow();
+    super.stop(timeout);
+  }
+
+  @Override
+  public void onStart() {
+    started.countDown();
+  }
+
+  @Override
+  public void onOpen(WebSocket conn, ClientHandshake handshake) {
+    Session session = new Session(conn);
+    conn.setAttachment(session);
+    StudioAPI.Hello.Builder hello = StudioAPI.Hello.newBuilder()
+        .setSystemName(systemName)
+        .setCompatVersion(1)
+        .setIncrementalVersion(0)
+        .setApplicationName(systemNode.getChildren().isEmpty() ? systemName
+            : systemNode.getChildren().get(0).getName())
+        .setCdpVersionMajor(4)
+        .setCdpVersionMinor(12);
+    if (user != null) {
+      byte[] challenge = new byte[16];
+      random.nextBytes(challenge);
+      session.challenge = toHex(challenge);
+      hello.setChallenge(ByteString.copyFromUtf8(session.challenge));
+    } else {
+      session.authenticated = true;
+    }
+    send(session, hello.build().toByteArray());
+  }
+
+  @Override
+  public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+    Session session = conn.getAttachment();
+    if (session != null)
+      sessions.remove(session);
+  }
+
+  @Override
+  public void onMessage(WebSocket conn, String message) {
+    conn.close();
+  }
+
+  @Override
+  public void onMessage(WebSocket conn, ByteBuffer message) {
+    Session session = conn.getAttachment();
+    try {
+      if (!session.authenticated)
+        handleAuthRequest(session, StudioAPI.AuthRequest.parseFrom(message));
+      else
+        handleContainer(session, Container.parseFrom(message));
+    } catch (InvalidProtocolBufferException e) {
+      sendError(session, StudioAPI.RemoteErrorCode.eINVALID_REQUEST, "Could not parse message: " + e.getMessage());
+    }
+  }
+
+  @Override
+  public void onError(WebSocket conn, Exception ex) {
+    if (conn == null)
+      ex.printStackTrace();
+  }
+
+  private void handleAuthRequest(Session session, StudioAPI.AuthRequest request) {
+    StudioAPI.AuthResponse.Builder response = StudioAPI.AuthResponse.newBuilder();
+    if (user.equalsIgnoreCase(request.getUserId()) && hasValidResponse(session, request)) {
+      session.authenticated = true;
+      sessions.add(session);
+      response.setResultCode(StudioAPI.AuthResponse.AuthResultCode.eGranted);
+    } else {
+      response.setResultCode(StudioAPI.AuthResponse.AuthResultCode.eInvalidChallengeResponse)
+          .setResultText("Invalid user name or password");
+    }
+    send(session, response.build().toByteArray());
+  }
+
+  private boolean hasValidResponse(Session session, StudioAPI.AuthRequest request) {
+    byte[] expected = sha256((session.challenge + ":").getBytes(StandardCharsets.UTF_8),
+        sha256((user.toLowerCase() + ":" + password).getBytes(StandardCharsets.UTF_8)));
+    for (StudioAPI.AuthRequest.ChallengeResponse response : request.getChallengeResponseList())
+      if ("PasswordHash".equals(response.getType()) && Arrays.equals(expected, response.getResponse().toByteArray()))
+        return true;
+    return false;
+  }
+
+  private void handleContainer(Session session, Container request) {
+    sessions.add(session);
+    switch (request.getMessageType()) {
+    case eStructureRequest:
+      handleStructureRequest(session, request.getStructureRequestList());
+      break;
+    case eGetterRequest:
+      handleGetterRequest(session, request.getGetterRequestList());
+      break;
+    case eSetterRequest:
+      handleSetterRequest(request.getSetterRequestList());
+      break;
+    case eCurrentTimeRequest:
+      send(session, Container.newBuilder()
+          .setMessageType(Container.Type.eCurrentTimeResponse)
+          .setCurrentTimeResponse(currentTimeNs())
+          .build().toByteArray());
+      break;
+    case eChildAddRequest:
+      for (StudioAPI.ChildAdd add : request.getChildAddRequestList())
+        handleChildAdd(session, add);
+      break;
+    case eChildRemoveRequest:
+      for (StudioAPI.ChildRemove remove : request.getChildRemoveRequestList())
+        handleChildRemove(session, remove);
+      break;
+    case eActivityNotification:
+      break;
+    default:
+      sendError(session, StudioAPI.RemoteErrorCode.eINVALID_REQUEST,
+          "Unsupported message type " + request.getMessageType());
+    }
+  }
+
+  private void handleStructureRequest(Session session, List<Integer> nodeIds) {
+    List<Integer> ids = nodeIds.isEmpty() ? Arrays.asList(SYSTEM_NODE_ID) : nodeIds;
+    Container.Builder response = Container.newBuilder().setMessageType(Container.Type.eStructureResponse);
+    synchronized (treeLock) {
+      for (int id : ids) {
+        SimulatedNode node = nodesById.get(id);
+        if (node == null)
+          continue;
+        StudioAPI.Node.Builder pbNode = StudioAPI.Node.newBuilder().setInfo(node.toInfo());
+        for (SimulatedNode child : node.getChildren())
+          pbNode.addNode(StudioAPI.Node.newBuilder().setInfo(child.toInfo()));
+        response.addStructureResponse(pbNode);
+        session.structureSubscriptions.add(id);
+      }
+    }
+    if (response.getStructureResponseCount() > 0)
+      send(session, response.build().toByteArray());
+    else
+      sendError(session, StudioAPI.RemoteErrorCode.eINVALID_REQUEST, "Unknown node ID " + ids);
+  }
+
+  private void handleGetterRequest(Session session, List<StudioAPI.ValueRequest> requests) {
+    Container.Builder response = Container.newBuilder().setMessageType(Container.Type.eGetterResponse);
+    long timeNs = currentTimeNs();
+    for (StudioAPI.ValueRequest request : requests) {
+      int id = request.getNodeId();
+      if (request.getStop()) {
+        session.subscriptions.remove(id);
+        continue;
+      }
+      synchronized (treeLock) {
+        SimulatedNode node = nodesById.get(id);
+        if (node == null || !node.hasValue())
+          continue;
+        if (request.getFs() > 0)
+          session.subscriptions.put(id, new Subscription(node, request.getFs()));
+        response.addGetterResponse(toVariantValue(node, timeNs));
+      }
+    }
+    if (response.getGetterResponseCount() > 0)
+      send(session, response.build().toByteArray());
+  }
+
+  private void handleSetterRequest(List<StudioAPI.VariantValue> values) {
+    synchronized (treeLock) {
+      for (StudioAPI.VariantValue value : values) {
+        SimulatedNode node = nodesById.get(value.getNodeId());
+        if (node != null && value.hasDValue())
+          node.setValue(value.getDValue());
+      }
+    }
+    setterCount.add(values.size());
+  }
+
+  private void handleChildAdd(Session session, StudioAPI.ChildAdd add) {
+    synchronized (treeLock) {
+      SimulatedNode parent = nodesById.get(add.getParentNodeId());
+      if (parent == null || parent.getChild(add.getChildName()) != null) {
+        sendError(session, StudioAPI.RemoteErrorCode.eINVALID_REQUEST, "Can not add " + add.getChildName());
+        return;
+      }
+      createNode(parent, add.getChildName(), StudioAPI.CDPNodeType.CDP_BASE_OBJECT, StudioAPI.CDPValueType.eDOUBLE,
+          add.getChildTypeName(), false);
+    }
+    notifyStructureChange(add.getParentNodeId());
+  }
+
+  private void handleChildRemove(Session session, StudioAPI.ChildRemove remove) {
+    SimulatedNode child;
+    synchronized (treeLock) {
+      SimulatedNode parent = nodesById.get(remove.getParentNodeId());
+      child = parent == null ? null : parent.getChild(remove.getChildName());
+    }
+    if (child == null || !removeNode(child.getId()))
+      sendError(session, StudioAPI.RemoteErrorCode.eINVALID_REQUEST, "Can not remove " + remove.getChildName());
+  }
+
+  private void notifyStructureChange(int nodeId) {
+    byte[] notification = Container.newBuilder()
+        .setMessageType(Container.Type.eStructureChangeResponse)
+        .addStructureChangeResponse(nodeId)
+        .build().toByteArray();
+    for (Session session : sessions)
+      if (session.structureSubscriptions.contains(nodeId))
+        send(session, notification);
+  }
+
+  /** Send all due subscription values, one frame per session. */
+  private void tick() {
+    long nowNs = System.nanoTime();
+    long timeNs = currentTimeNs();
+    for (Session session : sessions) {
+      if (session.subscriptions.isEmpty())
+        continue;
+      List<byte[]> frames;
+      synchronized (treeLock) {
+        frames = encodeDueValues(session, nowNs, timeNs);
+      }
+      for (byte[] frame : frames)
+        send(session, frame);
+    }
+  }
+
+  /** Encode the due subscription values of @a session in frames of at most MAX_VALUES_PER_FRAME values. */
+  private List<byte[]> encodeDueValues(Session session, long nowNs, long timeNs) {
+    List<byte[]> frames = new ArrayList<>();
+    Container.Builder frame = null;
+    Iterator<Subscription> it = session.subscriptions.values().iterator();
+    while (it.hasNext()) {
+      Subscription subscription = it.next();
+      if (subscription.node.getParent() == null) {
+        it.remove();
+        continue;
+      }
+      if (!subscription.isDue(nowNs))
+        continue;
+      if (frame == null)
+        frame = Container.newBuilder().setMessageType(Container.Type.eGetterResponse);
+      frame.addGetterResponse(toVariantValue(subscription.node, timeNs));
+      if (frame.getGetterResponseCount() == MAX_VALUES_PER_FRAME) {
+        frames.add(frame.build().toByteArray());
+        frame = null;
+      }
+    }
+    if (frame != null)
+      frames.add(frame.build().toByteArray());
+    return frames;
+  }
+
+  private StudioAPI.VariantValue toVariantValue(SimulatedNode node, long timeNs) {
+    valuesSent.increment();
+    return StudioAPI.VariantValue.newBuilder()
+        .setNodeId(node.getId())
+        .setDValue(node.sampleValue(timeNs))
+        .setTimestamp(timeNs)
+        .build();
+  }
+
+  private void send(Session session, byte[] data) {
+    if (!session.connection.isOpen())
+      return;
+    session.connection.send(data);
+    framesSent.increment();
+  }
+
+  private void sendError(Session session, StudioAPI.RemoteErrorCode code, String text) {
+    send(session, Container.newBuilder()
+        .setMessageType(Container.Type.eRemoteError)
+        .setError(StudioAPI.Error.newBuilder().setCode(code.getNumber()).setText(text))
+        .build().toByteArray());
+  }
+
+  private void buildTree() {
+    synchronized (treeLock) {
+      nodesById.clear();
+      systemNode = new SimulatedNode(nextNodeId.getAndIncrement(), systemName, StudioAPI.CDPNodeType.CDP_SYSTEM,
+          StudioAPI.CDPValueType.eUNDEFINED, null, false);
+      nodesById.put(systemNode.getId(), systemNode);
+      for (int a = 0; a < applicationCount; a++) {
+        SimulatedNode app = createNode(systemNode, "App" + a, StudioAPI.CDPNodeType.CDP_APPLICATION,
+            StudioAPI.CDPValueType.eUNDEFINED, "CDPApplication", false);
+        for (int c = 0; c < componentsPerApplication; c++) {
+          SimulatedNode component = createNode(app, "Component" + c, StudioAPI.CDPNodeType.CDP_COMPONENT,
+              StudioAPI.CDPValueType.eUNDEFINED, "CDPComponent", false);
+          for (int s = 0; s < signalsPerComponent; s++)
+            createNode(component, "Signal" + s, StudioAPI.CDPNodeType.CDP_BASE_OBJECT,
+                StudioAPI.CDPValueType.eDOUBLE, "CDPSignal<double>", true);
+          for (int p = 0; p < parametersPerComponent; p++)
+            createNode(component, "Parameter" + p, StudioAPI.CDPNodeType.CDP_BASE_OBJECT,
+                StudioAPI.CDPValueType.eDOUBLE, "CDPParameter", false);
+        }
+      }
+    }
+  }
+
+  private SimulatedNode createNode(SimulatedNode parent, String name, StudioAPI.CDPNodeType nodeType,
+                                   StudioAPI.CDPValueType valueType, String typeName, boolean generated) {
+    SimulatedNode node = new SimulatedNode(nextNodeId.getAndIncrement(), name, nodeType, valueType, typeName,
+        generated);
+    parent.addChild(node);
+    nodesById.put(node.getId(), node);
+    return node;
+  }
+
+  private void unregister(SimulatedNode node) {
+    nodesById.remove(node.getId());
+    for (SimulatedNode child : new ArrayList<>(node.getChildren())) {
+      node.removeChild(child);
+      unregister(child);
+    }
+  }
+
+  private static long currentTimeNs() {
+    return CLOCK_ANCHOR_EPOCH_NS + (System.nanoTime() - CLOCK_ANCHOR_NANO_TIME);
+  }
+
+  private static byte[] sha256(byte[]... parts) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      for (byte[] part : parts)
+        digest.update(part);
+      return digest.digest();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder sb = new StringBuilder();
+    for (byte b : bytes)
+      sb.append(String.format("%02x", b));
+    return sb.toString();
+  }
+
+  /**
+   * Serve a simulated system.
+   * Usage: StudioAPISimulator [port] [applications] [components per application] [signals per component]
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 7689;
+    StudioAPISimulator simulator = new StudioAPISimulator(port)
+        .setApplicationCount(args.length > 1 ? Integer.parseInt(args[1]) : 10)
+        .setComponentsPerApplication(args.length > 2 ? Integer.parseInt(args[2]) : 100)
+        .setSignalsPerComponent(args.length > 3 ? Integer.parseInt(args[3]) : 100);
+    simulator.start();
+    System.out.println("Serving " + simulator.getValueNodeCount() + " signals on port " + simulator.getPort());
+    Thread.currentThread().join();
+  }
+
+  private static class Session {
+    final WebSocket connection;
+    final Map<Integer, Subscription> subscriptions = new ConcurrentHashMap<>();
+    final Set<Integer> structureSubscriptions = ConcurrentHashMap.newKeySet();
+    volatile boolean authenticated;
+    String challenge;
+
+    Session(WebSocket connection) {
+      this.connection = connection;
+    }
+  }
+
+  private static class Subscription {
+    final SimulatedNode node;
+    final long periodNs;
+    long nextDueNs;
+    long sentVersion;
+
+    Subscription(SimulatedNode node, double fs) {
+      this.node = node;
+      this.periodNs = (long) (1e9 / fs);
+      this.nextDueNs = System.nanoTime() + periodNs;
+      this.sentVersion = node.getVersion();
+    }
+
+    /** Generated values are due every period, parameters only when changed. */
+    boolean isDue(long nowNs) {
+      if (nowNs - nextDueNs < 0)
+        return false;
+      if (!node.isGenerated() && node.getVersion() == sentVersion)
+        return false;
+      nextDueNs = Math.max(nextDueNs + periodNs, nowNs - periodNs);
+      sentVersion = node.getVersion();
+      return true;
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/**
+ * (c)2026 CDP Technologies AS
+ */
+
+package com.cdptech.cdpclient.simulator;
+
+import static org.junit.Assert.*;
+
+import com.cdptech.cdpclient.Client;
+import com.cdptech.cdpclient.Node;
+import com.cdptech.cdpclient.SubtreeChangeType;
+import com.cdptech.cdpclient.ThreadSafeClient;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class StudioAPISimulatorTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+  @Rule
+  public final ConnectedClient connection = new ConnectedClient();
+
+  private StudioAPISimulator simulator;
+  private Client client;
+
+  @Test
+  public void client_shouldSubscribeAndWriteValues() throws Exception {
+    simulator = new StudioAPISimulator(0)
+        .setApplicationCount(2)
+        .setComponentsPerApplication(3)
+        .setSignalsPerComponent(4)
+        .setParametersPerComponent(1);
+    connect(null, null);
+    assertEquals(2 * 3 * 5, simulator.getValueNodeCount());
+
+    Node signal = client.findNodeBlocking("App1.Component2.Signal3", TIMEOUT);
+    CountDownLatch received = new CountDownLatch(10);
+    client.threadSafe().subscribeToValueChanges(signal, value -> received.countDown(), 100);
+    assertTrue(received.await(5, TimeUnit.SECONDS));
+
+    Node parameter = client.findNodeBlocking("App0.Component0.Parameter0", TIMEOUT);
+    client.threadSafe().postDouble(parameter, 42).get(5, TimeUnit.SECONDS);
+    SimulatedNode simulated = simulator.find("App0.Component0.Parameter0");
+    long deadline = System.nanoTime() + TIMEOUT.toNanos();
+    while (simulated.getValue() != 42 && System.nanoTime() < deadline)
+      Thread.sleep(10);
+    assertEquals(42, simulated.getValue(), 0);
+    assertEquals(42, (Double) parameter.awaitValue(TIMEOUT).getValue(), 0);
+  }
+
+  @Test
+  public void client_shouldAuthenticateAndSeeStructureChanges() throws Exception {
+    simulator = new StudioAPISimulator(0).setCredentials("Operator", "secret");
+    connect("operator", "secret");
+
+    Node component = client.findNodeBlocking("App0.Component0", TIMEOUT);
+    ThreadSafeClient facade = client.threadSafe();
+    facade.requestChildNodes(component).get(5, TimeUnit.SECONDS);
+    CompletableFuture<String> added = new CompletableFuture<>();
+    facade.addSubtreeListener(component, (node, change) -> {
+      if (change == SubtreeChangeType.eChildAdded)
+        added.complete(node.getName());
+    }).get(5, TimeUnit.SECONDS);
+
+    simulator.addSignal(simulator.find("App0.Component0").getId(), "Added");
+    assertEquals("Added", added.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void client_shouldReportStructureUpdatesAsChangeSets() throws Exception {
+    simulator = new StudioAPISimulator(0).setComponentsPerApplication(3);
+    connect(null, null);
+
+    Node app = client.findNodeBlocking("App0", TIMEOUT);
+    ThreadSafeClient facade = client.threadSafe();
+    facade.requestChildNodes(app).get(5, TimeUnit.SECONDS);
+    BlockingQueue<String> changes = new LinkedBlockingQueue<>();
+    facade.addSubtreeBatchListener(app, (parent, added, removed) -> changes.add(parent.getName() + " +"
+        + added.stream().map(Node::getName).collect(Collectors.toList()) + " -"
+        + removed.stream().map(Node::getName).collect(Collectors.toList()))).get(5, TimeUnit.SECONDS);
+
+    simulator.removeNode(simulator.find("App0.Component0").getId());
+    assertEquals("App0 +[] -[Component0]", changes.poll(5, TimeUnit.SECONDS));
+    simulator.addSignal(simulator.find("App0").getId(), "Added");
+    assertEquals("App0 +[Added] -[]", changes.poll(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void blockingCalls_shouldCompleteOnWorkerThread() throws Exception {
+    simulator = new StudioAPISimulator(0).setSignalsPerComponent(2);
+    connect(null, null);
+
+    Node component = client.findNodeBlocking("App0.Component0", TIMEOUT);
+    assertSame(component, component.requestChildNodesBlocking(TIMEOUT));
+    ThreadSafeClient facade = client.threadSafe();
+    assertEquals(2, (int) facade.submit(c -> component.getChildCount()).get(5, TimeUnit.SECONDS));
+    Node signal = facade.submit(c -> component.getCachedChild(1)).get(5, TimeUnit.SECONDS);
+    assertEquals("Signal1", signal.getName());
+    assertNotNull(signal.awaitValue(TIMEOUT).getValue());
+  }
+
+  private void connect(String user, String password) throws Exception {
+    if (user != null)
+      connection.withCredentials(user, password);
+    client = connection.connect(simulator);
+  }
+}